@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.gs2.jobQueue.control.DescribeJobResult;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.transport.ContentEncoding;
+import io.gs2.jobQueue.util.JsonBodyWriter;
+import io.gs2.jobQueue.util.JsonSupport;
+
+/**
+ * push のリクエストボディ圧縮と describe 系のレスポンスボディ展開のベンチマーク<br>
+ * <br>
+ * 圧縮しない場合と gzip で圧縮する場合のボディ生成にかかる CPU 時間と、
+ * jobs 件のジョブを含む describeJob のレスポンスを展開してデコードする CPU 時間を計測します。
+ * ジョブの引数はジョブごとに異なる内容で生成します。
+ * 圧縮前後のバイト数は各パラメータの開始時に標準出力へ出力します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+	@Param({"1", "10"})
+	public int jobs;
+
+	@Param({"1024", "4096", "16384"})
+	public int argsBytes;
+
+	@Param({"1", "6"})
+	public int level;
+
+	private PushRequest request;
+
+	private byte[] describeJobBody;
+
+	private byte[] gzippedDescribeJobBody;
+
+	@Setup
+	public void setup() {
+		List<PushJob> items = new ArrayList<>();
+		for(int i = 0; i < jobs; i++) {
+			items.add(Payloads.pushJob(argsBytes, i));
+		}
+		request = new PushRequest()
+				.withQueueName("queue-0001")
+				.withUserId("user-0001")
+				.withJobs(items);
+		long plain = JsonBodyWriter.push(request).getContentLength();
+		long compressed = JsonBodyWriter.push(request, 0, level).getContentLength();
+		System.out.printf("%njobs=%d argsBytes=%d level=%d: %d -> %d bytes (%.1f%%)%n",
+				jobs, argsBytes, level, plain, compressed, compressed * 100.0 / plain);
+		describeJobBody = Payloads.describeJobBody(jobs, argsBytes).getBytes(StandardCharsets.UTF_8);
+		gzippedDescribeJobBody = ContentEncoding.gzip(describeJobBody, 0, describeJobBody.length, level);
+		System.out.printf("describeJob: %d -> %d bytes (%.1f%%)%n",
+				describeJobBody.length, gzippedDescribeJobBody.length, gzippedDescribeJobBody.length * 100.0 / describeJobBody.length);
+	}
+
+	@Benchmark
+	public ByteArrayEntity uncompressed() {
+		return JsonBodyWriter.push(request);
+	}
+
+	@Benchmark
+	public ByteArrayEntity gzip() {
+		return JsonBodyWriter.push(request, 0, level);
+	}
+
+	@Benchmark
+	public DescribeJobResult decodeUncompressed() throws IOException {
+		return decode(describeJobBody, null);
+	}
+
+	@Benchmark
+	public DescribeJobResult decodeGzip() throws IOException {
+		return decode(gzippedDescribeJobBody, ContentEncoding.GZIP);
+	}
+
+	private static DescribeJobResult decode(byte[] body, String contentEncoding) throws IOException {
+		try(InputStream content = ContentEncoding.decode(new ByteArrayInputStream(body), contentEncoding)) {
+			return JsonSupport.MAPPER.readValue(content, DescribeJobResult.class);
+		}
+	}
+
+}
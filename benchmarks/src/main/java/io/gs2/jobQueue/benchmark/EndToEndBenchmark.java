@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.control.RunByUserIdResult;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.model.BasicGs2Credential;
+
+/**
+ * ローカルのエミュレーターに対する push / runByUserId のベンチマーク
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class EndToEndBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Server {
+
+		@Param({"64", "4096"})
+		public int argsBytes;
+
+		Gs2JobQueueEmulator emulator;
+
+		Gs2JobQueueClient client;
+
+		final AtomicInteger users = new AtomicInteger();
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			Gs2JobQueueEmulator.enableTcpNoDelay();
+			emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start();
+			client = new Gs2JobQueueClient(new BasicGs2Credential("clientId", "clientSecret"))
+					.withTransport(emulator.createTransport());
+			client.createQueue(new CreateQueueRequest().withName("queue-0001"));
+		}
+
+		@TearDown(Level.Iteration)
+		public void reset() {
+			emulator.getStore().reset();
+			client.createQueue(new CreateQueueRequest().withName("queue-0001"));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			emulator.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class User {
+
+		PushRequest push;
+
+		RunByUserIdRequest run;
+
+		@Setup(Level.Trial)
+		public void setup(Server server) {
+			String userId = "user-" + server.users.incrementAndGet();
+			push = new PushRequest()
+					.withQueueName("queue-0001")
+					.withUserId(userId)
+					.withJobs(Collections.singletonList(Payloads.pushJob(server.argsBytes)));
+			run = new RunByUserIdRequest()
+					.withQueueName("queue-0001")
+					.withUserId(userId);
+		}
+	}
+
+	@Benchmark
+	public PushResult push(Server server, User user) {
+		return server.client.push(user.push);
+	}
+
+	@Benchmark
+	public RunByUserIdResult pushAndRun(Server server, User user) {
+		server.client.push(user.push);
+		return server.client.runByUserId(user.run);
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.util.Random;
+
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * ベンチマークで利用するペイロード
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+final class Payloads {
+
+	private Payloads() {
+	}
+
+	/**
+	 * 指定したサイズ程度の JSON を引数に持つジョブを生成します。
+	 *
+	 * @param argsBytes 引数のおおよそのバイト数
+	 * @return ジョブ
+	 */
+	static PushJob pushJob(int argsBytes) {
+		return pushJob(argsBytes, 0);
+	}
+
+	/**
+	 * 指定したサイズ程度の JSON を引数に持つジョブを生成します。<br>
+	 * 1つのリクエストに含める複数のジョブは seed を変えて生成し、引数が同一にならないようにします。<br>
+	 *
+	 * @param argsBytes 引数のおおよそのバイト数
+	 * @param seed 引数の内容を決める値
+	 * @return ジョブ
+	 */
+	static PushJob pushJob(int argsBytes, int seed) {
+		return new PushJob()
+				.withScriptName("grn:gs2:ap-northeast-1:sample:script:reward:script:grant")
+				.withArgs(args(argsBytes, seed))
+				.withMaxRetry(3);
+	}
+
+	/**
+	 * 報酬付与を模した JSON を生成します。
+	 *
+	 * @param argsBytes おおよそのバイト数
+	 * @return JSON
+	 */
+	static String args(int argsBytes) {
+		return args(argsBytes, 0);
+	}
+
+	/**
+	 * 報酬付与を模した JSON を生成します。<br>
+	 * seed が 0 の場合は {@link #args(int)} と同じ JSON になります。<br>
+	 *
+	 * @param argsBytes おおよそのバイト数
+	 * @param seed 内容を決める値
+	 * @return JSON
+	 */
+	static String args(int argsBytes, int seed) {
+		Random random = new Random(argsBytes ^ ((long) seed << 32));
+		StringBuilder args = new StringBuilder(argsBytes + 64).append("{\"rewards\":[");
+		for(int i = 0; args.length() < argsBytes; i++) {
+			if(i > 0) {
+				args.append(',');
+			}
+			args.append("{\"itemName\":\"item-").append(random.nextInt(200))
+					.append("\",\"inventoryName\":\"inventory-").append(random.nextInt(8))
+					.append("\",\"count\":").append(1 + random.nextInt(99)).append('}');
+		}
+		return args.append("]}").toString();
+	}
+
+	/**
+	 * describeJob のレスポンスボディを生成します。
+	 *
+	 * @param items 件数
+	 * @param argsBytes 引数のおおよそのバイト数
+	 * @return JSON
+	 */
+	static String describeJobBody(int items, int argsBytes) {
+		StringBuilder body = new StringBuilder().append("{\"items\":[");
+		for(int i = 0; i < items; i++) {
+			if(i > 0) {
+				body.append(',');
+			}
+			String args = args(argsBytes, i).replace("\"", "\\\"");
+			body.append("{\"jobId\":\"job-").append(i)
+					.append("\",\"queueId\":\"grn:gs2:ap-northeast-1:sample:job-queue:queue-0001\"")
+					.append(",\"userId\":\"user-").append(i % 16)
+					.append("\",\"scriptName\":\"grn:gs2:ap-northeast-1:sample:script:reward:script:grant\"")
+					.append(",\"args\":\"").append(args)
+					.append("\",\"currentRetry\":0,\"maxRetry\":3,\"createAt\":1500000000}");
+		}
+		return body.append("],\"nextPageToken\":\"job-").append(items).append("\"}").toString();
+	}
+
+	/**
+	 * describeJobResult のレスポンスボディを生成します。
+	 *
+	 * @param items 件数
+	 * @return JSON
+	 */
+	static String describeJobResultBody(int items) {
+		StringBuilder body = new StringBuilder().append("{\"items\":[");
+		for(int i = 0; i < items; i++) {
+			if(i > 0) {
+				body.append(',');
+			}
+			body.append("{\"jobId\":\"job-").append(i)
+					.append("\",\"queueId\":\"grn:gs2:ap-northeast-1:sample:job-queue:queue-0001\"")
+					.append(",\"statusCode\":200,\"result\":\"{\\\"granted\\\":true}\",\"endOfJob\":false,\"createAt\":1500000000}");
+		}
+		return body.append("],\"nextPageToken\":null}").toString();
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.util.JsonBodyWriter;
+
+/**
+ * push のリクエストボディ生成のベンチマーク
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PushJobSerializationBenchmark {
+
+	@Param({"1", "100"})
+	public int jobs;
+
+	@Param({"64", "4096"})
+	public int argsBytes;
+
+	private PushJob job;
+
+	private PushRequest request;
+
+	@Setup
+	public void setup() {
+		job = Payloads.pushJob(argsBytes);
+		List<PushJob> items = new ArrayList<>();
+		for(int i = 0; i < jobs; i++) {
+			items.add(Payloads.pushJob(argsBytes));
+		}
+		request = new PushRequest()
+				.withQueueName("queue-0001")
+				.withUserId("user-0001")
+				.withJobs(items);
+	}
+
+	@Benchmark
+	public ObjectNode pushJobToJson() {
+		return job.toJson();
+	}
+
+	@Benchmark
+	public String objectNodeBody() {
+		ObjectNode body = JsonNodeFactory.instance.objectNode();
+		body.set("jobs", JsonNodeFactory.instance.arrayNode().addAll(
+				request.getJobs().stream().map(item -> item.toJson()).collect(Collectors.toList())
+		));
+		return body.toString();
+	}
+
+	@Benchmark
+	public ByteArrayEntity jsonGeneratorBody() {
+		return JsonBodyWriter.push(request);
+	}
+
+	@Benchmark
+	public int jsonGeneratorBodyWritten() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonBodyWriter.push(request).writeTo(out);
+		return out.size();
+	}
+
+}
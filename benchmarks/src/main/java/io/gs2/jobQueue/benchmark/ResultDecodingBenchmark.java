@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.gs2.jobQueue.control.DescribeJobResult;
+import io.gs2.jobQueue.control.DescribeJobResultResult;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.transport.Gs2JobQueueResponse;
+import io.gs2.jobQueue.util.ItemCursor;
+import io.gs2.jobQueue.util.JsonSupport;
+
+/**
+ * 一覧取得の結果のデコードのベンチマーク
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultDecodingBenchmark {
+
+	@Param({"1", "100"})
+	public int items;
+
+	@Param({"64", "4096"})
+	public int argsBytes;
+
+	private byte[] describeJobBody;
+
+	private byte[] describeJobResultBody;
+
+	@Setup
+	public void setup() {
+		describeJobBody = Payloads.describeJobBody(items, argsBytes).getBytes(StandardCharsets.UTF_8);
+		describeJobResultBody = Payloads.describeJobResultBody(items).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public DescribeJobResult decodeJobs() throws IOException {
+		return JsonSupport.MAPPER.readValue(describeJobBody, DescribeJobResult.class);
+	}
+
+	@Benchmark
+	public DescribeJobResultResult decodeJobResults() throws IOException {
+		return JsonSupport.MAPPER.readValue(describeJobResultBody, DescribeJobResultResult.class);
+	}
+
+	@Benchmark
+	public void streamJobs(Blackhole blackhole) throws IOException {
+		try(ItemCursor<Job> cursor = new ItemCursor<>(new InMemoryResponse(describeJobBody), Job.class)) {
+			while(cursor.hasNext()) {
+				blackhole.consume(cursor.next());
+			}
+		}
+	}
+
+	private static class InMemoryResponse extends Gs2JobQueueResponse {
+
+		private final byte[] body;
+
+		InMemoryResponse(byte[] body) {
+			this.body = body;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return 200;
+		}
+
+		@Override
+		public InputStream getContent() {
+			return new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+}
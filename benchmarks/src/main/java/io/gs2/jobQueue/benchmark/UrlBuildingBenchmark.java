@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.gs2.jobQueue.util.UrlTemplate;
+
+/**
+ * リクエストごとの URL 組み立てのベンチマーク<br>
+ * <br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueClient} が push / runByUserId で使うものと同じ {@link UrlTemplate} で、
+ * URL の組み立てを計測します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlBuildingBenchmark {
+
+	private static final UrlTemplate PUSH_URL = UrlTemplate.compile("/queue/{queueName}/job/user/{userId}");
+
+	private static final UrlTemplate RUN_BY_USER_ID_URL = UrlTemplate.compile("/queue/{queueName}/job/user/{userId}/run");
+
+	private final String queueName = "queue-0001";
+
+	private final String userId = "user-0001";
+
+	@Benchmark
+	public String pushUrl() {
+		return PUSH_URL.render(queueName, userId);
+	}
+
+	@Benchmark
+	public String runByUserIdUrl() {
+		return RUN_BY_USER_ID_URL.render(queueName, userId);
+	}
+
+}
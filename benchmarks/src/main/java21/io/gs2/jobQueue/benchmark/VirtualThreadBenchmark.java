@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.benchmark;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.control.RunByUserIdResult;
+import io.gs2.jobQueue.emulator.EmulatorTransport;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.transport.JdkHttpClientTransport;
+import io.gs2.model.BasicGs2Credential;
+import io.gs2.model.Region;
+
+/**
+ * 仮想スレッドから同期 API を同時に呼び出すベンチマーク<br>
+ * <br>
+ * calls 個の仮想スレッドがそれぞれ runByUserId を1回呼び出し、すべて完了するまでの時間を計測します。<br>
+ * HTTP のコネクション数は maxConcurrentRequests に制限し、残りの仮想スレッドは枠が空くまで待機します。<br>
+ * キャリアスレッドを4つに制限し、-Djdk.tracePinnedThreads=short でピン留めが発生した箇所を出力します。<br>
+ * Java 21 以降で実行してください。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {
+		"-Djdk.virtualThreadScheduler.parallelism=4",
+		"-Djdk.virtualThreadScheduler.maxPoolSize=4",
+		"-Djdk.tracePinnedThreads=short"})
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+	@Param({"10000"})
+	public int calls;
+
+	/** HTTP/1.1 のエミュレーターに同時に張るコネクション数 */
+	@Param({"256"})
+	public int maxConcurrentRequests;
+
+	Gs2JobQueueEmulator emulator;
+
+	Gs2JobQueueClient client;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		Gs2JobQueueEmulator.enableTcpNoDelay();
+		emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start();
+		// エミュレーターは平文の HTTP のため h2c へのアップグレードを試みない
+		JdkHttpClientTransport transport = new JdkHttpClientTransport(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(JdkHttpClientTransport.DEFAULT_CONNECT_TIMEOUT)
+				.build(), Duration.ofMinutes(1), maxConcurrentRequests);
+		client = new Gs2JobQueueClient(
+				new BasicGs2Credential("clientId", "clientSecret"),
+				Region.AP_NORTHEAST_1,
+				new EmulatorTransport(emulator.getEndpoint(), transport));
+	}
+
+	@Setup(Level.Iteration)
+	public void pushJobs() {
+		emulator.getStore().reset();
+		client.createQueue(new CreateQueueRequest().withName("queue-0001"));
+		for(int i = 0; i < calls; i++) {
+			emulator.getStore().push("queue-0001", "user-" + i, Collections.singletonList(Payloads.pushJob(64)));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		emulator.close();
+	}
+
+	@Benchmark
+	public int runByUserId() throws InterruptedException, ExecutionException {
+		List<Future<RunByUserIdResult>> results = new ArrayList<>(calls);
+		try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for(int i = 0; i < calls; i++) {
+				RunByUserIdRequest request = new RunByUserIdRequest()
+						.withQueueName("queue-0001")
+						.withUserId("user-" + i);
+				results.add(executor.submit(() -> client.runByUserId(request)));
+			}
+		}
+		int executed = 0;
+		for(Future<RunByUserIdResult> result : results) {
+			if(result.get().getItem() != null) {
+				executed++;
+			}
+		}
+		return executed;
+	}
+
+}
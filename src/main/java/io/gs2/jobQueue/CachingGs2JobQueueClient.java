@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.CreateQueueResult;
+import io.gs2.jobQueue.control.DeleteQueueRequest;
+import io.gs2.jobQueue.control.DescribeQueueRequest;
+import io.gs2.jobQueue.control.DescribeQueueResult;
+import io.gs2.jobQueue.control.GetQueueRequest;
+import io.gs2.jobQueue.control.GetQueueResult;
+import io.gs2.jobQueue.control.UpdateQueueRequest;
+import io.gs2.jobQueue.control.UpdateQueueResult;
+import io.gs2.jobQueue.model.Queue;
+import io.gs2.jobQueue.util.ExpiringCache;
+import io.gs2.model.Region;
+import io.gs2.model.IGs2Credential;
+
+/**
+ * ジョブキューの情報をキャッシュする GS2 JobQueue API クライアント<br>
+ * <br>
+ * {@link #getQueue(GetQueueRequest)} と {@link #describeQueue(DescribeQueueRequest)} の結果を一定時間キャッシュします。<br>
+ * このクライアントで {@link #createQueue(CreateQueueRequest)} / {@link #updateQueue(UpdateQueueRequest)} /
+ * {@link #deleteQueue(DeleteQueueRequest)} を呼び出した場合は、該当するキャッシュを自動的に無効化します。<br>
+ * 他のクライアントによる変更は有効期間が過ぎるまで反映されません。<br>
+ * <br>
+ * キャッシュから返す結果は呼び出しごとに複製するため、呼び出し元で変更してもキャッシュには影響しません。<br>
+ * ジョブキューの名前を指定していないリクエストはキャッシュせずにそのまま送信します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class CachingGs2JobQueueClient extends Gs2JobQueueClient {
+
+	/** 既定の有効期間(ミリ秒) */
+	public static final long DEFAULT_TTL_MILLIS = 60_000;
+
+	/** 既定の最大件数 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/** ジョブキューの名前ごとの getQueue の結果 */
+	private final ExpiringCache<String, GetQueueResult> queueCache;
+
+	/** ページトークンと取得件数ごとの describeQueue の結果 */
+	private final ExpiringCache<List<Object>, DescribeQueueResult> describeQueueCache;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param credential 認証情報
+	 */
+	public CachingGs2JobQueueClient(IGs2Credential credential) {
+		super(credential);
+		this.queueCache = new ExpiringCache<>(DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_SIZE);
+		this.describeQueueCache = new ExpiringCache<>(DEFAULT_TTL_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 */
+	public CachingGs2JobQueueClient(IGs2Credential credential, Region region) {
+		this(credential, region, DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 * @param ttlMillis キャッシュの有効期間(ミリ秒)
+	 * @param maxSize キャッシュの最大件数
+	 */
+	public CachingGs2JobQueueClient(IGs2Credential credential, Region region, long ttlMillis, int maxSize) {
+		super(credential, region);
+		this.queueCache = new ExpiringCache<>(ttlMillis, TimeUnit.MILLISECONDS, maxSize);
+		this.describeQueueCache = new ExpiringCache<>(ttlMillis, TimeUnit.MILLISECONDS, maxSize);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 */
+	public CachingGs2JobQueueClient(IGs2Credential credential, String region) {
+		this(credential, region, DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 * @param ttlMillis キャッシュの有効期間(ミリ秒)
+	 * @param maxSize キャッシュの最大件数
+	 */
+	public CachingGs2JobQueueClient(IGs2Credential credential, String region, long ttlMillis, int maxSize) {
+		super(credential, region);
+		this.queueCache = new ExpiringCache<>(ttlMillis, TimeUnit.MILLISECONDS, maxSize);
+		this.describeQueueCache = new ExpiringCache<>(ttlMillis, TimeUnit.MILLISECONDS, maxSize);
+	}
+
+	/**
+	 * ジョブキューを取得します<br>
+	 * <br>
+	 * 有効期間内に取得した結果があればキャッシュから返します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	@Override
+	public GetQueueResult getQueue(GetQueueRequest request) {
+		if(request.getQueueName() == null) {
+			return super.getQueue(request);
+		}
+		return copy(queueCache.get(request.getQueueName(), () -> super.getQueue(request)));
+	}
+
+	/**
+	 * ジョブキューの一覧を取得します<br>
+	 * <br>
+	 * 有効期間内に同じページトークン・取得件数で取得した結果があればキャッシュから返します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	@Override
+	public DescribeQueueResult describeQueue(DescribeQueueRequest request) {
+		List<Object> key = Arrays.<Object>asList(request.getPageToken(), request.getLimit());
+		return copy(describeQueueCache.get(key, () -> super.describeQueue(request)));
+	}
+
+	/**
+	 * ジョブキューを作成します<br>
+	 * <br>
+	 * ジョブキューの一覧のキャッシュを無効化します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	@Override
+	public CreateQueueResult createQueue(CreateQueueRequest request) {
+		try {
+			return super.createQueue(request);
+		} finally {
+			describeQueueCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * ジョブキューを更新します<br>
+	 * <br>
+	 * 更新したジョブキューと一覧のキャッシュを無効化します。<br>
+	 * 失敗した場合もサーバー側で反映されている可能性があるため無効化します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	@Override
+	public UpdateQueueResult updateQueue(UpdateQueueRequest request) {
+		try {
+			return super.updateQueue(request);
+		} finally {
+			invalidateQueue(request.getQueueName());
+		}
+	}
+
+	/**
+	 * ジョブキューを削除します<br>
+	 * <br>
+	 * 削除したジョブキューと一覧のキャッシュを無効化します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 */
+	@Override
+	public void deleteQueue(DeleteQueueRequest request) {
+		try {
+			super.deleteQueue(request);
+		} finally {
+			invalidateQueue(request.getQueueName());
+		}
+	}
+
+	/**
+	 * ジョブキューのキャッシュを無効化します。<br>
+	 * 他のクライアントでジョブキューを変更したことがわかっている場合に利用します。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 */
+	public void invalidateQueue(String queueName) {
+		if(queueName != null) {
+			queueCache.invalidate(queueName);
+		}
+		describeQueueCache.invalidateAll();
+	}
+
+	/**
+	 * すべてのキャッシュを無効化します。
+	 */
+	public void invalidateAll() {
+		queueCache.invalidateAll();
+		describeQueueCache.invalidateAll();
+	}
+
+	/**
+	 * 結果を複製します。<br>
+	 * キャッシュした結果を呼び出し元に変更されないよう、ジョブキューごと別のオブジェクトにします。<br>
+	 */
+	private static GetQueueResult copy(GetQueueResult result) {
+		if(result == null) {
+			return null;
+		}
+		GetQueueResult copy = new GetQueueResult();
+		copy.setItem(copy(result.getItem()));
+		return copy;
+	}
+
+	private static DescribeQueueResult copy(DescribeQueueResult result) {
+		if(result == null) {
+			return null;
+		}
+		DescribeQueueResult copy = new DescribeQueueResult();
+		if(result.getItems() != null) {
+			List<Queue> items = new ArrayList<>(result.getItems().size());
+			for(Queue item : result.getItems()) {
+				items.add(copy(item));
+			}
+			copy.setItems(items);
+		}
+		copy.setNextPageToken(result.getNextPageToken());
+		return copy;
+	}
+
+	private static Queue copy(Queue queue) {
+		if(queue == null) {
+			return null;
+		}
+		return new Queue()
+				.withQueueId(queue.getQueueId())
+				.withOwnerId(queue.getOwnerId())
+				.withName(queue.getName())
+				.withDescription(queue.getDescription())
+				.withNotificationType(queue.getNotificationType())
+				.withNotificationUrl(queue.getNotificationUrl())
+				.withNotificationGameName(queue.getNotificationGameName())
+				.withCreateAt(queue.getCreateAt())
+				.withUpdateAt(queue.getUpdateAt());
+	}
+
+	/**
+	 * ジョブキューのキャッシュを取得します。<br>
+	 * <br>
+	 * キャッシュの値は複製せずに共有しているため、変更しないでください。<br>
+	 *
+	 * @return ジョブキューのキャッシュ
+	 */
+	public ExpiringCache<String, GetQueueResult> getQueueCache() {
+		return queueCache;
+	}
+
+	/**
+	 * ジョブキューの一覧のキャッシュを取得します。<br>
+	 * <br>
+	 * キャッシュの値は複製せずに共有しているため、変更しないでください。<br>
+	 *
+	 * @return ジョブキューの一覧のキャッシュ
+	 */
+	public ExpiringCache<List<Object>, DescribeQueueResult> getDescribeQueueCache() {
+		return describeQueueCache;
+	}
+
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.control.DeleteDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobByScriptNameRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobByUserIdRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobRequest;
+import io.gs2.jobQueue.limit.TokenBucket;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.util.Paginator;
+
+/**
+ * デッドジョブをまとめて削除するパージャー<br>
+ * <br>
+ * デッドジョブの一覧をページ単位で読み出し、各デッドジョブを
+ * {@link Gs2JobQueueClient#deleteDeadJob(DeleteDeadJobRequest)} で最大同時実行数まで並列に削除します。<br>
+ * 削除の完了を待たずに次のページを読み出し、削除中に一覧の位置がずれて読み飛ばしたデッドジョブは
+ * 一覧の最後まで読み出した後に最初のページから読み直して削除します。<br>
+ * 削除を開始した時刻より後に作成されたデッドジョブは削除しません。
+ * 削除に失敗したデッドジョブは同じ実行の中で再び削除しません。
+ * 他の処理で既に削除されていたデッドジョブは削除したデッドジョブとは別に数えます。<br>
+ * デッドジョブの一覧の取得に失敗した場合は、投入済みの削除が終わるのを待って {@link PurgeException} を送出します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class DeadJobPurger {
+
+	/** クライアント */
+	private final Gs2JobQueueClient client;
+
+	/** 削除を実行する Executor */
+	private final Executor executor;
+
+	/** 最大同時実行数 */
+	private final int maxConcurrency;
+
+	/** 削除のレートを制限するバケット。制限しない場合は null */
+	private final TokenBucket rateLimit;
+
+	/** デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値 */
+	private volatile Integer pageSize;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client クライアント
+	 * @param executor 削除を実行する Executor
+	 * @param maxConcurrency 最大同時実行数
+	 */
+	public DeadJobPurger(Gs2JobQueueClient client, Executor executor, int maxConcurrency) {
+		this(client, executor, maxConcurrency, 0);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client クライアント
+	 * @param executor 削除を実行する Executor
+	 * @param maxConcurrency 最大同時実行数
+	 * @param maxDeletesPerSecond 1秒あたりの最大削除数。0 の場合は制限しません
+	 */
+	public DeadJobPurger(Gs2JobQueueClient client, Executor executor, int maxConcurrency, double maxDeletesPerSecond) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		if(maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be positive");
+		if(maxDeletesPerSecond < 0) throw new IllegalArgumentException("maxDeletesPerSecond must not be negative");
+		this.client = client;
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.rateLimit = maxDeletesPerSecond == 0 ? null : new TokenBucket(maxDeletesPerSecond, 1);
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を取得
+	 *
+	 * @return デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 */
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を設定
+	 *
+	 * @param pageSize デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 */
+	public void setPageSize(Integer pageSize) {
+		if(pageSize != null && pageSize < 1) throw new IllegalArgumentException("pageSize must be positive");
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を設定
+	 *
+	 * @param pageSize デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 * @return this
+	 */
+	public DeadJobPurger withPageSize(Integer pageSize) {
+		setPageSize(pageSize);
+		return this;
+	}
+
+	/**
+	 * ジョブキューのデッドジョブをすべて削除します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 削除結果
+	 * @throws PurgeException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public PurgeReport purge(String queueName, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		return purge(Gs2JobQueuePaginators.describeDeadJob(client, new DescribeDeadJobRequest()
+				.withQueueName(queueName)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	/**
+	 * 指定したスクリプトのデッドジョブをすべて削除します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param scriptName スクリプト名
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 削除結果
+	 * @throws PurgeException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public PurgeReport purgeByScriptName(String queueName, String scriptName, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		if(scriptName == null) throw new IllegalArgumentException("scriptName is required");
+		return purge(Gs2JobQueuePaginators.describeDeadJobByScriptName(client, new DescribeDeadJobByScriptNameRequest()
+				.withQueueName(queueName)
+				.withScriptName(scriptName)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	/**
+	 * 指定したユーザのデッドジョブをすべて削除します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 削除結果
+	 * @throws PurgeException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public PurgeReport purgeByUserId(String queueName, String userId, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		if(userId == null) throw new IllegalArgumentException("userId is required");
+		return purge(Gs2JobQueuePaginators.describeDeadJobByUserId(client, new DescribeDeadJobByUserIdRequest()
+				.withQueueName(queueName)
+				.withUserId(userId)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	private PurgeReport purge(Paginator<DeadJob> deadJobs, String queueName, Listener listener) throws InterruptedException {
+		PurgeReport report = new PurgeReport();
+		DeadJobScanner scanner = new DeadJobScanner(maxConcurrency);
+		try {
+			scanner.scan(deadJobs, deadJob -> report.failures.containsKey(deadJob.getJobId()), report.deleted::get, targets -> {
+				for(DeadJob deadJob : targets) {
+					report.scanned.incrementAndGet();
+					acquirePace();
+					scanner.submit(executor, () -> delete(queueName, deadJob, listener, report),
+							e -> report.failed(deadJob, e, listener));
+				}
+				if(listener != null) {
+					listener.onProgress(report);
+				}
+			});
+		} catch (RuntimeException e) {
+			throw new PurgeException(report, e);
+		}
+		return report;
+	}
+
+	private void delete(String queueName, DeadJob deadJob, Listener listener, PurgeReport report) {
+		try {
+			client.deleteDeadJob(new DeleteDeadJobRequest()
+					.withQueueName(queueName)
+					.withUserId(deadJob.getUserId())
+					.withJobId(deadJob.getJobId()));
+		} catch (NotFoundException e) {
+			// 他の処理で既に削除されている。削除による一覧のずれではないため、読み直すきっかけにはしない
+			report.alreadyDeleted.incrementAndGet();
+			return;
+		} catch (RuntimeException e) {
+			report.failed(deadJob, e, listener);
+			return;
+		}
+		report.deleted.incrementAndGet();
+		if(listener != null) {
+			listener.onDeleted(deadJob);
+		}
+	}
+
+	private void acquirePace() throws InterruptedException {
+		if(rateLimit != null) {
+			rateLimit.acquire(Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * 削除の進捗の通知を受け取るリスナー<br>
+	 * <br>
+	 * onDeleted / onFailed は削除を実行したスレッドから、onProgress は purge を呼び出したスレッドから呼び出されます。<br>
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public interface Listener {
+
+		/**
+		 * デッドジョブを削除した
+		 *
+		 * @param deadJob 削除したデッドジョブ
+		 */
+		default void onDeleted(DeadJob deadJob) {
+		}
+
+		/**
+		 * デッドジョブの削除に失敗した
+		 *
+		 * @param deadJob 削除に失敗したデッドジョブ
+		 * @param error 発生した例外
+		 */
+		default void onFailed(DeadJob deadJob, Throwable error) {
+		}
+
+		/**
+		 * 1ページ分の削除を開始した
+		 *
+		 * @param report 途中経過
+		 */
+		default void onProgress(PurgeReport report) {
+		}
+	}
+
+	/**
+	 * パージャーの削除結果
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public static class PurgeReport {
+
+		/** 読み出したデッドジョブ数 */
+		private final AtomicLong scanned = new AtomicLong();
+
+		/** 削除したデッドジョブ数 */
+		private final AtomicLong deleted = new AtomicLong();
+
+		/** 他の処理で既に削除されていたデッドジョブ数 */
+		private final AtomicLong alreadyDeleted = new AtomicLong();
+
+		/** 削除に失敗したジョブIDと例外 */
+		private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+		private void failed(DeadJob deadJob, Throwable error, Listener listener) {
+			failures.put(deadJob.getJobId(), error);
+			if(listener != null) {
+				listener.onFailed(deadJob, error);
+			}
+		}
+
+		/**
+		 * 読み出したデッドジョブ数を取得
+		 *
+		 * @return 読み出したデッドジョブ数
+		 */
+		public long getScanned() {
+			return scanned.get();
+		}
+
+		/**
+		 * 削除したデッドジョブ数を取得
+		 *
+		 * @return 削除したデッドジョブ数
+		 */
+		public long getDeleted() {
+			return deleted.get();
+		}
+
+		/**
+		 * 他の処理で既に削除されていたデッドジョブ数を取得
+		 *
+		 * @return 他の処理で既に削除されていたデッドジョブ数
+		 */
+		public long getAlreadyDeleted() {
+			return alreadyDeleted.get();
+		}
+
+		/**
+		 * 削除に失敗したジョブIDと例外を取得
+		 *
+		 * @return 削除に失敗したジョブIDと例外
+		 */
+		public Map<String, Throwable> getFailures() {
+			return Collections.unmodifiableMap(failures);
+		}
+	}
+
+	/**
+	 * デッドジョブの一覧の取得に失敗した場合に送出される例外<br>
+	 * <br>
+	 * 失敗するまでに投入した削除はすべて終わっており、その結果を {@link #getReport()} で取得できます。<br>
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	@SuppressWarnings("serial")
+	public static class PurgeException extends RuntimeException {
+
+		/** 失敗するまでの削除結果 */
+		private final transient PurgeReport report;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param report 失敗するまでの削除結果
+		 * @param cause 原因
+		 */
+		public PurgeException(PurgeReport report, Throwable cause) {
+			super("failed to list dead jobs", cause);
+			this.report = report;
+		}
+
+		/**
+		 * 失敗するまでの削除結果を取得
+		 *
+		 * @return 失敗するまでの削除結果
+		 */
+		public PurgeReport getReport() {
+			return report;
+		}
+	}
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.control.DeleteDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobByScriptNameRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobByUserIdRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.util.Paginator;
+import io.gs2.jobQueue.util.StripedExecutor;
+
+/**
+ * デッドジョブをジョブキューに再登録するリドライバー<br>
+ * <br>
+ * デッドジョブの一覧をページ単位で読み出し、ユーザごとに最大バッチサイズまでまとめて
+ * {@link Gs2JobQueueClient#push(PushRequest)} で再登録します。<br>
+ * デッドジョブは push が成功した後にだけ削除するため、途中で失敗してもジョブが失われることはありません。
+ * ただし push の成功後に削除が失敗した場合、次回の実行で同じジョブが再登録されます。<br>
+ * 異なるユーザのバッチは最大同時実行数まで並列に処理し、同じユーザのバッチは {@link StripedExecutor} で
+ * デッドジョブの一覧の順に1つずつ再登録します。push が成功したバッチのデッドジョブは並列に削除します。<br>
+ * 再登録の完了を待たずに次のページを読み出し、一覧の位置がずれて読み飛ばしたデッドジョブは
+ * 一覧の最後まで読み出した後に最初のページから読み直して再登録します。<br>
+ * 再登録を開始した時刻より後に作成されたデッドジョブは再登録しないため、再登録したジョブが再び失敗しても
+ * 同じ実行の中で繰り返し再登録することはありません。失敗したデッドジョブも同じ実行の中で再び処理しません。<br>
+ * 再登録後の削除の時点で他の処理によって既に削除されていたデッドジョブは、削除したデッドジョブとは別に数えます。<br>
+ * デッドジョブの一覧の取得に失敗した場合は、投入済みの再登録と削除が終わるのを待って {@link RedriveException} を送出します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class DeadJobRedriver {
+
+	/** 最大バッチサイズの既定値 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = PushBatcher.DEFAULT_MAX_BATCH_SIZE;
+
+	/** クライアント */
+	private final Gs2JobQueueClient client;
+
+	/** 削除を実行する Executor */
+	private final Executor executor;
+
+	/** バッチをユーザIDごとに直列に実行する Executor */
+	private final StripedExecutor batchExecutor;
+
+	/** 最大同時実行数 */
+	private final int maxConcurrency;
+
+	/** 1回の push で再登録する最大ジョブ数 */
+	private final int maxBatchSize;
+
+	/** 再登録するジョブの最大リトライ回数。null の場合はサーバーの既定値 */
+	private final Integer maxRetry;
+
+	/** デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値 */
+	private volatile Integer pageSize;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client クライアント
+	 * @param executor バッチを実行する Executor
+	 * @param maxConcurrency 最大同時実行数
+	 */
+	public DeadJobRedriver(Gs2JobQueueClient client, Executor executor, int maxConcurrency) {
+		this(client, executor, maxConcurrency, DEFAULT_MAX_BATCH_SIZE, null);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client クライアント
+	 * @param executor バッチを実行する Executor
+	 * @param maxConcurrency 最大同時実行数
+	 * @param maxBatchSize 1回の push で再登録する最大ジョブ数
+	 * @param maxRetry 再登録するジョブの最大リトライ回数。null の場合はサーバーの既定値
+	 */
+	public DeadJobRedriver(Gs2JobQueueClient client, Executor executor, int maxConcurrency, int maxBatchSize, Integer maxRetry) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		if(maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be positive");
+		if(maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be positive");
+		if(maxRetry != null && maxRetry < 0) throw new IllegalArgumentException("maxRetry must not be negative");
+		this.client = client;
+		this.executor = executor;
+		this.batchExecutor = new StripedExecutor(executor, StripedExecutor.DEFAULT_STRIPES, maxConcurrency);
+		this.maxConcurrency = maxConcurrency;
+		this.maxBatchSize = maxBatchSize;
+		this.maxRetry = maxRetry;
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を取得
+	 *
+	 * @return デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 */
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を設定
+	 *
+	 * @param pageSize デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 */
+	public void setPageSize(Integer pageSize) {
+		if(pageSize != null && pageSize < 1) throw new IllegalArgumentException("pageSize must be positive");
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * デッドジョブの一覧の1ページの取得件数を設定
+	 *
+	 * @param pageSize デッドジョブの一覧の1ページの取得件数。null の場合はサーバーの既定値
+	 * @return this
+	 */
+	public DeadJobRedriver withPageSize(Integer pageSize) {
+		setPageSize(pageSize);
+		return this;
+	}
+
+	/**
+	 * ジョブキューのデッドジョブをすべて再登録します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 再登録結果
+	 * @throws RedriveException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public RedriveReport redrive(String queueName, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		return redrive(Gs2JobQueuePaginators.describeDeadJob(client, new DescribeDeadJobRequest()
+				.withQueueName(queueName)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	/**
+	 * 指定したスクリプトのデッドジョブをすべて再登録します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param scriptName スクリプト名
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 再登録結果
+	 * @throws RedriveException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public RedriveReport redriveByScriptName(String queueName, String scriptName, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		if(scriptName == null) throw new IllegalArgumentException("scriptName is required");
+		return redrive(Gs2JobQueuePaginators.describeDeadJobByScriptName(client, new DescribeDeadJobByScriptNameRequest()
+				.withQueueName(queueName)
+				.withScriptName(scriptName)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	/**
+	 * 指定したユーザのデッドジョブをすべて再登録します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param listener 進捗の通知を受け取るリスナー。null の場合は通知しません
+	 * @return 再登録結果
+	 * @throws RedriveException デッドジョブの一覧の取得に失敗した
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public RedriveReport redriveByUserId(String queueName, String userId, Listener listener) throws InterruptedException {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		if(userId == null) throw new IllegalArgumentException("userId is required");
+		return redrive(Gs2JobQueuePaginators.describeDeadJobByUserId(client, new DescribeDeadJobByUserIdRequest()
+				.withQueueName(queueName)
+				.withUserId(userId)
+				.withLimit(pageSize)), queueName, listener);
+	}
+
+	private RedriveReport redrive(Paginator<DeadJob> deadJobs, String queueName, Listener listener) throws InterruptedException {
+		RedriveReport report = new RedriveReport();
+		DeadJobScanner scanner = new DeadJobScanner(maxConcurrency);
+		try {
+			scan(scanner, deadJobs, queueName, listener, report);
+		} catch (RuntimeException e) {
+			throw new RedriveException(report, e);
+		}
+		return report;
+	}
+
+	private void scan(DeadJobScanner scanner, Paginator<DeadJob> deadJobs, String queueName, Listener listener, RedriveReport report) throws InterruptedException {
+		scanner.scan(deadJobs, deadJob -> report.failures.containsKey(deadJob.getJobId()), report.pushed::get, targets -> {
+			Map<String, List<DeadJob>> users = new LinkedHashMap<>();
+			for(DeadJob deadJob : targets) {
+				users.computeIfAbsent(deadJob.getUserId(), key -> new ArrayList<>()).add(deadJob);
+			}
+			report.scanned.addAndGet(targets.size());
+			for(Map.Entry<String, List<DeadJob>> user : users.entrySet()) {
+				String userId = user.getKey();
+				List<DeadJob> userDeadJobs = user.getValue();
+				for(int from = 0; from < userDeadJobs.size(); from += maxBatchSize) {
+					List<DeadJob> batch = userDeadJobs.subList(from, Math.min(userDeadJobs.size(), from + maxBatchSize));
+					scanner.submit(batchExecutor, userId,
+							() -> redriveBatch(scanner, queueName, userId, batch, listener, report),
+							e -> {
+								for(DeadJob deadJob : batch) {
+									report.failed(deadJob, e, listener);
+								}
+							});
+				}
+			}
+			if(listener != null) {
+				listener.onProgress(report);
+			}
+		});
+	}
+
+	private void redriveBatch(DeadJobScanner scanner, String queueName, String userId, List<DeadJob> batch, Listener listener, RedriveReport report) {
+		List<PushJob> jobs = new ArrayList<>(batch.size());
+		for(DeadJob deadJob : batch) {
+			jobs.add(new PushJob()
+					.withScriptName(deadJob.getScriptName())
+					.withArgs(deadJob.getArgs())
+					.withMaxRetry(maxRetry));
+		}
+		List<Job> items;
+		try {
+			PushResult result = client.push(new PushRequest()
+					.withQueueName(queueName)
+					.withUserId(userId)
+					.withJobs(jobs));
+			items = result == null ? null : result.getItems();
+		} catch (RuntimeException e) {
+			for(DeadJob deadJob : batch) {
+				report.failed(deadJob, e, listener);
+			}
+			return;
+		}
+		report.pushed.addAndGet(batch.size());
+		for(int i = 0; i < batch.size(); i++) {
+			DeadJob deadJob = batch.get(i);
+			Job job = items != null && i < items.size() ? items.get(i) : null;
+			// 削除は順序に依存しないため、ユーザごとの直列化をせずに並列に実行する
+			scanner.followUp(() -> scanner.submit(executor,
+					() -> delete(queueName, deadJob, job, listener, report),
+					e -> report.failed(deadJob, e, listener)));
+		}
+	}
+
+	private void delete(String queueName, DeadJob deadJob, Job job, Listener listener, RedriveReport report) {
+		try {
+			client.deleteDeadJob(new DeleteDeadJobRequest()
+					.withQueueName(queueName)
+					.withUserId(deadJob.getUserId())
+					.withJobId(deadJob.getJobId()));
+		} catch (NotFoundException e) {
+			// 他の処理で既に削除されている。再登録は済んでいるが、このデッドジョブを削除したのはこの実行ではない
+			report.alreadyDeleted.incrementAndGet();
+			return;
+		} catch (RuntimeException e) {
+			report.failed(deadJob, e, listener);
+			return;
+		}
+		report.deleted.incrementAndGet();
+		if(listener != null) {
+			listener.onRedriven(deadJob, job);
+		}
+	}
+
+	/**
+	 * 再登録の進捗の通知を受け取るリスナー<br>
+	 * <br>
+	 * onRedriven / onFailed は再登録・削除を実行したスレッドから、onProgress は redrive を呼び出したスレッドから呼び出されます。<br>
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public interface Listener {
+
+		/**
+		 * デッドジョブを再登録して削除した
+		 *
+		 * @param deadJob 再登録したデッドジョブ
+		 * @param job 登録されたジョブ
+		 */
+		default void onRedriven(DeadJob deadJob, Job job) {
+		}
+
+		/**
+		 * デッドジョブの再登録または削除に失敗した<br>
+		 * 削除に失敗した場合、ジョブは再登録済みのためデッドジョブと重複しています。<br>
+		 *
+		 * @param deadJob 失敗したデッドジョブ
+		 * @param error 発生した例外
+		 */
+		default void onFailed(DeadJob deadJob, Throwable error) {
+		}
+
+		/**
+		 * 1ページ分の再登録を開始した
+		 *
+		 * @param report 途中経過
+		 */
+		default void onProgress(RedriveReport report) {
+		}
+	}
+
+	/**
+	 * リドライバーの再登録結果
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public static class RedriveReport {
+
+		/** 読み出したデッドジョブ数 */
+		private final AtomicLong scanned = new AtomicLong();
+
+		/** 再登録したジョブ数 */
+		private final AtomicLong pushed = new AtomicLong();
+
+		/** 削除したデッドジョブ数 */
+		private final AtomicLong deleted = new AtomicLong();
+
+		/** 再登録後の削除の時点で、他の処理によって既に削除されていたデッドジョブ数 */
+		private final AtomicLong alreadyDeleted = new AtomicLong();
+
+		/** 失敗したジョブIDと例外 */
+		private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+		private void failed(DeadJob deadJob, Throwable error, Listener listener) {
+			failures.put(deadJob.getJobId(), error);
+			if(listener != null) {
+				listener.onFailed(deadJob, error);
+			}
+		}
+
+		/**
+		 * 読み出したデッドジョブ数を取得
+		 *
+		 * @return 読み出したデッドジョブ数
+		 */
+		public long getScanned() {
+			return scanned.get();
+		}
+
+		/**
+		 * 再登録したジョブ数を取得
+		 *
+		 * @return 再登録したジョブ数
+		 */
+		public long getPushed() {
+			return pushed.get();
+		}
+
+		/**
+		 * 削除したデッドジョブ数を取得
+		 *
+		 * @return 削除したデッドジョブ数
+		 */
+		public long getDeleted() {
+			return deleted.get();
+		}
+
+		/**
+		 * 再登録後の削除の時点で、他の処理によって既に削除されていたデッドジョブ数を取得
+		 *
+		 * @return 他の処理によって既に削除されていたデッドジョブ数
+		 */
+		public long getAlreadyDeleted() {
+			return alreadyDeleted.get();
+		}
+
+		/**
+		 * 失敗したジョブIDと例外を取得
+		 *
+		 * @return 失敗したジョブIDと例外
+		 */
+		public Map<String, Throwable> getFailures() {
+			return Collections.unmodifiableMap(failures);
+		}
+	}
+
+	/**
+	 * デッドジョブの一覧の取得に失敗した場合に送出される例外<br>
+	 * <br>
+	 * 失敗するまでに投入した再登録と削除はすべて終わっており、その結果を {@link #getReport()} で取得できます。<br>
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	@SuppressWarnings("serial")
+	public static class RedriveException extends RuntimeException {
+
+		/** 失敗するまでの再登録結果 */
+		private final transient RedriveReport report;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param report 失敗するまでの再登録結果
+		 * @param cause 原因
+		 */
+		public RedriveException(RedriveReport report, Throwable cause) {
+			super("failed to list dead jobs", cause);
+			this.report = report;
+		}
+
+		/**
+		 * 失敗するまでの再登録結果を取得
+		 *
+		 * @return 失敗するまでの再登録結果
+		 */
+		public RedriveReport getReport() {
+			return report;
+		}
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.util.Paginator;
+import io.gs2.jobQueue.util.StripedExecutor;
+
+/**
+ * デッドジョブの一覧を読み出し、処理を最大同時実行数まで投入するスキャナー<br>
+ * <br>
+ * {@link DeadJobPurger} と {@link DeadJobRedriver} の1回の実行ごとに生成します。<br>
+ * 投入した処理の完了を待たずに次のページを読み出します。
+ * 処理によって一覧の位置がずれ、読み飛ばしたデッドジョブを拾うため、
+ * 一覧の最後まで読み出した時点で処理が進んでいれば最初のページから読み直します。<br>
+ * 実行を開始した時刻より後に作成されたデッドジョブは対象にしないため、
+ * 処理中に新しいデッドジョブが作られ続けても終了します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+final class DeadJobScanner {
+
+	/** 投入した処理がすべて終わったことをスキャンのスレッドに知らせる */
+	private static final Submission IDLE = () -> {};
+
+	/** 実行中の処理の枠 */
+	private final Semaphore permits;
+
+	/** 実行中の処理の数 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/** 実行中の処理から依頼された、次に投入する処理 */
+	private final BlockingQueue<Submission> followUps = new LinkedBlockingQueue<>();
+
+	/** 対象にするデッドジョブの作成日時の上限(エポック秒) */
+	private final long cutoff = System.currentTimeMillis() / 1000;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param maxConcurrency 最大同時実行数
+	 */
+	DeadJobScanner(int maxConcurrency) {
+		this.permits = new Semaphore(maxConcurrency);
+	}
+
+	/**
+	 * デッドジョブの一覧を読み出し、対象のデッドジョブをページごとに handler に渡します。<br>
+	 * <br>
+	 * 投入した処理がすべて終わってから戻ります。
+	 * 一覧の取得に失敗した場合も、投入済みの処理がすべて終わってから例外を投げます。<br>
+	 *
+	 * @param deadJobs デッドジョブの一覧のページネーター。読み直すたびに最初のページから読み出します
+	 * @param exclude 対象にしないデッドジョブ。処理に失敗したデッドジョブなど
+	 * @param progress 処理が進んだことを判定する値。読み直すかどうかの判定に使います
+	 * @param handler 1ページ分の対象のデッドジョブを受け取り、{@link #submit(Executor, Runnable, Consumer)} で処理を投入する処理
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	void scan(Paginator<DeadJob> deadJobs, Predicate<DeadJob> exclude, LongSupplier progress, PageHandler handler) throws InterruptedException {
+		while(true) {
+			long progressBefore = progress.getAsLong();
+			Iterator<Paginator.Page<DeadJob>> pages = deadJobs.pages();
+			while(pages.hasNext()) {
+				submitFollowUps();
+				Paginator.Page<DeadJob> page;
+				try {
+					page = pages.next();
+				} catch (RuntimeException e) {
+					// 投入済みの処理を残したまま戻ると、呼び出し元が途中経過を受け取れない
+					awaitIdle();
+					throw e;
+				}
+				List<DeadJob> targets = new ArrayList<>(page.getItems().size());
+				for(DeadJob deadJob : page.getItems()) {
+					if(isTarget(deadJob) && !exclude.test(deadJob)) {
+						targets.add(deadJob);
+					}
+				}
+				if(!targets.isEmpty()) {
+					handler.handle(targets);
+				}
+			}
+			awaitIdle();
+			if(progress.getAsLong() == progressBefore) {
+				return;
+			}
+		}
+	}
+
+	private boolean isTarget(DeadJob deadJob) {
+		return deadJob.getCreateAt() == null || deadJob.getCreateAt() <= cutoff;
+	}
+
+	/**
+	 * 処理を投入します。<br>
+	 * <br>
+	 * 実行中の処理が最大同時実行数に達している場合は空くまで待機します。
+	 * スキャンを実行しているスレッドから呼び出してください。<br>
+	 *
+	 * @param executor 処理を実行する Executor
+	 * @param task 処理
+	 * @param onRejected executor が処理を受け付けなかった場合の処理
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	void submit(Executor executor, Runnable task, Consumer<RuntimeException> onRejected) throws InterruptedException {
+		permits.acquire();
+		inFlight.incrementAndGet();
+		try {
+			executor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					finish();
+				}
+			});
+		} catch (RuntimeException e) {
+			finish();
+			onRejected.accept(e);
+		}
+	}
+
+	/**
+	 * キーに対応するレーンに処理を投入します。<br>
+	 * <br>
+	 * 実行中の処理が最大同時実行数に達している場合は空くまで待機します。
+	 * スキャンを実行しているスレッドから呼び出してください。<br>
+	 * レーンが処理を実行できなかった場合は、後から別のスレッドで onRejected を呼び出した後で処理の完了として扱うため、
+	 * スキャンが完了を待ち続けることはありません。<br>
+	 *
+	 * @param executor 処理を実行する Executor
+	 * @param key キー
+	 * @param task 処理
+	 * @param onRejected executor が処理を実行できなかった場合の処理
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	void submit(StripedExecutor executor, Object key, Runnable task, Consumer<RuntimeException> onRejected) throws InterruptedException {
+		permits.acquire();
+		inFlight.incrementAndGet();
+		executor.execute(key, () -> {
+			try {
+				task.run();
+			} finally {
+				finish();
+			}
+		}, e -> {
+			try {
+				onRejected.accept(e);
+			} finally {
+				finish();
+			}
+		});
+	}
+
+	/**
+	 * 実行中の処理から、続けて実行する処理の投入を依頼します。<br>
+	 * <br>
+	 * 依頼した処理はスキャンを実行しているスレッドが {@link #submit(Executor, Runnable, Consumer)} で投入するため、
+	 * 実行中の処理が枠の空きを待って止まることはありません。<br>
+	 *
+	 * @param submission 処理を投入する処理
+	 */
+	void followUp(Submission submission) {
+		followUps.add(submission);
+	}
+
+	private void finish() {
+		permits.release();
+		if(inFlight.decrementAndGet() == 0) {
+			followUps.add(IDLE);
+		}
+	}
+
+	private void submitFollowUps() throws InterruptedException {
+		Submission submission;
+		while((submission = followUps.poll()) != null) {
+			submission.submit();
+		}
+	}
+
+	private void awaitIdle() throws InterruptedException {
+		while(inFlight.get() > 0 || !followUps.isEmpty()) {
+			followUps.take().submit();
+		}
+	}
+
+	/**
+	 * 1ページ分の対象のデッドジョブの処理を投入する処理
+	 */
+	interface PageHandler {
+
+		/**
+		 * 処理を投入します。
+		 *
+		 * @param deadJobs 対象のデッドジョブ
+		 * @throws InterruptedException 待機中に割り込まれた
+		 */
+		void handle(List<DeadJob> deadJobs) throws InterruptedException;
+	}
+
+	/**
+	 * 処理を投入する処理
+	 */
+	interface Submission {
+
+		/**
+		 * 処理を投入します。
+		 *
+		 * @throws InterruptedException 待機中に割り込まれた
+		 */
+		void submit() throws InterruptedException;
+	}
+
+}
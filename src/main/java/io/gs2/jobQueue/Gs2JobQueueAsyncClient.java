@@ -0,0 +1,390 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.gs2.model.IGs2Credential;
+import io.gs2.model.Region;
+import io.gs2.jobQueue.control.*;
+import io.gs2.jobQueue.transport.ApacheAsyncHttpTransport;
+import io.gs2.jobQueue.transport.ApacheHttpTransportConfig;
+import io.gs2.jobQueue.transport.AsyncGs2JobQueueTransport;
+import io.gs2.jobQueue.transport.Gs2JobQueueTransport;
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+
+/**
+ * GS2 JobQueue API 非同期クライアント<br>
+ * <br>
+ * {@link Gs2JobQueueClient} の各 API を {@link CompletableFuture} として呼び出します。<br>
+ * リクエスト・結果には同期クライアントと同じ control パッケージのクラスを利用するため、呼び出し箇所を段階的に移行できます。<br>
+ * <br>
+ * 同期クライアントのトランスポートが {@link AsyncGs2JobQueueTransport} を実装している場合
+ * ({@link ApacheAsyncHttpTransport}、Java 11 以降の JdkHttpClientTransport など)、
+ * ジョブとデッドジョブの API は応答をスレッドで待たずに送信し、
+ * 同時に実行できるリクエスト数は実行スレッド数ではなくコネクション数で決まります。
+ * 実行スレッドは受信したレスポンスのデコードだけに使います。
+ * この場合、同期クライアントのサブクラスでオーバーライドしたジョブとデッドジョブの API は呼び出されません。<br>
+ * 認証情報を渡すコンストラクタは {@link ApacheAsyncHttpTransport} を利用するため、Java 8 でも既定でこの動作になります。<br>
+ * 同期クライアントにリミッターを設定している場合も、送信許可はスレッドを占有せずに待ちます。<br>
+ * それ以外のトランスポートを使う場合と、ジョブキュー自体を操作する API は、
+ * 各リクエストが実行スレッドを1本ずつ占有するため、同時に実行できるリクエスト数は実行スレッド数までです。
+ * 超えた分は実行スレッドが空くまで待ちます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class Gs2JobQueueAsyncClient implements Closeable {
+
+	/** 実行スレッド数の既定値 */
+	public static final int DEFAULT_THREADS = 256;
+
+	/** 認証情報を渡すコンストラクタで生成するトランスポートのコネクション数 */
+	public static final int DEFAULT_CONNECTIONS = 512;
+
+	/** 同期クライアント */
+	private final Gs2JobQueueClient client;
+
+	/** リクエストを実行する Executor */
+	private final Executor executor;
+
+	/** このクライアントが生成した ExecutorService */
+	private final ExecutorService ownedExecutor;
+
+	/** このクライアントが生成したトランスポート */
+	private final Gs2JobQueueTransport ownedTransport;
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * {@link #DEFAULT_CONNECTIONS} 本のコネクションをプールする {@link ApacheAsyncHttpTransport} で送信し、
+	 * プロセッサ数と同じ数のデーモンスレッドでレスポンスをデコードします。
+	 * 生成したトランスポートとスレッドは {@link #close()} で閉じます。<br>
+	 *
+	 * @param credential 認証情報
+	 */
+	public Gs2JobQueueAsyncClient(IGs2Credential credential) {
+		this(new Gs2JobQueueClient(credential), defaultTransport());
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * {@link #DEFAULT_CONNECTIONS} 本のコネクションをプールする {@link ApacheAsyncHttpTransport} で送信し、
+	 * プロセッサ数と同じ数のデーモンスレッドでレスポンスをデコードします。
+	 * 生成したトランスポートとスレッドは {@link #close()} で閉じます。<br>
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 */
+	public Gs2JobQueueAsyncClient(IGs2Credential credential, Region region) {
+		this(new Gs2JobQueueClient(credential, region), defaultTransport());
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * {@link #DEFAULT_CONNECTIONS} 本のコネクションをプールする {@link ApacheAsyncHttpTransport} で送信し、
+	 * プロセッサ数と同じ数のデーモンスレッドでレスポンスをデコードします。
+	 * 生成したトランスポートとスレッドは {@link #close()} で閉じます。<br>
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 */
+	public Gs2JobQueueAsyncClient(IGs2Credential credential, String region) {
+		this(new Gs2JobQueueClient(credential, region), defaultTransport());
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * {@link #DEFAULT_THREADS} 本のデーモンスレッドでリクエストを実行します。<br>
+	 * 生成したスレッドは {@link #close()} で停止します。<br>
+	 *
+	 * @param client 同期クライアント
+	 */
+	public Gs2JobQueueAsyncClient(Gs2JobQueueClient client) {
+		this(client, newExecutor(DEFAULT_THREADS), true, null);
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * 渡された Executor の停止は呼び出し側で行ってください。<br>
+	 *
+	 * @param client 同期クライアント
+	 * @param executor リクエストを実行する Executor
+	 */
+	public Gs2JobQueueAsyncClient(Gs2JobQueueClient client, Executor executor) {
+		this(client, executor, false, null);
+	}
+
+	private Gs2JobQueueAsyncClient(Gs2JobQueueClient client, Gs2JobQueueTransport transport) {
+		this(client.withTransport(transport), newExecutor(Runtime.getRuntime().availableProcessors()), true, transport);
+	}
+
+	private Gs2JobQueueAsyncClient(Gs2JobQueueClient client, Executor executor, boolean owned, Gs2JobQueueTransport ownedTransport) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		this.client = client;
+		this.executor = executor;
+		this.ownedExecutor = owned ? (ExecutorService) executor : null;
+		this.ownedTransport = ownedTransport;
+	}
+
+	private static ExecutorService newExecutor(int threads) {
+		return Executors.newFixedThreadPool(threads, new DaemonThreadFactory("gs2-job-queue-async"));
+	}
+
+	private static Gs2JobQueueTransport defaultTransport() {
+		return new ApacheAsyncHttpTransport(new ApacheHttpTransportConfig()
+				.withMaxConnections(DEFAULT_CONNECTIONS)
+				.withMaxConnectionsPerRoute(DEFAULT_CONNECTIONS));
+	}
+
+	/**
+	 * 同期クライアントを取得
+	 *
+	 * @return 同期クライアント
+	 */
+	public Gs2JobQueueClient getClient() {
+		return client;
+	}
+
+	/**
+	 * リクエストを実行する Executor を取得
+	 *
+	 * @return リクエストを実行する Executor
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * このクライアントが生成したスレッドを停止し、生成したトランスポートを閉じます。<br>
+	 * <br>
+	 * コンストラクタで渡された Executor と同期クライアントのトランスポートは閉じません。<br>
+	 */
+	@Override
+	public void close() {
+		if(ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+		if(ownedTransport != null) {
+			try {
+				ownedTransport.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+
+	/**
+	 * デッドジョブを削除します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<Void> deleteDeadJob(DeleteDeadJobRequest request) {
+		return client.executeAsync(request.getQueueName(), DeleteDeadJobRequest.Constant.FUNCTION, () -> client.deleteDeadJobRequest(request), null, executor);
+	}
+
+	/**
+	 * デッドジョブの一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeDeadJobResult> describeDeadJob(DescribeDeadJobRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeDeadJobRequest.Constant.FUNCTION, () -> client.describeDeadJobRequest(request), DescribeDeadJobResult.class, executor);
+	}
+
+	/**
+	 * スクリプト名で絞り込んでデッドジョブの一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeDeadJobByScriptNameResult> describeDeadJobByScriptName(DescribeDeadJobByScriptNameRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeDeadJobByScriptNameRequest.Constant.FUNCTION, () -> client.describeDeadJobByScriptNameRequest(request), DescribeDeadJobByScriptNameResult.class, executor);
+	}
+
+	/**
+	 * ユーザIDで絞り込んでデッドジョブの一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeDeadJobByUserIdResult> describeDeadJobByUserId(DescribeDeadJobByUserIdRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeDeadJobByUserIdRequest.Constant.FUNCTION, () -> client.describeDeadJobByUserIdRequest(request), DescribeDeadJobByUserIdResult.class, executor);
+	}
+
+	/**
+	 * デッドジョブを取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<GetDeadJobResult> getDeadJob(GetDeadJobRequest request) {
+		return client.executeAsync(request.getQueueName(), GetDeadJobRequest.Constant.FUNCTION, () -> client.getDeadJobRequest(request), GetDeadJobResult.class, executor);
+	}
+
+	/**
+	 * ジョブの実行結果の一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeJobResultResult> describeJobResult(DescribeJobResultRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeJobResultRequest.Constant.FUNCTION, () -> client.describeJobResultRequest(request), DescribeJobResultResult.class, executor);
+	}
+
+	/**
+	 * ジョブの一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeJobResult> describeJob(DescribeJobRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeJobRequest.Constant.FUNCTION, () -> client.describeJobRequest(request), DescribeJobResult.class, executor);
+	}
+
+	/**
+	 * ジョブの一覧を取得します。<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeJobByUserIdResult> describeJobByUserId(DescribeJobByUserIdRequest request) {
+		return client.executeAsync(request.getQueueName(), DescribeJobByUserIdRequest.Constant.FUNCTION, () -> client.describeJobByUserIdRequest(request), DescribeJobByUserIdResult.class, executor);
+	}
+
+	/**
+	 * ジョブキューにジョブを登録します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<PushResult> push(PushRequest request) {
+		return client.executeAsync(request.getQueueName(), PushRequest.Constant.FUNCTION, () -> client.pushRequest(request), PushResult.class, executor);
+	}
+
+	/**
+	 * ジョブキューを実行します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<RunByUserIdResult> runByUserId(RunByUserIdRequest request) {
+		return client.executeAsync(request.getQueueName(), RunByUserIdRequest.Constant.FUNCTION, () -> client.runByUserIdRequest(request), RunByUserIdResult.class, executor);
+	}
+
+	/**
+	 * ジョブキューを新規作成します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<CreateQueueResult> createQueue(CreateQueueRequest request) {
+		return CompletableFuture.supplyAsync(() -> client.createQueue(request), executor);
+	}
+
+	/**
+	 * ジョブキューを削除します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<Void> deleteQueue(DeleteQueueRequest request) {
+		return CompletableFuture.runAsync(() -> client.deleteQueue(request), executor);
+	}
+
+	/**
+	 * ジョブキューの一覧を取得します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<DescribeQueueResult> describeQueue(DescribeQueueRequest request) {
+		return CompletableFuture.supplyAsync(() -> client.describeQueue(request), executor);
+	}
+
+	/**
+	 * ジョブキューを取得します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<GetQueueResult> getQueue(GetQueueRequest request) {
+		return CompletableFuture.supplyAsync(() -> client.getQueue(request), executor);
+	}
+
+	/**
+	 * ジョブキューの状態を取得します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<GetQueueStatusResult> getQueueStatus(GetQueueStatusRequest request) {
+		return CompletableFuture.supplyAsync(() -> client.getQueueStatus(request), executor);
+	}
+
+	/**
+	 * ジョブキューを実行します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<RunResult> run(RunRequest request) {
+		return client.executeAsync(request.getQueueName(), RunRequest.Constant.FUNCTION, () -> client.runRequest(request), RunResult.class, executor);
+	}
+
+	/**
+	 * ジョブキューを更新します<br>
+	 * <br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 結果
+	 */
+	public CompletableFuture<UpdateQueueResult> updateQueue(UpdateQueueRequest request) {
+		return CompletableFuture.supplyAsync(() -> client.updateQueue(request), executor);
+	}
+
+}
@@ -16,27 +16,63 @@
 
 package io.gs2.jobQueue;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
 
 import io.gs2.model.Region;
 import io.gs2.util.EncodingUtil;
+import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.message.BasicNameValuePair;
 
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import io.gs2.AbstractGs2Client;
-import io.gs2.Gs2Constant;
+import io.gs2.exception.BadGatewayException;
+import io.gs2.exception.BadRequestException;
+import io.gs2.exception.ConflictException;
+import io.gs2.exception.InternalServerErrorException;
+import io.gs2.exception.NotFoundException;
+import io.gs2.exception.QuotaExceedException;
+import io.gs2.exception.RequestTimeoutException;
+import io.gs2.exception.ServiceUnavailableException;
+import io.gs2.exception.UnauthorizedException;
 import io.gs2.model.IGs2Credential;
 import io.gs2.jobQueue.control.*;
+import io.gs2.jobQueue.limit.LimitExceededException;
+import io.gs2.jobQueue.limit.RequestLimiter;
+import io.gs2.jobQueue.metrics.RequestMetricsListener;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.transport.ApacheHttpTransport;
+import io.gs2.jobQueue.transport.ApacheHttpTransportConfig;
+import io.gs2.jobQueue.transport.AsyncGs2JobQueueTransport;
+import io.gs2.jobQueue.transport.ContentEncoding;
+import io.gs2.jobQueue.transport.Gs2JobQueueResponse;
+import io.gs2.jobQueue.transport.Gs2JobQueueTransport;
+import io.gs2.jobQueue.util.ItemCursor;
+import io.gs2.jobQueue.util.JsonBodyWriter;
+import io.gs2.jobQueue.util.JsonSupport;
+import io.gs2.jobQueue.util.SignatureCache;
+import io.gs2.jobQueue.util.UrlTemplate;
 
 /**
  * GS2 JobQueue API クライアント
@@ -48,6 +84,43 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public static String ENDPOINT = "job-queue";
 
+	/** push のボディの圧縮レベルの既定値 */
+	public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+	// API ごとの URL。パスの変数はパーセントエンコードして展開する
+	private static final UrlTemplate DEAD_JOB_URL = UrlTemplate.compile("/queue/{queueName}/deadJob/{jobId}/user/{userId}");
+	private static final UrlTemplate DEAD_JOBS_URL = UrlTemplate.compile("/queue/{queueName}/deadJob");
+	private static final UrlTemplate DEAD_JOBS_BY_SCRIPT_NAME_URL = UrlTemplate.compile("/queue/{queueName}/deadJob/script/{scriptName}");
+	private static final UrlTemplate DEAD_JOBS_BY_USER_ID_URL = UrlTemplate.compile("/queue/{queueName}/deadJob/user/{userId}");
+	private static final UrlTemplate DEAD_JOB_RESULT_URL = UrlTemplate.compile("/queue/{queueName}/deadJob/{jobId}/result");
+	private static final UrlTemplate JOBS_URL = UrlTemplate.compile("/queue/{queueName}/job");
+	private static final UrlTemplate JOBS_BY_USER_ID_URL = UrlTemplate.compile("/queue/{queueName}/job/user/{userId}");
+	private static final UrlTemplate RUN_BY_USER_ID_URL = UrlTemplate.compile("/queue/{queueName}/job/user/{userId}/run");
+	private static final UrlTemplate QUEUES_URL = UrlTemplate.compile("/queue");
+	private static final UrlTemplate QUEUE_URL = UrlTemplate.compile("/queue/{queueName}");
+	private static final UrlTemplate QUEUE_STATUS_URL = UrlTemplate.compile("/queue/{queueName}/status");
+
+	/** リクエストの送信に使うトランスポート */
+	private volatile Gs2JobQueueTransport transport;
+
+	/** トランスポートが未設定の場合にカーソルの読み出しに使うトランスポート */
+	private volatile Gs2JobQueueTransport defaultTransport;
+
+	/** 計測結果を受け取るリスナー */
+	private volatile RequestMetricsListener metricsListener;
+
+	/** リクエストの送信を制限するリミッター */
+	private volatile RequestLimiter requestLimiter;
+
+	/** 署名済みヘッダーのキャッシュ。null の場合は毎回署名する */
+	private volatile SignatureCache signatureCache;
+
+	/** push のボディを圧縮する最小サイズ(バイト)。負の値の場合は圧縮しない */
+	private volatile int compressionThreshold = -1;
+
+	/** push のボディの圧縮レベル */
+	private volatile int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
 	/**
 	 * コンストラクタ。
 	 *
@@ -78,6 +151,492 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	}
 
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * Java 11 以降では JdkHttpClientTransport を指定すると HTTP/2 で通信します。<br>
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 * @param transport リクエストの送信に使うトランスポート
+	 */
+	public Gs2JobQueueClient(IGs2Credential credential, Region region, Gs2JobQueueTransport transport) {
+		super(credential, region);
+		this.transport = transport;
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * Java 11 以降では JdkHttpClientTransport を指定すると HTTP/2 で通信します。<br>
+	 *
+	 * @param credential 認証情報
+	 * @param region リージョン
+	 * @param transport リクエストの送信に使うトランスポート
+	 */
+	public Gs2JobQueueClient(IGs2Credential credential, String region, Gs2JobQueueTransport transport) {
+		super(credential, region);
+		this.transport = transport;
+	}
+
+	/**
+	 * リクエストの送信に使うトランスポートを設定します。<br>
+	 * <br>
+	 * 設定しない場合は {@link AbstractGs2Client} の既定の経路で送信します。<br>
+	 * エミュレーターなど、既定のエンドポイント以外に接続する場合に利用します。<br>
+	 *
+	 * @param transport トランスポート
+	 */
+	public void setTransport(Gs2JobQueueTransport transport) {
+		this.transport = transport;
+	}
+
+	/**
+	 * リクエストの送信に使うトランスポートを設定します。
+	 *
+	 * @param transport トランスポート
+	 * @return this
+	 */
+	public Gs2JobQueueClient withTransport(Gs2JobQueueTransport transport) {
+		setTransport(transport);
+		return this;
+	}
+
+	/**
+	 * コネクションプールとソケットの設定を指定して、リクエストの送信に使うトランスポートを設定します。<br>
+	 * <br>
+	 * 既定の経路と異なり、コネクションを keep-alive で再利用するため
+	 * バースト時にも TCP/TLS のハンドシェイクが発生しにくくなります。<br>
+	 *
+	 * @param config コネクションプールとソケットの設定
+	 * @return this
+	 */
+	public Gs2JobQueueClient withTransportConfig(ApacheHttpTransportConfig config) {
+		setTransport(new ApacheHttpTransport(config));
+		return this;
+	}
+
+	/**
+	 * 計測結果を受け取るリスナーを設定します。<br>
+	 * <br>
+	 * 各 API の呼び出しごとに、機能名・レイテンシ・ペイロードサイズ・ステータスコードが通知されます。<br>
+	 *
+	 * @param metricsListener 計測結果を受け取るリスナー。null の場合は計測しません
+	 */
+	public void setMetricsListener(RequestMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	/**
+	 * 計測結果を受け取るリスナーを設定します。
+	 *
+	 * @param metricsListener 計測結果を受け取るリスナー
+	 * @return this
+	 */
+	public Gs2JobQueueClient withMetricsListener(RequestMetricsListener metricsListener) {
+		setMetricsListener(metricsListener);
+		return this;
+	}
+
+	/**
+	 * リクエストの送信を制限するリミッターを設定します。<br>
+	 * <br>
+	 * 各 API の送信前に送信許可を取得し、許可が得られるまで待機するか {@link LimitExceededException} を送出します。<br>
+	 *
+	 * @param requestLimiter リクエストの送信を制限するリミッター。null の場合は制限しません
+	 */
+	public void setRequestLimiter(RequestLimiter requestLimiter) {
+		this.requestLimiter = requestLimiter;
+	}
+
+	/**
+	 * リクエストの送信を制限するリミッターを設定します。
+	 *
+	 * @param requestLimiter リクエストの送信を制限するリミッター
+	 * @return this
+	 */
+	public Gs2JobQueueClient withRequestLimiter(RequestLimiter requestLimiter) {
+		setRequestLimiter(requestLimiter);
+		return this;
+	}
+
+	/**
+	 * 署名済みヘッダーのキャッシュを有効にするか設定します。<br>
+	 * <br>
+	 * 有効にすると、同じ秒の間に同じ機能を呼び出す場合は署名を再計算せずにキャッシュしたヘッダーを使います。<br>
+	 * キャッシュはこのクライアントだけが持ち、ほかのクライアントとは共有しません。<br>
+	 * 既定では無効で、毎回署名します。<br>
+	 *
+	 * @param signatureCacheEnabled 署名済みヘッダーのキャッシュを有効にする場合は true
+	 */
+	public void setSignatureCacheEnabled(boolean signatureCacheEnabled) {
+		this.signatureCache = signatureCacheEnabled ? new SignatureCache() : null;
+	}
+
+	/**
+	 * 署名済みヘッダーのキャッシュを有効にするか設定します。
+	 *
+	 * @param signatureCacheEnabled 署名済みヘッダーのキャッシュを有効にする場合は true
+	 * @return this
+	 */
+	public Gs2JobQueueClient withSignatureCacheEnabled(boolean signatureCacheEnabled) {
+		setSignatureCacheEnabled(signatureCacheEnabled);
+		return this;
+	}
+
+	/**
+	 * 署名済みヘッダーのキャッシュを取得
+	 *
+	 * @return 署名済みヘッダーのキャッシュ。無効の場合は null
+	 */
+	public SignatureCache getSignatureCache() {
+		return signatureCache;
+	}
+
+	/**
+	 * push のリクエストボディを gzip で圧縮する最小サイズを設定します。<br>
+	 * <br>
+	 * ボディがこのサイズを超える場合は圧縮し、Content-Encoding: gzip を付けて送信します。
+	 * PushJob の args に数KB の JSON を持たせる場合に通信量を減らせます。<br>
+	 * 既定では圧縮しません。<br>
+	 *
+	 * @param compressionThreshold 圧縮する最小サイズ(バイト)。負の値の場合は圧縮しません
+	 */
+	public void setCompressionThreshold(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	/**
+	 * push のリクエストボディを gzip で圧縮する最小サイズを設定します。
+	 *
+	 * @param compressionThreshold 圧縮する最小サイズ(バイト)
+	 * @return this
+	 */
+	public Gs2JobQueueClient withCompressionThreshold(int compressionThreshold) {
+		setCompressionThreshold(compressionThreshold);
+		return this;
+	}
+
+	/**
+	 * push のリクエストボディの圧縮レベルを設定します。
+	 *
+	 * @param compressionLevel 圧縮レベル (0-9)。既定は {@link #DEFAULT_COMPRESSION_LEVEL}
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		if((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+				&& compressionLevel != Deflater.DEFAULT_COMPRESSION) throw new IllegalArgumentException("invalid compressionLevel");
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * push のリクエストボディの圧縮レベルを設定します。
+	 *
+	 * @param compressionLevel 圧縮レベル (0-9)
+	 * @return this
+	 */
+	public Gs2JobQueueClient withCompressionLevel(int compressionLevel) {
+		setCompressionLevel(compressionLevel);
+		return this;
+	}
+
+	/**
+	 * リクエストの送信に使うトランスポートを取得します。<br>
+	 * <br>
+	 * 設定されていない場合はカーソルの読み出し用に既定のトランスポートを生成して返します。<br>
+	 *
+	 * @return トランスポート
+	 */
+	protected Gs2JobQueueTransport getTransport() {
+		Gs2JobQueueTransport transport = this.transport;
+		if(transport != null) {
+			return transport;
+		}
+		transport = this.defaultTransport;
+		if(transport == null) {
+			synchronized(this) {
+				transport = this.defaultTransport;
+				if(transport == null) {
+					transport = new ApacheHttpTransport(new ApacheHttpTransportConfig());
+					this.defaultTransport = transport;
+				}
+			}
+		}
+		return transport;
+	}
+
+	private HttpPost signedHttpPost(String url, String module, String function, String body) {
+		SignatureCache signatureCache = this.signatureCache;
+		if(signatureCache == null) {
+			return createHttpPost(url, credential, ENDPOINT, module, function, body);
+		}
+		return signatureCache.sign(credential, region, url, module, function, body,
+				() -> createHttpPost(url, credential, ENDPOINT, module, function, body), HttpPost::new);
+	}
+
+	private HttpPut signedHttpPut(String url, String module, String function, String body) {
+		SignatureCache signatureCache = this.signatureCache;
+		if(signatureCache == null) {
+			return createHttpPut(url, credential, ENDPOINT, module, function, body);
+		}
+		return signatureCache.sign(credential, region, url, module, function, body,
+				() -> createHttpPut(url, credential, ENDPOINT, module, function, body), HttpPut::new);
+	}
+
+	private HttpGet signedHttpGet(String url, String module, String function) {
+		SignatureCache signatureCache = this.signatureCache;
+		if(signatureCache == null) {
+			return createHttpGet(url, credential, ENDPOINT, module, function);
+		}
+		return signatureCache.sign(credential, region, url, module, function, null,
+				() -> createHttpGet(url, credential, ENDPOINT, module, function), HttpGet::new);
+	}
+
+	private HttpDelete signedHttpDelete(String url, String module, String function) {
+		SignatureCache signatureCache = this.signatureCache;
+		if(signatureCache == null) {
+			return createHttpDelete(url, credential, ENDPOINT, module, function);
+		}
+		return signatureCache.sign(credential, region, url, module, function, null,
+				() -> createHttpDelete(url, credential, ENDPOINT, module, function), HttpDelete::new);
+	}
+
+	private <U> U execute(String queueName, String function, HttpRequestBase request, Class<U> clazz) {
+		RequestLimiter limiter = this.requestLimiter;
+		if(limiter == null) {
+			return measure(function, request, clazz);
+		}
+		RequestLimiter.Permit permit = limiter.acquire(queueName, function);
+		long start = System.nanoTime();
+		try {
+			U result = measure(function, request, clazz);
+			permit.release(System.nanoTime() - start, null);
+			return result;
+		} catch (RuntimeException e) {
+			permit.release(System.nanoTime() - start, e);
+			throw e;
+		}
+	}
+
+	private <U> U measure(String function, HttpRequestBase request, Class<U> clazz) {
+		RequestMetricsListener listener = this.metricsListener;
+		if(listener == null) {
+			return send(request, clazz, new Exchange());
+		}
+		long requestBytes = contentLength(request);
+		Exchange exchange = new Exchange();
+		listener.onRequestStart(function);
+		long start = System.nanoTime();
+		try {
+			U result = send(request, clazz, exchange);
+			listener.onRequestEnd(function, System.nanoTime() - start, requestBytes, exchange.responseBytes, exchange.statusCode, null);
+			return result;
+		} catch (RuntimeException e) {
+			listener.onRequestEnd(function, System.nanoTime() - start, requestBytes, exchange.responseBytes, exchange.statusCode(e), e);
+			throw e;
+		}
+	}
+
+	private <U> U send(HttpRequestBase request, Class<U> clazz, Exchange exchange) {
+		Gs2JobQueueTransport transport = this.transport;
+		if(transport == null) {
+			U result = doRequest(request, clazz);
+			exchange.statusCode = 200;
+			return result;
+		}
+		try(Gs2JobQueueResponse response = transport.execute(request)) {
+			return read(response, clazz, exchange);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static <U> U read(Gs2JobQueueResponse response, Class<U> clazz, Exchange exchange) throws IOException {
+		exchange.statusCode = response.getStatusCode();
+		response.ensureSuccess();
+		byte[] body = response.readAsBytes();
+		exchange.responseBytes = body.length;
+		return clazz == null || body.length == 0 ? null : JsonSupport.MAPPER.readValue(body, clazz);
+	}
+
+	/**
+	 * リクエストを非同期に実行します。<br>
+	 * <br>
+	 * トランスポートが {@link AsyncGs2JobQueueTransport} の場合は応答を待つスレッドを使わずに送信し、
+	 * 受信したレスポンスのデコードだけを executor で実行します。
+	 * それ以外のトランスポートを使う場合は同期 API と同じ処理を executor で実行します。<br>
+	 * リミッターが設定されている場合は {@link RequestLimiter#acquireAsync(String, String)} で送信許可を待ってから送信します。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param function API の名前
+	 * @param request 署名済みのリクエストを作成する関数
+	 * @param clazz 結果の型
+	 * @param executor 実行に使う Executor
+	 * @param <U> 結果の型
+	 * @return 結果
+	 */
+	<U> CompletableFuture<U> executeAsync(String queueName, String function, Supplier<? extends HttpRequestBase> request, Class<U> clazz, Executor executor) {
+		RequestLimiter limiter = this.requestLimiter;
+		if(limiter == null) {
+			return sendAsync(function, request, clazz, executor);
+		}
+		CompletableFuture<RequestLimiter.Permit> permit;
+		try {
+			permit = limiter.acquireAsync(queueName, function);
+		} catch (RuntimeException e) {
+			CompletableFuture<U> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+		Function<RequestLimiter.Permit, CompletableFuture<U>> send = acquired -> {
+			long start = System.nanoTime();
+			return sendAsync(function, request, clazz, executor).whenComplete((result, error) ->
+					acquired.release(System.nanoTime() - start,
+							error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+		};
+		// 待機した場合はリミッターのスレッドで署名・送信しないよう executor に移す
+		return permit.isDone() ? permit.thenCompose(send) : permit.thenComposeAsync(send, executor);
+	}
+
+	private <U> CompletableFuture<U> sendAsync(String function, Supplier<? extends HttpRequestBase> request, Class<U> clazz, Executor executor) {
+		Gs2JobQueueTransport transport = this.transport;
+		if(!(transport instanceof AsyncGs2JobQueueTransport)) {
+			return CompletableFuture.supplyAsync(() -> measure(function, request.get(), clazz), executor);
+		}
+		RequestMetricsListener listener = this.metricsListener;
+		Exchange exchange = new Exchange();
+		long requestBytes = 0;
+		long start = 0;
+		CompletableFuture<Gs2JobQueueResponse> response;
+		try {
+			HttpRequestBase httpRequest = request.get();
+			if(listener != null) {
+				requestBytes = contentLength(httpRequest);
+				listener.onRequestStart(function);
+				start = System.nanoTime();
+			}
+			response = ((AsyncGs2JobQueueTransport) transport).executeAsync(httpRequest);
+		} catch (RuntimeException e) {
+			CompletableFuture<U> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+		long requestBytesFinal = requestBytes;
+		long startFinal = start;
+		return response.handleAsync((received, error) -> {
+			RuntimeException failure = null;
+			try {
+				if(error != null) {
+					throw error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				}
+				try(Gs2JobQueueResponse closing = received) {
+					return read(closing, clazz, exchange);
+				}
+			} catch (RuntimeException e) {
+				failure = e;
+				throw e;
+			} catch (IOException e) {
+				failure = new UncheckedIOException(e);
+				throw failure;
+			} catch (Throwable e) {
+				failure = new CompletionException(e);
+				throw failure;
+			} finally {
+				if(listener != null) {
+					listener.onRequestEnd(function, System.nanoTime() - startFinal, requestBytesFinal, exchange.responseBytes,
+							failure == null ? exchange.statusCode : exchange.statusCode(failure), failure);
+				}
+			}
+		}, executor);
+	}
+
+	private <T> ItemCursor<T> openCursor(String queueName, String function, HttpRequestBase request, Class<T> itemType) {
+		RequestLimiter limiter = this.requestLimiter;
+		if(limiter == null) {
+			return measureCursor(function, request, itemType);
+		}
+		// カーソルの読み出しは呼び出し元のペースで進むため、レスポンスの受信開始までを制限の対象にする
+		RequestLimiter.Permit permit = limiter.acquire(queueName, function);
+		long start = System.nanoTime();
+		try {
+			ItemCursor<T> cursor = measureCursor(function, request, itemType);
+			permit.release(System.nanoTime() - start, null);
+			return cursor;
+		} catch (RuntimeException e) {
+			permit.release(System.nanoTime() - start, e);
+			throw e;
+		}
+	}
+
+	private <T> ItemCursor<T> measureCursor(String function, HttpRequestBase request, Class<T> itemType) {
+		RequestMetricsListener listener = this.metricsListener;
+		long requestBytes = 0;
+		long start = 0;
+		if(listener != null) {
+			listener.onRequestStart(function);
+			start = System.nanoTime();
+		}
+		Exchange exchange = new Exchange();
+		Gs2JobQueueResponse response = null;
+		try {
+			response = getTransport().execute(request);
+			exchange.statusCode = response.getStatusCode();
+			response.ensureSuccess();
+			ItemCursor<T> cursor = new ItemCursor<>(response, itemType);
+			if(listener != null) {
+				listener.onRequestEnd(function, System.nanoTime() - start, requestBytes, -1, exchange.statusCode, null);
+			}
+			return cursor;
+		} catch (IOException | RuntimeException e) {
+			if(response != null) {
+				try {
+					response.close();
+				} catch (IOException ignore) {
+				}
+			}
+			if(listener != null) {
+				listener.onRequestEnd(function, System.nanoTime() - start, requestBytes, -1, exchange.statusCode(e), e);
+			}
+			if(e instanceof IOException) {
+				throw new UncheckedIOException((IOException) e);
+			}
+			throw (RuntimeException) e;
+		}
+	}
+
+	private static long contentLength(HttpRequestBase request) {
+		if(request instanceof HttpEntityEnclosingRequestBase) {
+			HttpEntity entity = ((HttpEntityEnclosingRequestBase) request).getEntity();
+			if(entity != null) {
+				return Math.max(0, entity.getContentLength());
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 1回のリクエストで計測した値
+	 */
+	private static class Exchange {
+
+		int statusCode;
+
+		long responseBytes = -1;
+
+		int statusCode(Exception e) {
+			if(statusCode != 0) return statusCode;
+			if(e instanceof BadRequestException) return 400;
+			if(e instanceof UnauthorizedException) return 401;
+			if(e instanceof QuotaExceedException) return 402;
+			if(e instanceof NotFoundException) return 404;
+			if(e instanceof ConflictException) return 409;
+			if(e instanceof InternalServerErrorException) return 500;
+			if(e instanceof BadGatewayException) return 502;
+			if(e instanceof ServiceUnavailableException) return 503;
+			if(e instanceof RequestTimeoutException) return 504;
+			return 0;
+		}
+	}
+
 
 	/**
 	 * デッドジョブを削除します。<br>
@@ -89,23 +648,30 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public void deleteDeadJob(DeleteDeadJobRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob/" + (request.getJobId() == null || request.getJobId().equals("") ? "null" : request.getJobId()) + "/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "";
+		execute(request.getQueueName(), DeleteDeadJobRequest.Constant.FUNCTION, deleteDeadJobRequest(request), null);
+
+	}
+
+	/**
+	 * deleteDeadJob のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpDelete deleteDeadJobRequest(DeleteDeadJobRequest request) {
+
+	    String url = DEAD_JOB_URL.render(request.getQueueName(), request.getJobId(), request.getUserId());
 
 
 
-		HttpDelete delete = createHttpDelete(
+		HttpDelete delete = signedHttpDelete(
 				url,
-				credential,
-				ENDPOINT,
 				DeleteDeadJobRequest.Constant.MODULE,
 				DeleteDeadJobRequest.Constant.FUNCTION);
         if(request.getRequestId() != null) {
             delete.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
-
-
-		doRequest(delete, null);
-
+		return delete;
 	}
 
 
@@ -121,7 +687,19 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeDeadJobResult describeDeadJob(DescribeDeadJobRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob";
+		return execute(request.getQueueName(), DescribeDeadJobRequest.Constant.FUNCTION, describeDeadJobRequest(request), DescribeDeadJobResult.class);
+
+	}
+
+	/**
+	 * describeDeadJob のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeDeadJobRequest(DescribeDeadJobRequest request) {
+
+	    String url = DEAD_JOBS_URL.render(request.getQueueName());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -131,18 +709,53 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeDeadJobRequest.Constant.MODULE,
 				DescribeDeadJobRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+        if(request.getRequestId() != null) {
+            get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
+        }
+		return get;
+	}
+
+
+	/**
+	 * デッドジョブの一覧を1件ずつ読み出すカーソルを取得します。<br>
+	 * <br>
+	 * レスポンスボディを受信しながら items を1要素ずつデコードするため、ページ全体をメモリに展開しません。<br>
+	 * 読み出しを終えたらカーソルを close してください。<br>
+	 *
+	 * @param request リクエストパラメータ
+
+	 * @return カーソル
+
+	 */
+
+	public ItemCursor<DeadJob> describeDeadJobCursor(DescribeDeadJobRequest request) {
+
+	    String url = DEAD_JOBS_URL.render(request.getQueueName());
+
+        List<NameValuePair> queryString = new ArrayList<>();
+        if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
+        if(request.getLimit() != null) queryString.add(new BasicNameValuePair("limit", String.valueOf(request.getLimit())));
+
+
+		if(queryString.size() > 0) {
+			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
+		}
+		HttpGet get = signedHttpGet(
+				url,
+				DescribeDeadJobRequest.Constant.MODULE,
+				DescribeDeadJobRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
 
 
-		return doRequest(get, DescribeDeadJobResult.class);
+		return openCursor(request.getQueueName(), DescribeDeadJobRequest.Constant.FUNCTION, get, DeadJob.class);
 
 	}
 
@@ -159,7 +772,19 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeDeadJobByScriptNameResult describeDeadJobByScriptName(DescribeDeadJobByScriptNameRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob/script/" + (request.getScriptName() == null || request.getScriptName().equals("") ? "null" : request.getScriptName()) + "";
+		return execute(request.getQueueName(), DescribeDeadJobByScriptNameRequest.Constant.FUNCTION, describeDeadJobByScriptNameRequest(request), DescribeDeadJobByScriptNameResult.class);
+
+	}
+
+	/**
+	 * describeDeadJobByScriptName のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeDeadJobByScriptNameRequest(DescribeDeadJobByScriptNameRequest request) {
+
+	    String url = DEAD_JOBS_BY_SCRIPT_NAME_URL.render(request.getQueueName(), request.getScriptName());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -169,19 +794,15 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeDeadJobByScriptNameRequest.Constant.MODULE,
 				DescribeDeadJobByScriptNameRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
-
-
-		return doRequest(get, DescribeDeadJobByScriptNameResult.class);
-
+		return get;
 	}
 
 
@@ -197,7 +818,19 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeDeadJobByUserIdResult describeDeadJobByUserId(DescribeDeadJobByUserIdRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "";
+		return execute(request.getQueueName(), DescribeDeadJobByUserIdRequest.Constant.FUNCTION, describeDeadJobByUserIdRequest(request), DescribeDeadJobByUserIdResult.class);
+
+	}
+
+	/**
+	 * describeDeadJobByUserId のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeDeadJobByUserIdRequest(DescribeDeadJobByUserIdRequest request) {
+
+	    String url = DEAD_JOBS_BY_USER_ID_URL.render(request.getQueueName(), request.getUserId());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -207,19 +840,15 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeDeadJobByUserIdRequest.Constant.MODULE,
 				DescribeDeadJobByUserIdRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
-
-
-		return doRequest(get, DescribeDeadJobByUserIdResult.class);
-
+		return get;
 	}
 
 
@@ -235,23 +864,30 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public GetDeadJobResult getDeadJob(GetDeadJobRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob/" + (request.getJobId() == null || request.getJobId().equals("") ? "null" : request.getJobId()) + "/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "";
+		return execute(request.getQueueName(), GetDeadJobRequest.Constant.FUNCTION, getDeadJobRequest(request), GetDeadJobResult.class);
+
+	}
+
+	/**
+	 * getDeadJob のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet getDeadJobRequest(GetDeadJobRequest request) {
+
+	    String url = DEAD_JOB_URL.render(request.getQueueName(), request.getJobId(), request.getUserId());
 
 
 
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				GetDeadJobRequest.Constant.MODULE,
 				GetDeadJobRequest.Constant.FUNCTION);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
-
-
-		return doRequest(get, GetDeadJobResult.class);
-
+		return get;
 	}
 
 
@@ -267,7 +903,55 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeJobResultResult describeJobResult(DescribeJobResultRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/deadJob/" + (request.getJobId() == null || request.getJobId().equals("") ? "null" : request.getJobId()) + "/result";
+		return execute(request.getQueueName(), DescribeJobResultRequest.Constant.FUNCTION, describeJobResultRequest(request), DescribeJobResultResult.class);
+
+	}
+
+	/**
+	 * describeJobResult のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeJobResultRequest(DescribeJobResultRequest request) {
+
+	    String url = DEAD_JOB_RESULT_URL.render(request.getQueueName(), request.getJobId());
+
+        List<NameValuePair> queryString = new ArrayList<>();
+        if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
+        if(request.getLimit() != null) queryString.add(new BasicNameValuePair("limit", String.valueOf(request.getLimit())));
+
+
+		if(queryString.size() > 0) {
+			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
+		}
+		HttpGet get = signedHttpGet(
+				url,
+				DescribeJobResultRequest.Constant.MODULE,
+				DescribeJobResultRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+        if(request.getRequestId() != null) {
+            get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
+        }
+		return get;
+	}
+
+
+	/**
+	 * ジョブの実行結果の一覧を1件ずつ読み出すカーソルを取得します。<br>
+	 * <br>
+	 * レスポンスボディを受信しながら items を1要素ずつデコードするため、ページ全体をメモリに展開しません。<br>
+	 * 読み出しを終えたらカーソルを close してください。<br>
+	 *
+	 * @param request リクエストパラメータ
+
+	 * @return カーソル
+
+	 */
+
+	public ItemCursor<JobResult> describeJobResultCursor(DescribeJobResultRequest request) {
+
+	    String url = DEAD_JOB_RESULT_URL.render(request.getQueueName(), request.getJobId());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -277,18 +961,17 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeJobResultRequest.Constant.MODULE,
 				DescribeJobResultRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
 
 
-		return doRequest(get, DescribeJobResultResult.class);
+		return openCursor(request.getQueueName(), DescribeJobResultRequest.Constant.FUNCTION, get, JobResult.class);
 
 	}
 
@@ -305,7 +988,55 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeJobResult describeJob(DescribeJobRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/job";
+		return execute(request.getQueueName(), DescribeJobRequest.Constant.FUNCTION, describeJobRequest(request), DescribeJobResult.class);
+
+	}
+
+	/**
+	 * describeJob のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeJobRequest(DescribeJobRequest request) {
+
+	    String url = JOBS_URL.render(request.getQueueName());
+
+        List<NameValuePair> queryString = new ArrayList<>();
+        if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
+        if(request.getLimit() != null) queryString.add(new BasicNameValuePair("limit", String.valueOf(request.getLimit())));
+
+
+		if(queryString.size() > 0) {
+			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
+		}
+		HttpGet get = signedHttpGet(
+				url,
+				DescribeJobRequest.Constant.MODULE,
+				DescribeJobRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+        if(request.getRequestId() != null) {
+            get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
+        }
+		return get;
+	}
+
+
+	/**
+	 * ジョブの一覧を1件ずつ読み出すカーソルを取得します。<br>
+	 * <br>
+	 * レスポンスボディを受信しながら items を1要素ずつデコードするため、ページ全体をメモリに展開しません。<br>
+	 * 読み出しを終えたらカーソルを close してください。<br>
+	 *
+	 * @param request リクエストパラメータ
+
+	 * @return カーソル
+
+	 */
+
+	public ItemCursor<Job> describeJobCursor(DescribeJobRequest request) {
+
+	    String url = JOBS_URL.render(request.getQueueName());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -315,18 +1046,17 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeJobRequest.Constant.MODULE,
 				DescribeJobRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
 
 
-		return doRequest(get, DescribeJobResult.class);
+		return openCursor(request.getQueueName(), DescribeJobRequest.Constant.FUNCTION, get, Job.class);
 
 	}
 
@@ -343,7 +1073,19 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeJobByUserIdResult describeJobByUserId(DescribeJobByUserIdRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/job/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "";
+		return execute(request.getQueueName(), DescribeJobByUserIdRequest.Constant.FUNCTION, describeJobByUserIdRequest(request), DescribeJobByUserIdResult.class);
+
+	}
+
+	/**
+	 * describeJobByUserId のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpGet describeJobByUserIdRequest(DescribeJobByUserIdRequest request) {
+
+	    String url = JOBS_BY_USER_ID_URL.render(request.getQueueName(), request.getUserId());
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -353,19 +1095,15 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeJobByUserIdRequest.Constant.MODULE,
 				DescribeJobByUserIdRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
-
-
-		return doRequest(get, DescribeJobByUserIdResult.class);
-
+		return get;
 	}
 
 
@@ -381,27 +1119,42 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public PushResult push(PushRequest request) {
 
-		ObjectNode body = JsonNodeFactory.instance.objectNode();
-        if(request.getJobs() != null) {
-            body.set("jobs", JsonNodeFactory.instance.arrayNode().addAll(
-    		    request.getJobs().stream().map(item -> item.toJson()).collect(Collectors.toList())
-		    ));
-		}
+		return execute(request.getQueueName(), PushRequest.Constant.FUNCTION, pushRequest(request), PushResult.class);
+
+	}
+
+	/**
+	 * push のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpPost pushRequest(PushRequest request) {
 
-		HttpPost post = createHttpPost(
-				Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/job/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "",
-				credential,
-				ENDPOINT,
+		HttpPost post = signedHttpPost(
+				pushUrl(request),
 				PushRequest.Constant.MODULE,
 				PushRequest.Constant.FUNCTION,
-				body.toString());
+				"");
+		ByteArrayEntity entity = JsonBodyWriter.push(request, compressionThreshold, compressionLevel);
+		post.setEntity(entity);
+		if(entity.getContentEncoding() != null) {
+			post.setHeader(entity.getContentEncoding());
+		}
         if(request.getRequestId() != null) {
             post.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
+		return post;
+	}
 
-
-		return doRequest(post, PushResult.class);
-
+	/**
+	 * push の URL を組み立てます。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return URL
+	 */
+	static String pushUrl(PushRequest request) {
+		return JOBS_BY_USER_ID_URL.render(request.getQueueName(), request.getUserId());
 	}
 
 
@@ -417,22 +1170,39 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public RunByUserIdResult runByUserId(RunByUserIdRequest request) {
 
+		return execute(request.getQueueName(), RunByUserIdRequest.Constant.FUNCTION, runByUserIdRequest(request), RunByUserIdResult.class);
+
+	}
+
+	/**
+	 * runByUserId のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpPost runByUserIdRequest(RunByUserIdRequest request) {
+
 		ObjectNode body = JsonNodeFactory.instance.objectNode();
 
-		HttpPost post = createHttpPost(
-				Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/job/user/" + (request.getUserId() == null || request.getUserId().equals("") ? "null" : request.getUserId()) + "/run",
-				credential,
-				ENDPOINT,
+		HttpPost post = signedHttpPost(
+				runByUserIdUrl(request),
 				RunByUserIdRequest.Constant.MODULE,
 				RunByUserIdRequest.Constant.FUNCTION,
 				body.toString());
         if(request.getRequestId() != null) {
             post.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
+		return post;
+	}
 
-
-		return doRequest(post, RunByUserIdResult.class);
-
+	/**
+	 * runByUserId の URL を組み立てます。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return URL
+	 */
+	static String runByUserIdUrl(RunByUserIdRequest request) {
+		return RUN_BY_USER_ID_URL.render(request.getQueueName(), request.getUserId());
 	}
 
 
@@ -455,10 +1225,8 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         if(request.getNotificationUrl() != null) body.put("notificationUrl", request.getNotificationUrl());
         if(request.getNotificationGameName() != null) body.put("notificationGameName", request.getNotificationGameName());
 
-		HttpPost post = createHttpPost(
-				Gs2Constant.ENDPOINT_HOST + "/queue",
-				credential,
-				ENDPOINT,
+		HttpPost post = signedHttpPost(
+				QUEUES_URL.render(),
 				CreateQueueRequest.Constant.MODULE,
 				CreateQueueRequest.Constant.FUNCTION,
 				body.toString());
@@ -467,7 +1235,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
 
-		return doRequest(post, CreateQueueResult.class);
+		return execute(request.getName(), CreateQueueRequest.Constant.FUNCTION, post, CreateQueueResult.class);
 
 	}
 
@@ -482,14 +1250,12 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public void deleteQueue(DeleteQueueRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "";
+	    String url = QUEUE_URL.render(request.getQueueName());
 
 
 
-		HttpDelete delete = createHttpDelete(
+		HttpDelete delete = signedHttpDelete(
 				url,
-				credential,
-				ENDPOINT,
 				DeleteQueueRequest.Constant.MODULE,
 				DeleteQueueRequest.Constant.FUNCTION);
         if(request.getRequestId() != null) {
@@ -497,7 +1263,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
 
-		doRequest(delete, null);
+		execute(request.getQueueName(), DeleteQueueRequest.Constant.FUNCTION, delete, null);
 
 	}
 
@@ -514,7 +1280,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public DescribeQueueResult describeQueue(DescribeQueueRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue";
+	    String url = QUEUES_URL.render();
 
         List<NameValuePair> queryString = new ArrayList<>();
         if(request.getPageToken() != null) queryString.add(new BasicNameValuePair("pageToken", String.valueOf(request.getPageToken())));
@@ -524,18 +1290,17 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 		if(queryString.size() > 0) {
 			url += "?" + URLEncodedUtils.format(queryString, "UTF-8");
 		}
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				DescribeQueueRequest.Constant.MODULE,
 				DescribeQueueRequest.Constant.FUNCTION);
+		get.setHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
         if(request.getRequestId() != null) {
             get.setHeader("X-GS2-REQUEST-ID", request.getRequestId());
         }
 
 
-		return doRequest(get, DescribeQueueResult.class);
+		return execute(null, DescribeQueueRequest.Constant.FUNCTION, get, DescribeQueueResult.class);
 
 	}
 
@@ -552,14 +1317,12 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public GetQueueResult getQueue(GetQueueRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "";
+	    String url = QUEUE_URL.render(request.getQueueName());
 
 
 
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				GetQueueRequest.Constant.MODULE,
 				GetQueueRequest.Constant.FUNCTION);
         if(request.getRequestId() != null) {
@@ -567,7 +1330,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
 
-		return doRequest(get, GetQueueResult.class);
+		return execute(request.getQueueName(), GetQueueRequest.Constant.FUNCTION, get, GetQueueResult.class);
 
 	}
 
@@ -584,14 +1347,12 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public GetQueueStatusResult getQueueStatus(GetQueueStatusRequest request) {
 
-	    String url = Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "/status";
+	    String url = QUEUE_STATUS_URL.render(request.getQueueName());
 
 
 
-		HttpGet get = createHttpGet(
+		HttpGet get = signedHttpGet(
 				url,
-				credential,
-				ENDPOINT,
 				GetQueueStatusRequest.Constant.MODULE,
 				GetQueueStatusRequest.Constant.FUNCTION);
         if(request.getRequestId() != null) {
@@ -599,7 +1360,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
 
-		return doRequest(get, GetQueueStatusResult.class);
+		return execute(request.getQueueName(), GetQueueStatusRequest.Constant.FUNCTION, get, GetQueueStatusResult.class);
 
 	}
 
@@ -616,12 +1377,22 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
 
 	public RunResult run(RunRequest request) {
 
+		return execute(request.getQueueName(), RunRequest.Constant.FUNCTION, runRequest(request), RunResult.class);
+
+	}
+
+	/**
+	 * run のリクエストを作成します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return 署名済みのリクエスト
+	 */
+	HttpPost runRequest(RunRequest request) {
+
 		ObjectNode body = JsonNodeFactory.instance.objectNode();
 
-		HttpPost post = createHttpPost(
-				Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "",
-				credential,
-				ENDPOINT,
+		HttpPost post = signedHttpPost(
+				QUEUE_URL.render(request.getQueueName()),
 				RunRequest.Constant.MODULE,
 				RunRequest.Constant.FUNCTION,
 				body.toString());
@@ -630,9 +1401,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
         post.setHeader("X-GS2-ACCESS-TOKEN", request.getAccessToken());
-
-		return doRequest(post, RunResult.class);
-
+		return post;
 	}
 
 
@@ -653,10 +1422,8 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         if(request.getNotificationType() != null) body.put("notificationType", request.getNotificationType());
         if(request.getNotificationUrl() != null) body.put("notificationUrl", request.getNotificationUrl());
         if(request.getNotificationGameName() != null) body.put("notificationGameName", request.getNotificationGameName());
-		HttpPut put = createHttpPut(
-				Gs2Constant.ENDPOINT_HOST + "/queue/" + (request.getQueueName() == null || request.getQueueName().equals("") ? "null" : request.getQueueName()) + "",
-				credential,
-				ENDPOINT,
+		HttpPut put = signedHttpPut(
+				QUEUE_URL.render(request.getQueueName()),
 				UpdateQueueRequest.Constant.MODULE,
 				UpdateQueueRequest.Constant.FUNCTION,
 				body.toString());
@@ -665,7 +1432,7 @@ public class Gs2JobQueueClient extends AbstractGs2Client<Gs2JobQueueClient> {
         }
 
 
-		return doRequest(put, UpdateQueueResult.class);
+		return execute(request.getQueueName(), UpdateQueueRequest.Constant.FUNCTION, put, UpdateQueueResult.class);
 
 	}
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import io.gs2.jobQueue.control.*;
+import io.gs2.jobQueue.model.*;
+import io.gs2.jobQueue.util.Paginator;
+
+/**
+ * GS2 JobQueue の一覧取得 API をページネーターとして提供します。<br>
+ * <br>
+ * ページトークンのループを書かずに、{@link Paginator#iterator()} や {@link Paginator#stream()} で
+ * 全件を定数メモリで走査できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class Gs2JobQueuePaginators {
+
+	private Gs2JobQueuePaginators() {
+	}
+
+	/**
+	 * ジョブの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<Job> describeJob(Gs2JobQueueClient client, DescribeJobRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeJobResult result = client.describeJob(new DescribeJobRequest()
+				.withQueueName(request.getQueueName())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * ユーザのジョブの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<Job> describeJobByUserId(Gs2JobQueueClient client, DescribeJobByUserIdRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeJobByUserIdResult result = client.describeJobByUserId(new DescribeJobByUserIdRequest()
+				.withQueueName(request.getQueueName())
+				.withUserId(request.getUserId())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * デッドジョブの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<DeadJob> describeDeadJob(Gs2JobQueueClient client, DescribeDeadJobRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeDeadJobResult result = client.describeDeadJob(new DescribeDeadJobRequest()
+				.withQueueName(request.getQueueName())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * スクリプト名で絞り込んだデッドジョブの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<DeadJob> describeDeadJobByScriptName(Gs2JobQueueClient client, DescribeDeadJobByScriptNameRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeDeadJobByScriptNameResult result = client.describeDeadJobByScriptName(new DescribeDeadJobByScriptNameRequest()
+				.withQueueName(request.getQueueName())
+				.withScriptName(request.getScriptName())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * ユーザIDで絞り込んだデッドジョブの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<DeadJob> describeDeadJobByUserId(Gs2JobQueueClient client, DescribeDeadJobByUserIdRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeDeadJobByUserIdResult result = client.describeDeadJobByUserId(new DescribeDeadJobByUserIdRequest()
+				.withQueueName(request.getQueueName())
+				.withUserId(request.getUserId())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * ジョブの実行結果の一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<JobResult> describeJobResult(Gs2JobQueueClient client, DescribeJobResultRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeJobResultResult result = client.describeJobResult(new DescribeJobResultRequest()
+				.withQueueName(request.getQueueName())
+				.withJobId(request.getJobId())
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+
+	/**
+	 * ジョブキューの一覧を遅延して読み出すページネーターを取得します。<br>
+	 * <br>
+	 * request の pageToken から読み出しを開始し、limit を各ページの取得件数として使用します。<br>
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @return ページネーター
+	 */
+	public static Paginator<Queue> describeQueue(Gs2JobQueueClient client, DescribeQueueRequest request) {
+		return new Paginator<>(request.getPageToken(), pageToken -> {
+			DescribeQueueResult result = client.describeQueue(new DescribeQueueRequest()
+				.withLimit(request.getLimit())
+				.withPageToken(pageToken));
+			return new Paginator.Page<>(result.getItems(), result.getNextPageToken());
+		});
+	}
+}
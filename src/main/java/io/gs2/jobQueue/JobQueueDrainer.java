@@ -0,0 +1,267 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.control.RunByUserIdResult;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.util.StripedExecutor;
+
+/**
+ * 複数ユーザのジョブを並列に実行するドレイナー<br>
+ * <br>
+ * ユーザごとに {@link Gs2JobQueueClient#runByUserId(RunByUserIdRequest)} をキューが空になるまで順番に呼び出し、
+ * 異なるユーザは最大同時実行ユーザ数まで並列に処理します。<br>
+ * 同じユーザのジョブは常に1つずつ実行されるため、ユーザ内の実行順序は保たれます。
+ * ユーザごとの処理は {@link StripedExecutor} でユーザIDごとに直列化するため、
+ * 同じユーザIDが重複して渡された場合や drain を並行して呼び出した場合も、同じユーザの runByUserId が同時に実行されることはありません。
+ * runByUserId は1回ごとに同じレーンへ投入し直すため、同じレーンに振り分けられた別のユーザも交互に処理が進みます。<br>
+ * Executor が処理を受け付けなかったユーザは失敗として記録します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class JobQueueDrainer {
+
+	/** クライアント */
+	private final Gs2JobQueueClient client;
+
+	/** ユーザごとの処理をユーザIDごとに直列に実行する Executor */
+	private final StripedExecutor executor;
+
+	/** 最大同時実行ユーザ数 */
+	private final int maxConcurrentUsers;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client クライアント
+	 * @param executor ユーザごとの処理を実行する Executor
+	 * @param maxConcurrentUsers 最大同時実行ユーザ数
+	 */
+	public JobQueueDrainer(Gs2JobQueueClient client, Executor executor, int maxConcurrentUsers) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		if(maxConcurrentUsers < 1) throw new IllegalArgumentException("maxConcurrentUsers must be positive");
+		this.client = client;
+		this.executor = new StripedExecutor(executor, StripedExecutor.DEFAULT_STRIPES, maxConcurrentUsers);
+		this.maxConcurrentUsers = maxConcurrentUsers;
+	}
+
+	/**
+	 * 指定したユーザのジョブをすべて実行します。<br>
+	 * <br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userIds ユーザID
+	 * @return 実行結果
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public DrainReport drain(String queueName, Stream<String> userIds) throws InterruptedException {
+		return drain(queueName, userIds.iterator(), null);
+	}
+
+	/**
+	 * 指定したユーザのジョブをすべて実行します。<br>
+	 * <br>
+	 * ユーザIDは同時実行数に空きができた時点で1件ずつ読み出されるため、大量のユーザを渡してもメモリを消費しません。<br>
+	 * すべてのユーザの処理が終わるまで呼び出し元をブロックします。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userIds ユーザID
+	 * @param listener ユーザごとの完了通知を受け取るリスナー。null の場合は通知しません
+	 * @return 実行結果
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public DrainReport drain(String queueName, Iterator<String> userIds, Listener listener) throws InterruptedException {
+		DrainReport report = new DrainReport();
+		Semaphore permits = new Semaphore(maxConcurrentUsers);
+		while(userIds.hasNext()) {
+			String userId = userIds.next();
+			permits.acquire();
+			new UserDrain(queueName, userId, listener, report, permits).schedule();
+		}
+		permits.acquire(maxConcurrentUsers);
+		permits.release(maxConcurrentUsers);
+		return report;
+	}
+
+	/**
+	 * 1人のユーザのジョブを、runByUserId を1回ずつレーンに投入しながら実行する処理
+	 */
+	private class UserDrain implements Runnable {
+
+		private final String queueName;
+
+		private final String userId;
+
+		private final Listener listener;
+
+		private final DrainReport report;
+
+		/** 完了したときに返す同時実行ユーザ数の枠 */
+		private final Semaphore permits;
+
+		/** 実行したジョブ数 */
+		private int jobCount;
+
+		UserDrain(String queueName, String userId, Listener listener, DrainReport report, Semaphore permits) {
+			this.queueName = queueName;
+			this.userId = userId;
+			this.listener = listener;
+			this.report = report;
+			this.permits = permits;
+		}
+
+		void schedule() {
+			executor.execute(userId, this, this::finish);
+		}
+
+		@Override
+		public void run() {
+			JobResult item;
+			try {
+				RunByUserIdResult result = client.runByUserId(new RunByUserIdRequest()
+						.withQueueName(queueName)
+						.withUserId(userId));
+				item = result == null ? null : result.getItem();
+			} catch (RuntimeException e) {
+				finish(e);
+				return;
+			}
+			if(item == null) {
+				finish(null);
+				return;
+			}
+			jobCount++;
+			report.executedJobs.incrementAndGet();
+			if(Boolean.TRUE.equals(item.getEndOfJob())) {
+				finish(null);
+				return;
+			}
+			// 同じレーンの他のユーザを待たせないよう、次のジョブはレーンの末尾に投入し直す
+			schedule();
+		}
+
+		private void finish(Throwable error) {
+			try {
+				if(error != null) {
+					report.failed(userId, jobCount, error, listener);
+				} else {
+					report.completedUsers.incrementAndGet();
+					if(listener != null) {
+						listener.onUserCompleted(userId, jobCount);
+					}
+				}
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * ユーザごとの完了通知を受け取るリスナー<br>
+	 * <br>
+	 * 通知はユーザの処理を実行したスレッドから呼び出されます。<br>
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public interface Listener {
+
+		/**
+		 * ユーザのジョブをすべて実行した
+		 *
+		 * @param userId ユーザID
+		 * @param jobCount 実行したジョブ数
+		 */
+		default void onUserCompleted(String userId, int jobCount) {
+		}
+
+		/**
+		 * ユーザのジョブの実行に失敗した
+		 *
+		 * @param userId ユーザID
+		 * @param jobCount 失敗までに実行したジョブ数
+		 * @param error 発生した例外
+		 */
+		default void onUserFailed(String userId, int jobCount, Throwable error) {
+		}
+	}
+
+	/**
+	 * ドレイナーの実行結果
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public static class DrainReport {
+
+		/** 完了したユーザ数 */
+		private final AtomicLong completedUsers = new AtomicLong();
+
+		/** 実行したジョブ数 */
+		private final AtomicLong executedJobs = new AtomicLong();
+
+		/** 失敗したユーザと例外 */
+		private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+		private void failed(String userId, int jobCount, Throwable error, Listener listener) {
+			failures.put(userId, error);
+			if(listener != null) {
+				listener.onUserFailed(userId, jobCount, error);
+			}
+		}
+
+		/**
+		 * 完了したユーザ数を取得
+		 *
+		 * @return 完了したユーザ数
+		 */
+		public long getCompletedUsers() {
+			return completedUsers.get();
+		}
+
+		/**
+		 * 実行したジョブ数を取得
+		 *
+		 * @return 実行したジョブ数
+		 */
+		public long getExecutedJobs() {
+			return executedJobs.get();
+		}
+
+		/**
+		 * 失敗したユーザと例外を取得
+		 *
+		 * @return 失敗したユーザと例外
+		 */
+		public Map<String, Throwable> getFailures() {
+			return Collections.unmodifiableMap(failures);
+		}
+	}
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import io.gs2.exception.BadRequestException;
+import io.gs2.exception.NotFoundException;
+import io.gs2.exception.UnauthorizedException;
+import io.gs2.jobQueue.control.DescribeJobResultRequest;
+import io.gs2.jobQueue.control.DescribeJobResultResult;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+
+/**
+ * ジョブの実行結果を待機するウェイター<br>
+ * <br>
+ * 多数のジョブの待機を1つのスケジューラでまとめて管理し、
+ * ジョブごとに間隔を伸ばしながら describeJobResult をポーリングします。<br>
+ * HTTP リクエストは {@link Gs2JobQueueAsyncClient} で実行するため、
+ * スケジューラのスレッドはポーリングの時刻管理だけを行います。<br>
+ * 非同期クライアントのトランスポートが応答をスレッドで待つ場合、実行中のポーリングは1件ごとに非同期クライアントの実行スレッドを占有します。
+ * 他の API の呼び出しが実行スレッドを待たされないよう、同時に実行するポーリングは最大同時ポーリング数までに制限し、
+ * 超えた分は実行中のポーリングが終わるまで待たせます。<br>
+ * <br>
+ * ジョブは失敗するとリトライされ、試行ごとに {@link JobResult} が記録されます。
+ * どの実行結果で待機を終えるかは完了条件で指定します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class JobResultWaiter implements Closeable {
+
+	/** 最初のポーリング間隔(ミリ秒)の既定値 */
+	public static final long DEFAULT_INITIAL_INTERVAL_MILLIS = 100;
+
+	/** 最大のポーリング間隔(ミリ秒)の既定値 */
+	public static final long DEFAULT_MAX_INTERVAL_MILLIS = 5000;
+
+	/** ポーリング間隔を伸ばす倍率の既定値 */
+	public static final double DEFAULT_MULTIPLIER = 1.5;
+
+	/** 最大同時ポーリング数の既定値 */
+	public static final int DEFAULT_MAX_CONCURRENT_POLLS = 64;
+
+	/**
+	 * 実行結果が1件でも記録されたら完了する条件<br>
+	 * 失敗してリトライされる途中の実行結果でも完了します。<br>
+	 */
+	public static final Predicate<JobResult> ANY_RESULT = result -> true;
+
+	/**
+	 * 成功した、またはユーザのキューが空になった実行結果で完了する条件<br>
+	 * endOfJob が true の場合、そのジョブより後に実行されるジョブが無いためリトライされることもありません。<br>
+	 * 完了条件を指定しない場合の既定値です。<br>
+	 */
+	public static final Predicate<JobResult> FINAL_RESULT = result ->
+			(result.getStatusCode() != null && result.getStatusCode() >= 200 && result.getStatusCode() < 300)
+			|| Boolean.TRUE.equals(result.getEndOfJob());
+
+	/** 非同期クライアント */
+	private final Gs2JobQueueAsyncClient client;
+
+	/** 最初のポーリング間隔(ナノ秒) */
+	private final long initialIntervalNanos;
+
+	/** 最大のポーリング間隔(ナノ秒) */
+	private final long maxIntervalNanos;
+
+	/** ポーリング間隔を伸ばす倍率 */
+	private final double multiplier;
+
+	/** 最大同時ポーリング数 */
+	private final int maxConcurrentPolls;
+
+	/** 実行中のポーリング数 */
+	private final AtomicInteger polling = new AtomicInteger();
+
+	/** ポーリングの時刻になり、実行中のポーリング数に空きが出るのを待っている待機 */
+	private final Queue<Wait> ready = new ConcurrentLinkedQueue<>();
+
+	/** ポーリングの時刻を管理するスケジューラ */
+	private final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("gs2-job-queue-result-waiter"));
+
+	/** 待機中の処理 */
+	private final Set<Wait> waits = ConcurrentHashMap.newKeySet();
+
+	/** 停止済みか */
+	private volatile boolean closed;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 */
+	public JobResultWaiter(Gs2JobQueueAsyncClient client) {
+		this(client, DEFAULT_INITIAL_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS, DEFAULT_MULTIPLIER);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 * @param initialIntervalMillis 最初のポーリング間隔(ミリ秒)
+	 * @param maxIntervalMillis 最大のポーリング間隔(ミリ秒)
+	 * @param multiplier 結果が得られなかった場合にポーリング間隔を伸ばす倍率
+	 */
+	public JobResultWaiter(Gs2JobQueueAsyncClient client, long initialIntervalMillis, long maxIntervalMillis, double multiplier) {
+		this(client, initialIntervalMillis, maxIntervalMillis, multiplier, DEFAULT_MAX_CONCURRENT_POLLS);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 * @param initialIntervalMillis 最初のポーリング間隔(ミリ秒)
+	 * @param maxIntervalMillis 最大のポーリング間隔(ミリ秒)
+	 * @param multiplier 結果が得られなかった場合にポーリング間隔を伸ばす倍率
+	 * @param maxConcurrentPolls 最大同時ポーリング数
+	 */
+	public JobResultWaiter(Gs2JobQueueAsyncClient client, long initialIntervalMillis, long maxIntervalMillis, double multiplier, int maxConcurrentPolls) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(initialIntervalMillis < 1) throw new IllegalArgumentException("initialIntervalMillis must be positive");
+		if(maxIntervalMillis < initialIntervalMillis) throw new IllegalArgumentException("maxIntervalMillis must not be less than initialIntervalMillis");
+		if(multiplier < 1) throw new IllegalArgumentException("multiplier must not be less than 1");
+		if(maxConcurrentPolls < 1) throw new IllegalArgumentException("maxConcurrentPolls must be positive");
+		this.client = client;
+		this.initialIntervalNanos = TimeUnit.MILLISECONDS.toNanos(initialIntervalMillis);
+		this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(maxIntervalMillis);
+		this.multiplier = multiplier;
+		this.maxConcurrentPolls = maxConcurrentPolls;
+	}
+
+	/**
+	 * ジョブが成功するか、リトライされなくなるまで待機します。<br>
+	 * <br>
+	 * 完了条件は {@link #FINAL_RESULT} です。リトライ途中の実行結果で完了させる場合は {@link #ANY_RESULT} を指定してください。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param jobId ジョブID
+	 * @return 実行結果
+	 */
+	public CompletableFuture<JobResult> await(String queueName, String jobId) {
+		return await(queueName, jobId, 0, FINAL_RESULT);
+	}
+
+	/**
+	 * 完了条件を満たす実行結果が記録されるまで待機します。<br>
+	 * <br>
+	 * タイムアウトした場合、Future は {@link TimeoutException} で完了します。<br>
+	 * Future をキャンセルするとポーリングを停止します。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param jobId ジョブID
+	 * @param timeoutMillis タイムアウト(ミリ秒)。0 の場合はタイムアウトしません
+	 * @param completion 完了条件。{@link #ANY_RESULT} / {@link #FINAL_RESULT} など
+	 * @return 完了条件を満たした最新の実行結果
+	 */
+	public CompletableFuture<JobResult> await(String queueName, String jobId, long timeoutMillis, Predicate<JobResult> completion) {
+		if(queueName == null) throw new IllegalArgumentException("queueName is required");
+		if(jobId == null) throw new IllegalArgumentException("jobId is required");
+		if(timeoutMillis < 0) throw new IllegalArgumentException("timeoutMillis must not be negative");
+		if(completion == null) throw new IllegalArgumentException("completion is required");
+		if(closed) throw new IllegalStateException("JobResultWaiter is closed");
+		long deadline = timeoutMillis == 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		Wait wait = new Wait(queueName, jobId, deadline, completion);
+		waits.add(wait);
+		wait.future.whenComplete((result, error) -> waits.remove(wait));
+		schedule(wait, jitter(initialIntervalNanos));
+		return wait.future;
+	}
+
+	/**
+	 * 待機中のジョブ数を取得します。
+	 *
+	 * @return 待機中のジョブ数
+	 */
+	public int getWaitingCount() {
+		return waits.size();
+	}
+
+	/**
+	 * スケジューラを停止します。<br>
+	 * <br>
+	 * 待機中の Future は {@link CancellationException} で完了します。<br>
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		scheduler.shutdownNow();
+		for(Wait wait : waits) {
+			wait.future.completeExceptionally(new CancellationException("JobResultWaiter is closed"));
+		}
+	}
+
+	private void schedule(Wait wait, long delayNanos) {
+		if(wait.deadline != 0) {
+			long remaining = wait.deadline - System.nanoTime();
+			if(remaining <= 0) {
+				wait.future.completeExceptionally(new TimeoutException("job " + wait.jobId + " did not complete in time"));
+				return;
+			}
+			delayNanos = Math.min(delayNanos, remaining);
+		}
+		try {
+			scheduler.schedule(() -> poll(wait), delayNanos, TimeUnit.NANOSECONDS);
+		} catch (RejectedExecutionException e) {
+			wait.future.completeExceptionally(new CancellationException("JobResultWaiter is closed"));
+		}
+	}
+
+	private void poll(Wait wait) {
+		if(wait.future.isDone()) {
+			return;
+		}
+		ready.add(wait);
+		startPolls();
+	}
+
+	/**
+	 * 最大同時ポーリング数まで、待っているポーリングを開始します。
+	 */
+	private void startPolls() {
+		while(!ready.isEmpty()) {
+			int current = polling.get();
+			if(current >= maxConcurrentPolls) {
+				return;
+			}
+			if(!polling.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			Wait wait = ready.poll();
+			if(wait == null || wait.future.isDone()) {
+				polling.decrementAndGet();
+				continue;
+			}
+			send(wait);
+		}
+	}
+
+	private void finishPoll() {
+		polling.decrementAndGet();
+		// 完了の通知は送信したスレッドで同期的に呼ばれることがあるため、再帰しないようスケジューラで再開する
+		try {
+			scheduler.execute(this::startPolls);
+		} catch (RejectedExecutionException ignore) {
+		}
+	}
+
+	private void send(Wait wait) {
+		DescribeJobResultRequest request = new DescribeJobResultRequest()
+				.withQueueName(wait.queueName)
+				.withJobId(wait.jobId)
+				.withPageToken(wait.pageToken);
+		CompletableFuture<DescribeJobResultResult> response;
+		try {
+			response = client.describeJobResult(request);
+		} catch (RuntimeException e) {
+			response = new CompletableFuture<>();
+			response.completeExceptionally(e);
+		}
+		response.whenComplete((result, error) -> {
+			finishPoll();
+			if(error != null) {
+				Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				if(isPermanent(cause)) {
+					wait.future.completeExceptionally(cause);
+				} else {
+					backoff(wait);
+				}
+				return;
+			}
+			JobResult completed = null;
+			List<JobResult> items = result == null ? null : result.getItems();
+			if(items != null) {
+				for(JobResult item : items) {
+					if(wait.completion.test(item)) {
+						completed = item;
+					}
+				}
+			}
+			if(completed != null) {
+				wait.future.complete(completed);
+				return;
+			}
+			if(result != null && result.getNextPageToken() != null) {
+				// 記録済みの実行結果は読み直さずに次のページから再開する
+				wait.pageToken = result.getNextPageToken();
+				wait.intervalNanos = initialIntervalNanos;
+				schedule(wait, 0);
+				return;
+			}
+			backoff(wait);
+		});
+	}
+
+	private void backoff(Wait wait) {
+		long delay = wait.intervalNanos;
+		wait.intervalNanos = Math.min(maxIntervalNanos, (long) (delay * multiplier));
+		schedule(wait, jitter(delay));
+	}
+
+	private static long jitter(long delayNanos) {
+		// 同時に登録されたジョブのポーリングが重ならないように ±10% ずらす
+		long range = delayNanos / 10;
+		return range == 0 ? delayNanos : delayNanos - range + ThreadLocalRandom.current().nextLong(range * 2);
+	}
+
+	private static boolean isPermanent(Throwable error) {
+		return error instanceof BadRequestException
+				|| error instanceof UnauthorizedException
+				|| error instanceof NotFoundException;
+	}
+
+	/**
+	 * 1つのジョブの待機
+	 */
+	private class Wait {
+
+		final String queueName;
+
+		final String jobId;
+
+		final long deadline;
+
+		final Predicate<JobResult> completion;
+
+		final CompletableFuture<JobResult> future = new CompletableFuture<>();
+
+		volatile String pageToken;
+
+		volatile long intervalNanos = initialIntervalNanos;
+
+		Wait(String queueName, String jobId, long deadline, Predicate<JobResult> completion) {
+			this.queueName = queueName;
+			this.jobId = jobId;
+			this.deadline = deadline;
+			this.completion = completion;
+		}
+	}
+
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.gs2.exception.ServiceUnavailableException;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.limit.LimitExceededException;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+
+/**
+ * ユーザごとに登録順を保ってジョブを送信するパイプライン<br>
+ * <br>
+ * (ジョブキューの名前, ユーザID) ごとに送信中の push を最大1つに保ち、
+ * 送信中に受け付けたジョブは応答を待つ間に溜めておいて、応答を受け取った時点で最大バッチサイズまで1回の push にまとめて送信します。<br>
+ * push にはサーバー側で順序を検証する仕組みが無いため、同じユーザの push を複数同時に送信すると到着順が入れ替わる可能性があります。
+ * そのため同時送信数は増やさず、1往復で送るジョブ数を増やすことでスループットを上げます。
+ * 負荷の高いユーザほど1回の push が大きくなるため、1往復に1件ずつ送信する場合のように往復時間で頭打ちになりません。<br>
+ * 異なるユーザのジョブは互いを待たずに並行して送信します。<br>
+ * <br>
+ * 送信に失敗した場合、{@link #isRetryable(Throwable)} が true を返すエラーであれば
+ * 後続のジョブを送信する前に同じバッチを再送します。
+ * 再送できないエラーの場合はそのバッチと、その時点で同じユーザの後ろに並んでいたジョブをすべて同じ例外で失敗させます。
+ * 先行するジョブが登録されなかったのに後続のジョブだけが登録されることはありません。<br>
+ * 各ジョブの Future は {@link PushResult#getItems()} の同じ位置の {@link Job} で完了します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class OrderedPushPipeline implements Closeable {
+
+	/** 最大バッチサイズの既定値 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = PushBatcher.DEFAULT_MAX_BATCH_SIZE;
+
+	/** 最大再送回数の既定値 */
+	public static final int DEFAULT_MAX_RETRY = 3;
+
+	/** 再送までの待機時間(ミリ秒)の既定値 */
+	public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100;
+
+	/** 非同期クライアント */
+	private final Gs2JobQueueAsyncClient client;
+
+	/** 1回の push で送信する最大ジョブ数 */
+	private final int maxBatchSize;
+
+	/** 最大再送回数 */
+	private final int maxRetry;
+
+	/** 再送までの待機時間(ミリ秒)。再送のたびに倍にする */
+	private final long retryBackoffMillis;
+
+	/** 送信待ち、または送信中のジョブがあるユーザ */
+	private final ConcurrentHashMap<LaneKey, Lane> lanes = new ConcurrentHashMap<>();
+
+	/** 再送を行うスケジューラ */
+	private final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("gs2-job-queue-ordered-push"));
+
+	/** 停止済みか */
+	private volatile boolean closed;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 */
+	public OrderedPushPipeline(Gs2JobQueueAsyncClient client) {
+		this(client, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_RETRY, DEFAULT_RETRY_BACKOFF_MILLIS);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 * @param maxBatchSize 1回の push で送信する最大ジョブ数
+	 * @param maxRetry 1つのバッチを再送する最大回数
+	 * @param retryBackoffMillis 最初の再送までの待機時間(ミリ秒)。再送のたびに倍にします
+	 */
+	public OrderedPushPipeline(Gs2JobQueueAsyncClient client, int maxBatchSize, int maxRetry, long retryBackoffMillis) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be positive");
+		if(maxRetry < 0) throw new IllegalArgumentException("maxRetry must not be negative");
+		if(retryBackoffMillis < 0) throw new IllegalArgumentException("retryBackoffMillis must not be negative");
+		this.client = client;
+		this.maxBatchSize = maxBatchSize;
+		this.maxRetry = maxRetry;
+		this.retryBackoffMillis = retryBackoffMillis;
+	}
+
+	/**
+	 * ジョブを登録します。<br>
+	 * <br>
+	 * 同じジョブキュー・ユーザに対して呼び出した順にサーバーへ登録されます。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param job 追加するジョブ
+	 * @return 登録されたジョブ
+	 */
+	public CompletableFuture<Job> push(String queueName, String userId, PushJob job) {
+		if(closed) throw new IllegalStateException("OrderedPushPipeline is closed");
+		CompletableFuture<Job> future = new CompletableFuture<>();
+		Entry entry = new Entry(job, future);
+		Lane[] idle = new Lane[1];
+		lanes.compute(new LaneKey(queueName, userId), (key, lane) -> {
+			if(lane == null) {
+				lane = new Lane(key);
+			}
+			lane.pending.add(entry);
+			if(!lane.sending) {
+				lane.sending = true;
+				idle[0] = lane;
+			}
+			return lane;
+		});
+		if(idle[0] != null) {
+			sendNext(idle[0]);
+		}
+		return future;
+	}
+
+	/**
+	 * 送信待ち、または送信中のジョブがあるユーザの数を取得
+	 *
+	 * @return ユーザの数
+	 */
+	public int getActiveUsers() {
+		return lanes.size();
+	}
+
+	/**
+	 * 新しいジョブの受け付けを停止します。<br>
+	 * <br>
+	 * 受け付け済みのジョブは引き続き送信しますが、停止後に失敗したバッチは再送しません。<br>
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		scheduler.shutdown();
+	}
+
+	/**
+	 * 再送してよいエラーか<br>
+	 * <br>
+	 * push は冪等ではないため、サーバーが処理していないことが確実なエラーだけを再送します。
+	 * 既定ではサービスが利用できない場合と、クライアント側のリミッターが送信を拒否した場合に再送します。<br>
+	 *
+	 * @param error 発生した例外
+	 * @return 再送してよい場合は true
+	 */
+	protected boolean isRetryable(Throwable error) {
+		return error instanceof ServiceUnavailableException
+				|| error instanceof LimitExceededException;
+	}
+
+	private void sendNext(Lane lane) {
+		List<Entry> batch = new ArrayList<>();
+		lanes.compute(lane.key, (key, current) -> {
+			while(batch.size() < maxBatchSize && !lane.pending.isEmpty()) {
+				batch.add(lane.pending.poll());
+			}
+			if(batch.isEmpty()) {
+				lane.sending = false;
+				return null;
+			}
+			return lane;
+		});
+		if(!batch.isEmpty()) {
+			send(lane, batch, 0);
+		}
+	}
+
+	private void send(Lane lane, List<Entry> batch, int attempt) {
+		List<PushJob> jobs = new ArrayList<>(batch.size());
+		for(Entry entry : batch) {
+			jobs.add(entry.job);
+		}
+		PushRequest request = new PushRequest()
+				.withQueueName(lane.key.queueName)
+				.withUserId(lane.key.userId)
+				.withJobs(jobs);
+		CompletableFuture<PushResult> result;
+		try {
+			result = client.push(request);
+		} catch (RuntimeException e) {
+			result = new CompletableFuture<>();
+			result.completeExceptionally(e);
+		}
+		result.whenComplete((pushResult, error) -> {
+			if(error != null) {
+				Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+				if(attempt < maxRetry && isRetryable(cause) && retry(lane, batch, attempt + 1)) {
+					return;
+				}
+				fail(lane, batch, cause);
+				return;
+			}
+			List<Job> items = pushResult == null ? null : pushResult.getItems();
+			if(items == null || items.size() != batch.size()) {
+				fail(lane, batch, new IllegalStateException(
+						"push returned " + (items == null ? 0 : items.size()) + " jobs for " + batch.size() + " requested"));
+				return;
+			}
+			for(int i = 0; i < items.size(); i++) {
+				batch.get(i).future.complete(items.get(i));
+			}
+			sendNext(lane);
+		});
+	}
+
+	private boolean retry(Lane lane, List<Entry> batch, int attempt) {
+		try {
+			scheduler.schedule(() -> send(lane, batch, attempt), retryBackoffMillis << (attempt - 1), TimeUnit.MILLISECONDS);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private void fail(Lane lane, List<Entry> batch, Throwable error) {
+		List<Entry> behind = new ArrayList<>();
+		lanes.compute(lane.key, (key, current) -> {
+			behind.addAll(lane.pending);
+			lane.pending.clear();
+			lane.sending = false;
+			return null;
+		});
+		for(Entry entry : batch) {
+			entry.future.completeExceptionally(error);
+		}
+		for(Entry entry : behind) {
+			entry.future.completeExceptionally(error);
+		}
+	}
+
+	private static class Entry {
+
+		final PushJob job;
+
+		final CompletableFuture<Job> future;
+
+		Entry(PushJob job, CompletableFuture<Job> future) {
+			this.job = job;
+			this.future = future;
+		}
+	}
+
+	private static class Lane {
+
+		final LaneKey key;
+
+		/** 送信待ちのジョブ。lanes.compute の中でだけ操作する */
+		final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+		/** push を送信中か。lanes.compute の中でだけ操作する */
+		boolean sending;
+
+		Lane(LaneKey key) {
+			this.key = key;
+		}
+	}
+
+	private static class LaneKey {
+
+		final String queueName;
+
+		final String userId;
+
+		LaneKey(String queueName, String userId) {
+			this.queueName = queueName;
+			this.userId = userId;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(!(o instanceof LaneKey)) return false;
+			LaneKey other = (LaneKey) o;
+			return (queueName == null ? other.queueName == null : queueName.equals(other.queueName))
+					&& (userId == null ? other.userId == null : userId.equals(other.userId));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (queueName == null ? 0 : queueName.hashCode()) + (userId == null ? 0 : userId.hashCode());
+		}
+	}
+
+}
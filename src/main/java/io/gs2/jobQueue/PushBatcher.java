@@ -0,0 +1,298 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+import io.gs2.jobQueue.util.StripedExecutor;
+
+/**
+ * ジョブの登録をまとめて送信するバッチャー<br>
+ * <br>
+ * 個別に受け付けた {@link PushJob} を (ジョブキューの名前, ユーザID) ごとに集約し、
+ * 件数が最大バッチサイズに達するか、最初のジョブを受け付けてから最大待機時間が経過した時点で
+ * 1回の push にまとめて送信します。<br>
+ * 各ジョブの Future は {@link PushResult#getItems()} の同じ位置の {@link Job} で完了します。<br>
+ * <br>
+ * 確定したバッチは {@link StripedExecutor} のレーンで、前の push の完了を待ってから確定した順に送信します。
+ * 同じ (ジョブキューの名前, ユーザID) の push が同時に送信されることはなく、ジョブは受け付けた順に登録されます。
+ * 同じレーンに振り分けられた別のキーのバッチも互いに1つずつ送信されます。<br>
+ * 1つのレーンで送信待ちのバッチが {@link #MAX_QUEUED_BATCHES_PER_LANE} を超えた場合、
+ * そのバッチのジョブの Future は {@link java.util.concurrent.RejectedExecutionException} で完了します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class PushBatcher implements Closeable {
+
+	/** 最大バッチサイズの既定値 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+	/** 最大待機時間(ミリ秒)の既定値 */
+	public static final long DEFAULT_MAX_LINGER_MILLIS = 10;
+
+	/** 1つのレーンで送信待ちにできる最大バッチ数 */
+	public static final int MAX_QUEUED_BATCHES_PER_LANE = 1024;
+
+	/** 非同期クライアント */
+	private final Gs2JobQueueAsyncClient client;
+
+	/** 最大バッチサイズ */
+	private final int maxBatchSize;
+
+	/** 最大待機時間(ミリ秒) */
+	private final long maxLingerMillis;
+
+	/** ジョブを受け付けているバッチ */
+	private final ConcurrentHashMap<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+	/** 確定したバッチをキーごとに1つずつ送信する Executor */
+	private final StripedExecutor sender;
+
+	/** レーンごとの確定したバッチ。確定した順に並ぶ */
+	private final ConcurrentLinkedQueue<Batch>[] ready;
+
+	/** 待機時間経過による送信を行うスケジューラ */
+	private final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("gs2-job-queue-push-batcher"));
+
+	/** 停止済みか */
+	private volatile boolean closed;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 */
+	public PushBatcher(Gs2JobQueueAsyncClient client) {
+		this(client, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_LINGER_MILLIS);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param client 非同期クライアント
+	 * @param maxBatchSize 1回の push で送信する最大ジョブ数
+	 * @param maxLingerMillis 最初のジョブを受け付けてから送信するまでの最大待機時間(ミリ秒)
+	 */
+	public PushBatcher(Gs2JobQueueAsyncClient client, int maxBatchSize, long maxLingerMillis) {
+		if(client == null) throw new IllegalArgumentException("client is required");
+		if(maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be positive");
+		if(maxLingerMillis < 0) throw new IllegalArgumentException("maxLingerMillis must not be negative");
+		this.client = client;
+		this.maxBatchSize = maxBatchSize;
+		this.maxLingerMillis = maxLingerMillis;
+		this.sender = new StripedExecutor(client.getExecutor(), StripedExecutor.DEFAULT_STRIPES, MAX_QUEUED_BATCHES_PER_LANE);
+		this.ready = newReadyQueues(sender.getStripes());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ConcurrentLinkedQueue<Batch>[] newReadyQueues(int stripes) {
+		ConcurrentLinkedQueue<Batch>[] queues = new ConcurrentLinkedQueue[stripes];
+		for(int i = 0; i < stripes; i++) {
+			queues[i] = new ConcurrentLinkedQueue<>();
+		}
+		return queues;
+	}
+
+	/**
+	 * ジョブを登録します。<br>
+	 * <br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param job 追加するジョブ
+	 * @return 登録されたジョブ
+	 */
+	public CompletableFuture<Job> push(String queueName, String userId, PushJob job) {
+		if(closed) throw new IllegalStateException("PushBatcher is closed");
+		CompletableFuture<Job> future = new CompletableFuture<>();
+		BatchKey key = new BatchKey(queueName, userId);
+		Batch[] full = new Batch[1];
+		batches.compute(key, (k, batch) -> {
+			if(batch == null) {
+				batch = new Batch(k);
+				if(maxBatchSize > 1) {
+					Batch lingering = batch;
+					batch.timer = scheduler.schedule(() -> flush(lingering), maxLingerMillis, TimeUnit.MILLISECONDS);
+				}
+			}
+			batch.jobs.add(job);
+			batch.futures.add(future);
+			if(batch.jobs.size() >= maxBatchSize) {
+				full[0] = batch;
+				seal(batch);
+				return null;
+			}
+			return batch;
+		});
+		if(full[0] != null) {
+			if(full[0].timer != null) {
+				full[0].timer.cancel(false);
+			}
+			dispatch(full[0].key);
+		}
+		return future;
+	}
+
+	/**
+	 * 送信待ちのジョブをすべて送信します。<br>
+	 * <br>
+	 */
+	public void flush() {
+		for(Batch batch : batches.values()) {
+			flush(batch);
+		}
+	}
+
+	/**
+	 * 送信待ちのジョブを送信してスケジューラを停止します。<br>
+	 * <br>
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		flush();
+		scheduler.shutdown();
+	}
+
+	private void flush(Batch batch) {
+		boolean[] sealed = new boolean[1];
+		batches.computeIfPresent(batch.key, (k, current) -> {
+			if(current != batch) {
+				return current;
+			}
+			sealed[0] = true;
+			seal(current);
+			return null;
+		});
+		if(sealed[0]) {
+			if(batch.timer != null) {
+				batch.timer.cancel(false);
+			}
+			dispatch(batch.key);
+		}
+	}
+
+	/**
+	 * バッチを確定し、レーンの送信待ちに加えます。<br>
+	 * batches の compute の中で呼び出すため、同じキーのバッチは確定した順に並びます。
+	 */
+	private void seal(Batch batch) {
+		ready[sender.stripeOf(batch.key)].add(batch);
+	}
+
+	/**
+	 * レーンの送信待ちのバッチを1つ送信するタスクを投入します。<br>
+	 * 確定したバッチ1つにつき1回呼び出すため、タスクを投入した順に関わらず、バッチは確定した順に送信されます。
+	 */
+	private void dispatch(BatchKey key) {
+		ConcurrentLinkedQueue<Batch> queue = ready[sender.stripeOf(key)];
+		sender.executeAsync(key, () -> send(queue.poll()), e -> fail(queue.poll(), e));
+	}
+
+	private static void fail(Batch batch, Throwable error) {
+		for(CompletableFuture<Job> future : batch.futures) {
+			future.completeExceptionally(error);
+		}
+	}
+
+	private CompletableFuture<?> send(Batch batch) {
+		PushRequest request = new PushRequest()
+				.withQueueName(batch.key.queueName)
+				.withUserId(batch.key.userId)
+				.withJobs(batch.jobs);
+		CompletableFuture<PushResult> result;
+		try {
+			result = client.push(request);
+		} catch (RuntimeException e) {
+			result = new CompletableFuture<>();
+			result.completeExceptionally(e);
+		}
+		return result.whenComplete((pushResult, error) -> {
+			if(error != null) {
+				fail(batch, error);
+				return;
+			}
+			List<Job> items = pushResult == null ? null : pushResult.getItems();
+			if(items == null || items.size() != batch.futures.size()) {
+				fail(batch, new IllegalStateException(
+						"push returned " + (items == null ? 0 : items.size()) + " jobs for " + batch.futures.size() + " requested"));
+				return;
+			}
+			for(int i = 0; i < items.size(); i++) {
+				batch.futures.get(i).complete(items.get(i));
+			}
+		});
+	}
+
+	private static class Batch {
+
+		final BatchKey key;
+
+		final List<PushJob> jobs = new ArrayList<>();
+
+		final List<CompletableFuture<Job>> futures = new ArrayList<>();
+
+		ScheduledFuture<?> timer;
+
+		Batch(BatchKey key) {
+			this.key = key;
+		}
+	}
+
+	private static class BatchKey {
+
+		final String queueName;
+
+		final String userId;
+
+		BatchKey(String queueName, String userId) {
+			this.queueName = queueName;
+			this.userId = userId;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(!(o instanceof BatchKey)) return false;
+			BatchKey other = (BatchKey) o;
+			return (queueName == null ? other.queueName == null : queueName.equals(other.queueName))
+					&& (userId == null ? other.userId == null : userId.equals(other.userId));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (queueName == null ? 0 : queueName.hashCode()) + (userId == null ? 0 : userId.hashCode());
+		}
+	}
+
+}
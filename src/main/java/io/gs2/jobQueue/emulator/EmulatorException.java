@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.emulator;
+
+/**
+ * エミュレーターがエラーレスポンスとして返す例外
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@SuppressWarnings("serial")
+public class EmulatorException extends RuntimeException {
+
+	/** ステータスコード */
+	private final int statusCode;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param statusCode ステータスコード
+	 * @param message メッセージ
+	 */
+	public EmulatorException(int statusCode, String message) {
+		super(message);
+		this.statusCode = statusCode;
+	}
+
+	/**
+	 * ステータスコードを取得
+	 *
+	 * @return ステータスコード
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+}
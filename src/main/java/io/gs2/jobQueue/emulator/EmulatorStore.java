@@ -0,0 +1,558 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.emulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.model.Queue;
+import io.gs2.jobQueue.util.Paginator.Page;
+
+/**
+ * エミュレーターのインメモリストア<br>
+ * <br>
+ * ジョブキューごとにユーザ単位のジョブの列を持ち、同じユーザの操作だけを直列化します。<br>
+ * ジョブ・デッドジョブの一覧はジョブIDの順に並ぶ並行スキップリストで保持し、ページトークンには最後に返したジョブIDを使います。<br>
+ * 長時間の負荷試験でもメモリを消費し続けないよう、ジョブが無くなったユーザの列は破棄し、
+ * ジョブの実行結果はジョブキューごとに最大保持数を超えた分を古いジョブから破棄します。<br>
+ * HTTP を介さずにこのクラスを直接呼び出すこともできます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class EmulatorStore {
+
+	/** 一覧取得の件数の既定値 */
+	public static final int DEFAULT_LIMIT = 30;
+
+	/** 実行結果を保持するジョブ数の既定値 */
+	public static final int DEFAULT_MAX_RETAINED_RESULTS = 100000;
+
+	/** ジョブキューの状態 */
+	private final ConcurrentHashMap<String, QueueState> queues = new ConcurrentHashMap<>();
+
+	/** ジョブIDの採番 */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/** スクリプトを実行する処理 */
+	private final ScriptRunner scriptRunner;
+
+	/** オーナーID */
+	private final String ownerId;
+
+	/** ジョブキューごとに実行結果を保持する最大のジョブ数 */
+	private final int maxRetainedResults;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param scriptRunner スクリプトを実行する処理
+	 */
+	public EmulatorStore(ScriptRunner scriptRunner) {
+		this(scriptRunner, "emulator");
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param scriptRunner スクリプトを実行する処理
+	 * @param ownerId ジョブキューのオーナーID
+	 */
+	public EmulatorStore(ScriptRunner scriptRunner, String ownerId) {
+		this(scriptRunner, ownerId, DEFAULT_MAX_RETAINED_RESULTS);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param scriptRunner スクリプトを実行する処理
+	 * @param ownerId ジョブキューのオーナーID
+	 * @param maxRetainedResults ジョブキューごとに実行結果を保持する最大のジョブ数
+	 */
+	public EmulatorStore(ScriptRunner scriptRunner, String ownerId, int maxRetainedResults) {
+		if(scriptRunner == null) throw new IllegalArgumentException("scriptRunner is required");
+		if(maxRetainedResults < 1) throw new IllegalArgumentException("maxRetainedResults must be positive");
+		this.scriptRunner = scriptRunner;
+		this.ownerId = ownerId;
+		this.maxRetainedResults = maxRetainedResults;
+	}
+
+	/**
+	 * すべてのジョブキューを削除します。
+	 */
+	public void reset() {
+		queues.clear();
+	}
+
+	/**
+	 * ジョブキューを作成します。
+	 *
+	 * @param name ジョブキューの名前
+	 * @param description 説明文
+	 * @param notificationType 通知方法
+	 * @param notificationUrl 通知先URL
+	 * @param notificationGameName 通知先ゲーム名
+	 * @return 作成したジョブキュー
+	 */
+	public Queue createQueue(String name, String description, String notificationType, String notificationUrl, String notificationGameName) {
+		if(name == null || name.isEmpty()) throw new EmulatorException(400, "name is required");
+		int now = now();
+		Queue queue = new Queue()
+				.withQueueId("grn:gs2:emulator:" + ownerId + ":job-queue:" + name)
+				.withOwnerId(ownerId)
+				.withName(name)
+				.withDescription(description)
+				.withNotificationType(notificationType)
+				.withNotificationUrl(notificationUrl)
+				.withNotificationGameName(notificationGameName)
+				.withCreateAt(now)
+				.withUpdateAt(now);
+		if(queues.putIfAbsent(name, new QueueState(queue)) != null) {
+			throw new EmulatorException(409, "queue already exists: " + name);
+		}
+		return copy(queue);
+	}
+
+	/**
+	 * ジョブキューを取得します。
+	 *
+	 * @param name ジョブキューの名前
+	 * @return ジョブキュー
+	 */
+	public Queue getQueue(String name) {
+		QueueState state = queue(name);
+		synchronized(state) {
+			return copy(state.queue);
+		}
+	}
+
+	/**
+	 * ジョブキューの一覧を取得します。
+	 *
+	 * @param pageToken データの取得を開始する位置を指定するトークン
+	 * @param limit データの取得件数
+	 * @return ジョブキューの一覧
+	 */
+	public Page<Queue> describeQueues(String pageToken, Integer limit) {
+		NavigableMap<String, QueueState> sorted = new ConcurrentSkipListMap<>(queues);
+		Page<QueueState> page = page(sorted, pageToken, limit, state -> true);
+		List<Queue> items = new ArrayList<>(page.getItems().size());
+		for(QueueState state : page.getItems()) {
+			synchronized(state) {
+				items.add(copy(state.queue));
+			}
+		}
+		return new Page<>(items, page.getNextPageToken());
+	}
+
+	/**
+	 * ジョブキューを更新します。
+	 *
+	 * @param name ジョブキューの名前
+	 * @param description 説明文
+	 * @param notificationType 通知方法
+	 * @param notificationUrl 通知先URL
+	 * @param notificationGameName 通知先ゲーム名
+	 * @return 更新したジョブキュー
+	 */
+	public Queue updateQueue(String name, String description, String notificationType, String notificationUrl, String notificationGameName) {
+		QueueState state = queue(name);
+		synchronized(state) {
+			if(description != null) state.queue.setDescription(description);
+			if(notificationType != null) state.queue.setNotificationType(notificationType);
+			if(notificationUrl != null) state.queue.setNotificationUrl(notificationUrl);
+			if(notificationGameName != null) state.queue.setNotificationGameName(notificationGameName);
+			state.queue.setUpdateAt(now());
+			return copy(state.queue);
+		}
+	}
+
+	/**
+	 * ジョブキューを削除します。
+	 *
+	 * @param name ジョブキューの名前
+	 */
+	public void deleteQueue(String name) {
+		if(queues.remove(name) == null) {
+			throw new EmulatorException(404, "queue not found: " + name);
+		}
+	}
+
+	/**
+	 * ジョブキューの状態を取得します。
+	 *
+	 * @param name ジョブキューの名前
+	 * @return 状態
+	 */
+	public String getQueueStatus(String name) {
+		return queue(name).jobs.isEmpty() ? "IDLE" : "ACTIVE";
+	}
+
+	/**
+	 * ジョブを登録します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param pushJobs 追加するジョブ
+	 * @return 登録したジョブ
+	 */
+	public List<Job> push(String queueName, String userId, List<PushJob> pushJobs) {
+		QueueState state = queue(queueName);
+		if(pushJobs == null || pushJobs.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Job> items = new ArrayList<>(pushJobs.size());
+		int now = now();
+		while(true) {
+			UserQueue user = state.users.computeIfAbsent(userId, key -> new UserQueue());
+			synchronized(user) {
+				if(user.removed) {
+					// 空になって破棄された列を掴んだので、作り直された列に登録し直す
+					continue;
+				}
+				push(state, user, userId, pushJobs, now, items);
+				return items;
+			}
+		}
+	}
+
+	private void push(QueueState state, UserQueue user, String userId, List<PushJob> pushJobs, int now, List<Job> items) {
+		for(PushJob pushJob : pushJobs) {
+			Job job = new Job()
+					.withJobId(nextJobId())
+					.withQueueId(state.queue.getQueueId())
+					.withUserId(userId)
+					.withScriptName(pushJob.getScriptName())
+					.withArgs(pushJob.getArgs())
+					.withCurrentRetry(0)
+					.withMaxRetry(pushJob.getMaxRetry() == null ? 0 : pushJob.getMaxRetry())
+					.withCreateAt(now);
+			user.jobs.addLast(job);
+			state.jobs.put(job.getJobId(), job);
+			items.add(copy(job));
+		}
+	}
+
+	/**
+	 * ユーザの先頭のジョブを実行します。<br>
+	 * <br>
+	 * 失敗したジョブはリトライ回数を加算して先頭に残り、最大リトライ回数を超えるとデッドジョブに移ります。<br>
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @return 実行結果。実行するジョブが無い場合は null
+	 */
+	public JobResult runByUserId(String queueName, String userId) {
+		QueueState state = queue(queueName);
+		UserQueue user = state.users.get(userId);
+		if(user == null) {
+			return null;
+		}
+		synchronized(user) {
+			Job job = user.jobs.peekFirst();
+			if(job == null) {
+				return null;
+			}
+			JobResult executed = scriptRunner.run(copy(job));
+			int statusCode = executed == null || executed.getStatusCode() == null ? 500 : executed.getStatusCode();
+			boolean succeeded = statusCode >= 200 && statusCode < 300;
+			if(!succeeded) {
+				job.setCurrentRetry(job.getCurrentRetry() + 1);
+			}
+			if(succeeded || job.getCurrentRetry() > job.getMaxRetry()) {
+				user.jobs.pollFirst();
+				state.jobs.remove(job.getJobId());
+				if(!succeeded) {
+					state.deadJobs.put(job.getJobId(), new DeadJob()
+							.withJobId(job.getJobId())
+							.withQueueId(job.getQueueId())
+							.withUserId(job.getUserId())
+							.withScriptName(job.getScriptName())
+							.withArgs(job.getArgs())
+							.withCreateAt(now()));
+				}
+			}
+			if(user.jobs.isEmpty()) {
+				user.removed = true;
+				state.users.remove(userId, user);
+			}
+			JobResult result = new JobResult()
+					.withJobId(job.getJobId())
+					.withQueueId(job.getQueueId())
+					.withStatusCode(statusCode)
+					.withResult(executed == null ? null : executed.getResult())
+					.withEndOfJob(user.jobs.isEmpty())
+					.withCreateAt(now());
+			retainResult(state, job.getJobId(), result);
+			return result;
+		}
+	}
+
+	/**
+	 * ジョブの一覧を取得します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param pageToken データの取得を開始する位置を指定するトークン
+	 * @param limit データの取得件数
+	 * @return ジョブの一覧
+	 */
+	public Page<Job> describeJobs(String queueName, String pageToken, Integer limit) {
+		return copyJobs(page(queue(queueName).jobs, pageToken, limit, job -> true));
+	}
+
+	/**
+	 * ユーザのジョブの一覧を取得します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param userId ユーザID
+	 * @param pageToken データの取得を開始する位置を指定するトークン
+	 * @param limit データの取得件数
+	 * @return ジョブの一覧
+	 */
+	public Page<Job> describeJobsByUserId(String queueName, String userId, String pageToken, Integer limit) {
+		QueueState state = queue(queueName);
+		UserQueue user = state.users.get(userId);
+		if(user == null) {
+			return new Page<>(null, null);
+		}
+		NavigableMap<String, Job> jobs = new ConcurrentSkipListMap<>();
+		synchronized(user) {
+			for(Job job : user.jobs) {
+				jobs.put(job.getJobId(), copy(job));
+			}
+		}
+		return page(jobs, pageToken, limit, job -> true);
+	}
+
+	/**
+	 * デッドジョブの一覧を取得します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param scriptName 絞り込むスクリプト名。null の場合は絞り込みません
+	 * @param userId 絞り込むユーザID。null の場合は絞り込みません
+	 * @param pageToken データの取得を開始する位置を指定するトークン
+	 * @param limit データの取得件数
+	 * @return デッドジョブの一覧
+	 */
+	public Page<DeadJob> describeDeadJobs(String queueName, String scriptName, String userId, String pageToken, Integer limit) {
+		return page(queue(queueName).deadJobs, pageToken, limit, deadJob ->
+				(scriptName == null || scriptName.equals(deadJob.getScriptName()))
+				&& (userId == null || userId.equals(deadJob.getUserId())));
+	}
+
+	/**
+	 * デッドジョブを取得します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param jobId ジョブID
+	 * @param userId ユーザID
+	 * @return デッドジョブ
+	 */
+	public DeadJob getDeadJob(String queueName, String jobId, String userId) {
+		DeadJob deadJob = queue(queueName).deadJobs.get(jobId);
+		if(deadJob == null || !deadJob.getUserId().equals(userId)) {
+			throw new EmulatorException(404, "dead job not found: " + jobId);
+		}
+		return deadJob;
+	}
+
+	/**
+	 * デッドジョブを削除します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param jobId ジョブID
+	 * @param userId ユーザID
+	 */
+	public void deleteDeadJob(String queueName, String jobId, String userId) {
+		QueueState state = queue(queueName);
+		DeadJob deadJob = state.deadJobs.get(jobId);
+		if(deadJob == null || !deadJob.getUserId().equals(userId) || !state.deadJobs.remove(jobId, deadJob)) {
+			throw new EmulatorException(404, "dead job not found: " + jobId);
+		}
+	}
+
+	/**
+	 * ジョブの実行結果の一覧を取得します。
+	 *
+	 * @param queueName ジョブキューの名前
+	 * @param jobId ジョブID
+	 * @param pageToken データの取得を開始する位置を指定するトークン
+	 * @param limit データの取得件数
+	 * @return 実行結果の一覧
+	 */
+	public Page<JobResult> describeJobResults(String queueName, String jobId, String pageToken, Integer limit) {
+		int offset;
+		try {
+			offset = pageToken == null || pageToken.isEmpty() ? 0 : Integer.parseInt(pageToken);
+		} catch (NumberFormatException e) {
+			throw new EmulatorException(400, "invalid pageToken: " + pageToken);
+		}
+		if(offset < 0) {
+			throw new EmulatorException(400, "invalid pageToken: " + pageToken);
+		}
+		List<JobResult> results = queue(queueName).results.get(jobId);
+		if(results == null) {
+			return new Page<>(null, null);
+		}
+		int size = limit == null ? DEFAULT_LIMIT : limit;
+		List<JobResult> snapshot = new ArrayList<>(results);
+		int end = Math.min(snapshot.size(), offset + size);
+		List<JobResult> items = offset >= end ? Collections.<JobResult>emptyList() : snapshot.subList(offset, end);
+		return new Page<>(items, end < snapshot.size() ? String.valueOf(end) : null);
+	}
+
+	private void retainResult(QueueState state, String jobId, JobResult result) {
+		boolean[] created = new boolean[1];
+		state.results.computeIfAbsent(jobId, key -> {
+			created[0] = true;
+			return new CopyOnWriteArrayList<>();
+		}).add(result);
+		if(!created[0]) {
+			return;
+		}
+		state.resultOrder.add(jobId);
+		if(state.retainedResults.incrementAndGet() > maxRetainedResults) {
+			String oldest = state.resultOrder.poll();
+			if(oldest != null) {
+				state.results.remove(oldest);
+				state.retainedResults.decrementAndGet();
+			}
+		}
+	}
+
+	private QueueState queue(String name) {
+		QueueState state = name == null ? null : queues.get(name);
+		if(state == null) {
+			throw new EmulatorException(404, "queue not found: " + name);
+		}
+		return state;
+	}
+
+	private String nextJobId() {
+		String hex = Long.toHexString(sequence.incrementAndGet());
+		StringBuilder jobId = new StringBuilder(16);
+		for(int i = hex.length(); i < 16; i++) {
+			jobId.append('0');
+		}
+		return jobId.append(hex).toString();
+	}
+
+	private static <T> Page<T> page(NavigableMap<String, T> source, String pageToken, Integer limit, Predicate<T> filter) {
+		int size = limit == null ? DEFAULT_LIMIT : limit;
+		NavigableMap<String, T> tail = pageToken == null || pageToken.isEmpty() ? source : source.tailMap(pageToken, false);
+		List<T> items = new ArrayList<>(Math.min(size, 64));
+		String lastKey = null;
+		Iterator<Map.Entry<String, T>> iterator = tail.entrySet().iterator();
+		while(iterator.hasNext()) {
+			Map.Entry<String, T> entry = iterator.next();
+			if(!filter.test(entry.getValue())) {
+				continue;
+			}
+			if(items.size() == size) {
+				return new Page<>(items, lastKey);
+			}
+			items.add(entry.getValue());
+			lastKey = entry.getKey();
+		}
+		return new Page<>(items, null);
+	}
+
+	private static Page<Job> copyJobs(Page<Job> page) {
+		List<Job> items = new ArrayList<>(page.getItems().size());
+		for(Job job : page.getItems()) {
+			items.add(copy(job));
+		}
+		return new Page<>(items, page.getNextPageToken());
+	}
+
+	private static Job copy(Job job) {
+		return new Job()
+				.withJobId(job.getJobId())
+				.withQueueId(job.getQueueId())
+				.withUserId(job.getUserId())
+				.withScriptName(job.getScriptName())
+				.withArgs(job.getArgs())
+				.withCurrentRetry(job.getCurrentRetry())
+				.withMaxRetry(job.getMaxRetry())
+				.withCreateAt(job.getCreateAt());
+	}
+
+	private static Queue copy(Queue queue) {
+		return new Queue()
+				.withQueueId(queue.getQueueId())
+				.withOwnerId(queue.getOwnerId())
+				.withName(queue.getName())
+				.withDescription(queue.getDescription())
+				.withNotificationType(queue.getNotificationType())
+				.withNotificationUrl(queue.getNotificationUrl())
+				.withNotificationGameName(queue.getNotificationGameName())
+				.withCreateAt(queue.getCreateAt())
+				.withUpdateAt(queue.getUpdateAt());
+	}
+
+	private static int now() {
+		return (int) (System.currentTimeMillis() / 1000);
+	}
+
+	private static class QueueState {
+
+		final Queue queue;
+
+		final ConcurrentHashMap<String, UserQueue> users = new ConcurrentHashMap<>();
+
+		final ConcurrentSkipListMap<String, Job> jobs = new ConcurrentSkipListMap<>();
+
+		final ConcurrentSkipListMap<String, DeadJob> deadJobs = new ConcurrentSkipListMap<>();
+
+		final ConcurrentHashMap<String, List<JobResult>> results = new ConcurrentHashMap<>();
+
+		/** 実行結果を保持しているジョブID。古い順 */
+		final ConcurrentLinkedQueue<String> resultOrder = new ConcurrentLinkedQueue<>();
+
+		/** 実行結果を保持しているジョブ数 */
+		final AtomicInteger retainedResults = new AtomicInteger();
+
+		QueueState(Queue queue) {
+			this.queue = queue;
+		}
+	}
+
+	private static class UserQueue {
+
+		final ArrayDeque<Job> jobs = new ArrayDeque<>();
+
+		/** ジョブが無くなり users から破棄されたか */
+		boolean removed;
+	}
+
+}
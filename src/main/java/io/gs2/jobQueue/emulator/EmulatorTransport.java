@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.emulator;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+import io.gs2.jobQueue.transport.ApacheHttpTransport;
+import io.gs2.jobQueue.transport.ApacheHttpTransportConfig;
+import io.gs2.jobQueue.transport.Gs2JobQueueResponse;
+import io.gs2.jobQueue.transport.Gs2JobQueueTransport;
+
+/**
+ * リクエストの送信先をエミュレーターに差し替えるトランスポート
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class EmulatorTransport implements Gs2JobQueueTransport {
+
+	/** エミュレーターのエンドポイント */
+	private final String endpoint;
+
+	/** 実際に送信するトランスポート */
+	private final Gs2JobQueueTransport delegate;
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * ローカルのエミュレーターに対する大量の同時リクエストでも接続を待たないよう、
+	 * 既定の {@link ApacheHttpTransportConfig} でコネクションをプールするトランスポートで送信します。<br>
+	 *
+	 * @param endpoint エミュレーターのエンドポイント
+	 */
+	public EmulatorTransport(String endpoint) {
+		this(endpoint, new ApacheHttpTransport(new ApacheHttpTransportConfig()));
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param endpoint エミュレーターのエンドポイント
+	 * @param delegate 実際に送信するトランスポート
+	 */
+	public EmulatorTransport(String endpoint, Gs2JobQueueTransport delegate) {
+		this.endpoint = endpoint;
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Gs2JobQueueResponse execute(HttpRequestBase request) throws IOException {
+		URI uri = request.getURI();
+		String rewritten = endpoint + uri.getRawPath();
+		if(uri.getRawQuery() != null) {
+			rewritten += "?" + uri.getRawQuery();
+		}
+		request.setURI(URI.create(rewritten));
+		return delegate.execute(request);
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+
+}
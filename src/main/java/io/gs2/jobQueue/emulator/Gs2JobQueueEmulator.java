@@ -0,0 +1,433 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.emulator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.model.Queue;
+import io.gs2.jobQueue.transport.ContentEncoding;
+import io.gs2.jobQueue.transport.Gs2JobQueueTransport;
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+import io.gs2.jobQueue.util.JsonSupport;
+import io.gs2.jobQueue.util.Paginator.Page;
+
+/**
+ * GS2-JobQueue のエミュレーター<br>
+ * <br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueClient} と同じパスを受け付けるローカルの HTTP サーバーです。<br>
+ * 状態は {@link EmulatorStore} がメモリ上に保持します。<br>
+ * {@link #createTransport()} で生成したトランスポートをクライアントに設定すると、すべてのリクエストがこのエミュレーターに送信されます。<br>
+ * 署名は検証しません。run の X-GS2-ACCESS-TOKEN はユーザIDとして扱います。<br>
+ * gzip / deflate で圧縮されたリクエストボディを受け付け、Accept-Encoding に gzip を含むリクエストには
+ * 1KB 以上のレスポンスボディを gzip で圧縮して返します。<br>
+ *
+ * <pre>
+ * try(Gs2JobQueueEmulator emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start()) {
+ *     Gs2JobQueueClient client = new Gs2JobQueueClient(credential)
+ *             .withTransport(emulator.createTransport());
+ * }
+ * </pre>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class Gs2JobQueueEmulator implements Closeable {
+
+	/** リクエストを処理するスレッド数の既定値 */
+	public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+	/** レスポンスボディを圧縮する最小サイズ(バイト) */
+	private static final int COMPRESSION_THRESHOLD = 1024;
+
+	/** インメモリストア */
+	private final EmulatorStore store;
+
+	/** 待ち受けるアドレス */
+	private final InetSocketAddress address;
+
+	/** リクエストを処理するスレッド数 */
+	private final int threads;
+
+	/** HTTP サーバー */
+	private HttpServer server;
+
+	/** リクエストを処理する ExecutorService */
+	private ExecutorService executor;
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * ループバックアドレスの空いているポートで待ち受けます。<br>
+	 *
+	 * @param scriptRunner スクリプトを実行する処理
+	 */
+	public Gs2JobQueueEmulator(ScriptRunner scriptRunner) {
+		this(new EmulatorStore(scriptRunner), new InetSocketAddress("127.0.0.1", 0), DEFAULT_THREADS);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param store インメモリストア
+	 * @param address 待ち受けるアドレス
+	 * @param threads リクエストを処理するスレッド数
+	 */
+	public Gs2JobQueueEmulator(EmulatorStore store, InetSocketAddress address, int threads) {
+		if(store == null) throw new IllegalArgumentException("store is required");
+		if(threads < 1) throw new IllegalArgumentException("threads must be positive");
+		this.store = store;
+		this.address = address;
+		this.threads = threads;
+	}
+
+	/**
+	 * JDK の HTTP サーバーで TCP_NODELAY を有効にします。<br>
+	 * <br>
+	 * JDK の HttpServer はヘッダーとボディを別々に書き込むため、Nagle アルゴリズムが有効だと
+	 * 遅延 ACK と合わせて1リクエストごとに数十ミリ秒待たされます。
+	 * エミュレーターに大量のリクエストを送信する場合は、最初のエミュレーターを開始する前に呼び出してください。<br>
+	 * <br>
+	 * システムプロパティ sun.net.httpserver.nodelay を設定するため、同じ JVM のすべての HttpServer に適用されます。
+	 * JDK はこの値を最初の HttpServer の生成時に読み込むため、それ以降に呼び出しても効果はありません。
+	 * 既に値が設定されている場合は変更しません。<br>
+	 */
+	public static void enableTcpNoDelay() {
+		if(System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	/**
+	 * 待ち受けを開始します。
+	 *
+	 * @return this
+	 * @throws IOException 待ち受けに失敗した
+	 */
+	public synchronized Gs2JobQueueEmulator start() throws IOException {
+		if(server != null) throw new IllegalStateException("emulator is already started");
+		executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("gs2-job-queue-emulator"));
+		server = HttpServer.create(address, 1024);
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		server.start();
+		return this;
+	}
+
+	/**
+	 * 待ち受けを停止します。
+	 */
+	@Override
+	public synchronized void close() {
+		if(server != null) {
+			server.stop(0);
+			executor.shutdown();
+			server = null;
+		}
+	}
+
+	/**
+	 * インメモリストアを取得
+	 *
+	 * @return インメモリストア
+	 */
+	public EmulatorStore getStore() {
+		return store;
+	}
+
+	/**
+	 * エンドポイントを取得
+	 *
+	 * @return エンドポイント (例: http://127.0.0.1:12345)
+	 */
+	public synchronized String getEndpoint() {
+		if(server == null) throw new IllegalStateException("emulator is not started");
+		InetSocketAddress bound = server.getAddress();
+		return "http://" + bound.getHostString() + ":" + bound.getPort();
+	}
+
+	/**
+	 * このエミュレーターに接続するトランスポートを生成します。<br>
+	 * <br>
+	 * keep-alive でコネクションを再利用する {@link io.gs2.jobQueue.transport.ApacheHttpTransport} を利用します。<br>
+	 *
+	 * @return トランスポート
+	 */
+	public Gs2JobQueueTransport createTransport() {
+		return new EmulatorTransport(getEndpoint());
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		int statusCode = 200;
+		JsonNode body;
+		try {
+			body = route(exchange);
+		} catch (EmulatorException e) {
+			statusCode = e.getStatusCode();
+			body = JsonNodeFactory.instance.objectNode().put("message", e.getMessage());
+		} catch (IOException e) {
+			// 不正な JSON や未対応の Content-Encoding など、リクエストボディを読み込めなかった
+			statusCode = 400;
+			body = JsonNodeFactory.instance.objectNode().put("message", "invalid request body: " + e.getMessage());
+		} catch (RuntimeException e) {
+			statusCode = 500;
+			body = JsonNodeFactory.instance.objectNode().put("message", String.valueOf(e.getMessage()));
+		}
+		byte[] bytes = JsonSupport.MAPPER.writeValueAsBytes(body == null ? JsonNodeFactory.instance.objectNode() : body);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		if(bytes.length >= COMPRESSION_THRESHOLD && acceptsGzip(exchange)) {
+			bytes = ContentEncoding.gzip(bytes, 0, bytes.length, Deflater.BEST_SPEED);
+			exchange.getResponseHeaders().set("Content-Encoding", ContentEncoding.GZIP);
+		}
+		exchange.sendResponseHeaders(statusCode, bytes.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private JsonNode route(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String[] path = segments(exchange.getRequestURI().getRawPath());
+		Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+		String pageToken = query.get("pageToken");
+		Integer limit = limit(query.get("limit"));
+
+		if(path.length == 0 || !path[0].equals("queue")) {
+			throw new EmulatorException(404, "unknown path");
+		}
+		if(path.length == 1) {
+			if(method.equals("GET")) {
+				return page(store.describeQueues(pageToken, limit), Queue::toJson);
+			}
+			if(method.equals("POST")) {
+				JsonNode request = readBody(exchange);
+				return item(store.createQueue(
+						text(request, "name"),
+						text(request, "description"),
+						text(request, "notificationType"),
+						text(request, "notificationUrl"),
+						text(request, "notificationGameName")).toJson());
+			}
+			throw notAllowed();
+		}
+		String queueName = path[1];
+		if(path.length == 2) {
+			switch(method) {
+			case "GET":
+				return item(store.getQueue(queueName).toJson());
+			case "PUT": {
+				JsonNode request = readBody(exchange);
+				return item(store.updateQueue(
+						queueName,
+						text(request, "description"),
+						text(request, "notificationType"),
+						text(request, "notificationUrl"),
+						text(request, "notificationGameName")).toJson());
+			}
+			case "DELETE":
+				store.deleteQueue(queueName);
+				return null;
+			case "POST":
+				return jobResult(store.runByUserId(queueName, exchange.getRequestHeaders().getFirst("X-GS2-ACCESS-TOKEN")));
+			default:
+				throw notAllowed();
+			}
+		}
+		switch(path[2]) {
+		case "status":
+			if(path.length == 3 && method.equals("GET")) {
+				return JsonNodeFactory.instance.objectNode().put("status", store.getQueueStatus(queueName));
+			}
+			break;
+		case "job":
+			if(path.length == 3 && method.equals("GET")) {
+				return page(store.describeJobs(queueName, pageToken, limit), Job::toJson);
+			}
+			if(path.length >= 5 && path[3].equals("user")) {
+				String userId = path[4];
+				if(path.length == 5 && method.equals("GET")) {
+					return page(store.describeJobsByUserId(queueName, userId, pageToken, limit), Job::toJson);
+				}
+				if(path.length == 5 && method.equals("POST")) {
+					List<Job> jobs = store.push(queueName, userId, pushJobs(readBody(exchange)));
+					ArrayNode items = JsonNodeFactory.instance.arrayNode();
+					for(Job job : jobs) {
+						items.add(job.toJson());
+					}
+					ObjectNode result = JsonNodeFactory.instance.objectNode();
+					result.set("items", items);
+					return result;
+				}
+				if(path.length == 6 && path[5].equals("run") && method.equals("POST")) {
+					return jobResult(store.runByUserId(queueName, userId));
+				}
+			}
+			break;
+		case "deadJob":
+			if(path.length == 3 && method.equals("GET")) {
+				return page(store.describeDeadJobs(queueName, null, null, pageToken, limit), DeadJob::toJson);
+			}
+			if(path.length == 5 && path[3].equals("script") && method.equals("GET")) {
+				return page(store.describeDeadJobs(queueName, path[4], null, pageToken, limit), DeadJob::toJson);
+			}
+			if(path.length == 5 && path[3].equals("user") && method.equals("GET")) {
+				return page(store.describeDeadJobs(queueName, null, path[4], pageToken, limit), DeadJob::toJson);
+			}
+			if(path.length == 5 && path[4].equals("result") && method.equals("GET")) {
+				return page(store.describeJobResults(queueName, path[3], pageToken, limit), JobResult::toJson);
+			}
+			if(path.length == 6 && path[4].equals("user")) {
+				if(method.equals("GET")) {
+					return item(store.getDeadJob(queueName, path[3], path[5]).toJson());
+				}
+				if(method.equals("DELETE")) {
+					store.deleteDeadJob(queueName, path[3], path[5]);
+					return null;
+				}
+			}
+			break;
+		default:
+			break;
+		}
+		throw new EmulatorException(404, "unknown path");
+	}
+
+	private static Integer limit(String value) {
+		if(value == null) {
+			return null;
+		}
+		int limit;
+		try {
+			limit = Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new EmulatorException(400, "invalid limit: " + value);
+		}
+		if(limit < 1) {
+			throw new EmulatorException(400, "invalid limit: " + value);
+		}
+		return limit;
+	}
+
+	private static boolean acceptsGzip(HttpExchange exchange) {
+		String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains(ContentEncoding.GZIP);
+	}
+
+	private static JsonNode readBody(HttpExchange exchange) throws IOException {
+		try(InputStream in = ContentEncoding.decode(exchange.getRequestBody(), exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+			JsonNode node = JsonSupport.MAPPER.readTree(in);
+			return node == null ? JsonNodeFactory.instance.objectNode() : node;
+		}
+	}
+
+	private static List<PushJob> pushJobs(JsonNode request) {
+		List<PushJob> jobs = new ArrayList<>();
+		JsonNode items = request.get("jobs");
+		if(items != null) {
+			for(JsonNode item : items) {
+				jobs.add(new PushJob()
+						.withScriptName(text(item, "scriptName"))
+						.withArgs(text(item, "args"))
+						.withMaxRetry(item.hasNonNull("maxRetry") ? item.get("maxRetry").asInt() : null));
+			}
+		}
+		return jobs;
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private static JsonNode item(ObjectNode item) {
+		ObjectNode result = JsonNodeFactory.instance.objectNode();
+		result.set("item", item);
+		return result;
+	}
+
+	private static JsonNode jobResult(JobResult jobResult) {
+		ObjectNode result = JsonNodeFactory.instance.objectNode();
+		result.set("item", jobResult == null ? null : jobResult.toJson());
+		return result;
+	}
+
+	private static <T> JsonNode page(Page<T> page, java.util.function.Function<T, ObjectNode> toJson) {
+		ArrayNode items = JsonNodeFactory.instance.arrayNode();
+		for(T item : page.getItems()) {
+			items.add(toJson.apply(item));
+		}
+		ObjectNode result = JsonNodeFactory.instance.objectNode();
+		result.set("items", items);
+		result.put("nextPageToken", page.getNextPageToken());
+		return result;
+	}
+
+	private static EmulatorException notAllowed() {
+		return new EmulatorException(405, "method not allowed");
+	}
+
+	private static String[] segments(String rawPath) throws IOException {
+		List<String> segments = new ArrayList<>();
+		for(String segment : rawPath.split("/")) {
+			if(!segment.isEmpty()) {
+				segments.add(URLDecoder.decode(segment.replace("+", "%2B"), "UTF-8"));
+			}
+		}
+		return segments.toArray(new String[segments.size()]);
+	}
+
+	private static Map<String, String> query(String rawQuery) throws IOException {
+		Map<String, String> query = new HashMap<>();
+		if(rawQuery == null) {
+			return query;
+		}
+		for(String pair : rawQuery.split("&")) {
+			int separator = pair.indexOf('=');
+			if(separator > 0) {
+				query.put(
+						URLDecoder.decode(pair.substring(0, separator), "UTF-8"),
+						URLDecoder.decode(pair.substring(separator + 1), "UTF-8"));
+			}
+		}
+		return query;
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.emulator;
+
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+
+/**
+ * エミュレーターでジョブのスクリプトを実行する処理
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public interface ScriptRunner {
+
+	/** 常にステータスコード 200 で成功する ScriptRunner */
+	ScriptRunner SUCCEED = job -> new JobResult().withStatusCode(200).withResult("{}");
+
+	/**
+	 * ジョブを実行します。<br>
+	 * <br>
+	 * 返り値のステータスコードと実行結果のみが利用されます。<br>
+	 * ステータスコードが 2xx 以外の場合は失敗として扱い、リトライ回数を加算します。<br>
+	 *
+	 * @param job 実行するジョブ
+	 * @return 実行結果
+	 */
+	JobResult run(Job job);
+
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.limit;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.gs2.exception.BadGatewayException;
+import io.gs2.exception.InternalServerErrorException;
+import io.gs2.exception.QuotaExceedException;
+import io.gs2.exception.RequestTimeoutException;
+import io.gs2.exception.ServiceUnavailableException;
+
+/**
+ * 機能ごとに同時実行数を自動調整するリミッター<br>
+ * <br>
+ * AIMD (加算増加・乗算減少) で機能ごとの同時実行数の上限を調整します。<br>
+ * 上限の半分以上を使っている状態でリクエストが成功するたびに上限を 1/上限 ずつ増やし、
+ * サーバーの過負荷を示すエラーを受け取るか、レイテンシが閾値を超えた場合は上限に減少率を掛けて減らします。
+ * そのため、サービスの劣化時には自動的に送信を絞り、回復すると徐々に元の並列度に戻ります。<br>
+ * 同じ過負荷で送信中だったリクエストが続けて失敗しても上限を何度も減らさないよう、
+ * 減少は前回の減少より後に送信したリクエストの失敗に対してだけ行います。<br>
+ * 上限に達している場合は空きができるまで待機し、最大待機時間を超えた場合は {@link LimitExceededException} を送出します。<br>
+ * {@link #acquireAsync(String, String)} で待機する場合はスレッドを占有せず、空きができた順に送信許可を渡します。<br>
+ * BadRequest / NotFound などのリクエスト自体の誤りは上限の調整に使いません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class AimdConcurrencyLimiter implements RequestLimiter {
+
+	/** 初期の上限 */
+	private volatile int initialLimit = 20;
+
+	/** 上限の最小値 */
+	private volatile int minLimit = 1;
+
+	/** 上限の最大値 */
+	private volatile int maxLimit = 500;
+
+	/** 過負荷時に上限に掛ける減少率 */
+	private volatile double backoffRatio = 0.9;
+
+	/** 過負荷とみなすレイテンシ(ナノ秒) */
+	private volatile long latencyThresholdNanos = TimeUnit.SECONDS.toNanos(5);
+
+	/** 空きを待つ最大時間(ナノ秒)。0 の場合は無制限に待機します */
+	private volatile long maxWaitNanos = TimeUnit.SECONDS.toNanos(30);
+
+	/** 機能ごとの上限 */
+	private final ConcurrentHashMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+	/**
+	 * 初期の上限を設定<br>
+	 * 既に送信した機能の上限は変わりません。<br>
+	 *
+	 * @param initialLimit 初期の上限
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withInitialLimit(int initialLimit) {
+		if(initialLimit < 1) throw new IllegalArgumentException("initialLimit must be positive");
+		this.initialLimit = initialLimit;
+		return this;
+	}
+
+	/**
+	 * 上限の最小値を設定
+	 *
+	 * @param minLimit 上限の最小値
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withMinLimit(int minLimit) {
+		if(minLimit < 1) throw new IllegalArgumentException("minLimit must be positive");
+		this.minLimit = minLimit;
+		return this;
+	}
+
+	/**
+	 * 上限の最大値を設定
+	 *
+	 * @param maxLimit 上限の最大値
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withMaxLimit(int maxLimit) {
+		if(maxLimit < 1) throw new IllegalArgumentException("maxLimit must be positive");
+		this.maxLimit = maxLimit;
+		return this;
+	}
+
+	/**
+	 * 過負荷時に上限に掛ける減少率を設定
+	 *
+	 * @param backoffRatio 過負荷時に上限に掛ける減少率 (0 より大きく 1 より小さい値)
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withBackoffRatio(double backoffRatio) {
+		if(backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+		this.backoffRatio = backoffRatio;
+		return this;
+	}
+
+	/**
+	 * 過負荷とみなすレイテンシ(ミリ秒)を設定
+	 *
+	 * @param latencyThresholdMillis 過負荷とみなすレイテンシ(ミリ秒)
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withLatencyThresholdMillis(long latencyThresholdMillis) {
+		if(latencyThresholdMillis < 1) throw new IllegalArgumentException("latencyThresholdMillis must be positive");
+		this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+		return this;
+	}
+
+	/**
+	 * 空きを待つ最大時間(ミリ秒)を設定
+	 *
+	 * @param maxWaitMillis 空きを待つ最大時間(ミリ秒)。0 の場合は無制限に待機します
+	 * @return this
+	 */
+	public AimdConcurrencyLimiter withMaxWaitMillis(long maxWaitMillis) {
+		if(maxWaitMillis < 0) throw new IllegalArgumentException("maxWaitMillis must not be negative");
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		return this;
+	}
+
+	@Override
+	public Permit acquire(String queueName, String function) {
+		Limit limit = limits.computeIfAbsent(function, key -> new Limit(initialLimit));
+		limit.acquire(function, maxWaitNanos);
+		long acquiredAt = System.nanoTime();
+		return (latencyNanos, error) -> limit.release(acquiredAt, latencyNanos, error);
+	}
+
+	@Override
+	public CompletableFuture<Permit> acquireAsync(String queueName, String function) {
+		Limit limit = limits.computeIfAbsent(function, key -> new Limit(initialLimit));
+		return limit.acquireAsync(function, maxWaitNanos);
+	}
+
+	/**
+	 * 機能の現在の上限を取得します。
+	 *
+	 * @param function 機能名
+	 * @return 現在の上限。まだ送信していない機能の場合は初期の上限
+	 */
+	public int getLimit(String function) {
+		Limit limit = limits.get(function);
+		return limit == null ? initialLimit : limit.currentLimit();
+	}
+
+	/**
+	 * 機能の送信中のリクエスト数を取得します。
+	 *
+	 * @param function 機能名
+	 * @return 送信中のリクエスト数
+	 */
+	public int getInFlight(String function) {
+		Limit limit = limits.get(function);
+		return limit == null ? 0 : limit.inFlight();
+	}
+
+	/**
+	 * サーバーの過負荷を示すエラーか
+	 *
+	 * @param error 発生した例外
+	 * @return 過負荷を示すエラーの場合は true
+	 */
+	protected boolean isOverload(Throwable error) {
+		return error instanceof ServiceUnavailableException
+				|| error instanceof RequestTimeoutException
+				|| error instanceof BadGatewayException
+				|| error instanceof QuotaExceedException
+				|| error instanceof InternalServerErrorException
+				|| error instanceof UncheckedIOException;
+	}
+
+	/**
+	 * 1つの機能の同時実行数の上限
+	 */
+	private class Limit {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private final Condition available = lock.newCondition();
+
+		private double limit;
+
+		private int inFlight;
+
+		/** 最後に上限を減らした時刻 */
+		private long decreasedAt = System.nanoTime();
+
+		/** 空きを待っている非同期の取得。到着順 */
+		private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+		Limit(int initialLimit) {
+			this.limit = initialLimit;
+		}
+
+		void acquire(String function, long maxWaitNanos) {
+			lock.lock();
+			try {
+				long remaining = maxWaitNanos;
+				while(inFlight >= (int) limit) {
+					if(maxWaitNanos == 0) {
+						available.await();
+						continue;
+					}
+					if(remaining <= 0) {
+						throw new LimitExceededException(function,
+								function + " concurrency limit " + (int) limit + " reached");
+					}
+					remaining = available.awaitNanos(remaining);
+				}
+				inFlight++;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new LimitExceededException(function, "interrupted while waiting for " + function, e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		CompletableFuture<Permit> acquireAsync(String function, long maxWaitNanos) {
+			Waiter waiter = new Waiter();
+			boolean granted = false;
+			lock.lock();
+			try {
+				if(waiters.isEmpty() && inFlight < (int) limit) {
+					inFlight++;
+					granted = true;
+				} else {
+					waiters.add(waiter);
+					if(maxWaitNanos > 0) {
+						waiter.timeout = LimiterScheduler.schedule(() -> expire(waiter, function), maxWaitNanos);
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+			if(granted) {
+				grant(Collections.singletonList(waiter));
+			}
+			return waiter.future;
+		}
+
+		/**
+		 * 最大待機時間を過ぎた非同期の取得を拒否します。
+		 */
+		private void expire(Waiter waiter, String function) {
+			boolean removed;
+			lock.lock();
+			try {
+				removed = waiters.remove(waiter);
+			} finally {
+				lock.unlock();
+			}
+			if(removed) {
+				waiter.future.completeExceptionally(new LimitExceededException(function,
+						function + " concurrency limit " + currentLimit() + " reached"));
+			}
+		}
+
+		/**
+		 * 空きの分だけ待機中の非同期の取得を取り出します。ロックを保持して呼び出してください。
+		 */
+		private List<Waiter> dispatch() {
+			List<Waiter> granted = null;
+			while(!waiters.isEmpty() && inFlight < (int) limit) {
+				Waiter waiter = waiters.poll();
+				if(waiter.timeout != null) {
+					waiter.timeout.cancel(false);
+				}
+				inFlight++;
+				if(granted == null) {
+					granted = new ArrayList<>();
+				}
+				granted.add(waiter);
+			}
+			return granted == null ? Collections.<Waiter>emptyList() : granted;
+		}
+
+		/**
+		 * 取り出した非同期の取得に送信許可を渡します。ロックを保持せずに呼び出してください。<br>
+		 * 既にキャンセルされていた取得の分は空きに戻します。
+		 */
+		private void grant(List<Waiter> granted) {
+			for(Waiter waiter : granted) {
+				long acquiredAt = System.nanoTime();
+				if(!waiter.future.complete((latencyNanos, error) -> release(acquiredAt, latencyNanos, error))) {
+					List<Waiter> next;
+					lock.lock();
+					try {
+						inFlight--;
+						next = dispatch();
+						signalFree();
+					} finally {
+						lock.unlock();
+					}
+					grant(next);
+				}
+			}
+		}
+
+		private void signalFree() {
+			int free = (int) limit - inFlight;
+			if(free == 1) {
+				available.signal();
+			} else if(free > 1) {
+				available.signalAll();
+			}
+		}
+
+		void release(long acquiredAt, long latencyNanos, Throwable error) {
+			List<Waiter> granted;
+			lock.lock();
+			try {
+				boolean utilized = inFlight * 2 >= limit;
+				inFlight--;
+				if((error != null && isOverload(error)) || latencyNanos > latencyThresholdNanos) {
+					if(acquiredAt - decreasedAt > 0) {
+						limit = Math.max(minLimit, limit * backoffRatio);
+						decreasedAt = System.nanoTime();
+					}
+				} else if(error == null && utilized) {
+					limit = Math.min(maxLimit, limit + 1 / limit);
+				}
+				granted = dispatch();
+				signalFree();
+			} finally {
+				lock.unlock();
+			}
+			grant(granted);
+		}
+
+		int currentLimit() {
+			lock.lock();
+			try {
+				return (int) limit;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int inFlight() {
+			lock.lock();
+			try {
+				return inFlight;
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 空きを待っている非同期の取得
+	 */
+	private static class Waiter {
+
+		final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+		/** 最大待機時間を過ぎたときに拒否するタスク */
+		ScheduledFuture<?> timeout;
+	}
+
+}
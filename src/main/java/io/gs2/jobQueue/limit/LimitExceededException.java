@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.limit;
+
+/**
+ * リミッターがリクエストの送信を拒否した場合に送出される例外<br>
+ * <br>
+ * リクエストはサーバーに送信されていません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+@SuppressWarnings("serial")
+public class LimitExceededException extends RuntimeException {
+
+	/** 機能名 */
+	private final String function;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param function 機能名
+	 * @param message メッセージ
+	 */
+	public LimitExceededException(String function, String message) {
+		super(message);
+		this.function = function;
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param function 機能名
+	 * @param message メッセージ
+	 * @param cause 原因
+	 */
+	public LimitExceededException(String function, String message, Throwable cause) {
+		super(message, cause);
+		this.function = function;
+	}
+
+	/**
+	 * 機能名を取得
+	 *
+	 * @return 機能名
+	 */
+	public String getFunction() {
+		return function;
+	}
+
+}
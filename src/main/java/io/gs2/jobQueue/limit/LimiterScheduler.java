@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.limit;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.gs2.jobQueue.util.DaemonThreadFactory;
+
+/**
+ * 非同期の送信許可の待機に使うスケジューラー<br>
+ * <br>
+ * 待機中のリクエストごとにスレッドを占有しないよう、すべてのリミッターで1本のデーモンスレッドを共有します。
+ * スレッドは最初に待機が必要になったときに生成します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+final class LimiterScheduler {
+
+	/** 待機の完了を実行するスケジューラー */
+	private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+	static {
+		SCHEDULER = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("gs2-job-queue-limiter"));
+		SCHEDULER.setRemoveOnCancelPolicy(true);
+	}
+
+	private LimiterScheduler() {
+	}
+
+	/**
+	 * 指定した時間の経過後にタスクを実行します。<br>
+	 * <br>
+	 * タスクは短時間で終わる処理にしてください。<br>
+	 *
+	 * @param task タスク
+	 * @param delayNanos 待機時間(ナノ秒)
+	 * @return 予約したタスク
+	 */
+	static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+		return SCHEDULER.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+}
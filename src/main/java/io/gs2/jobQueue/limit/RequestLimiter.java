@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.limit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * リクエストの送信を制限するリミッター<br>
+ * <br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueClient} は各 API の送信前に {@link #acquire(String, String)} を呼び出し、
+ * 完了後に取得した {@link Permit} を解放します。<br>
+ * 送信できるまで待機するか、{@link LimitExceededException} を送出して送信を拒否します。<br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueAsyncClient} からの呼び出しでは、代わりに {@link #acquireAsync(String, String)} で
+ * スレッドを占有せずに送信許可を待ちます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public interface RequestLimiter {
+
+	/**
+	 * リクエストの送信許可を取得します。
+	 *
+	 * @param queueName ジョブキューの名前。ジョブキューを指定しない API の場合は null
+	 * @param function 機能名 (例: Push, RunByUserId)
+	 * @return 送信許可
+	 * @throws LimitExceededException 送信を拒否した
+	 */
+	Permit acquire(String queueName, String function);
+
+	/**
+	 * リクエストの送信許可をスレッドを占有せずに取得します。<br>
+	 * <br>
+	 * 送信できるようになった時点で完了する Future を返します。
+	 * 送信を拒否した場合は {@link LimitExceededException} で例外的に完了します。<br>
+	 * 既定の実装は {@link #acquire(String, String)} を呼び出し元のスレッドで実行します。
+	 * 待機することがあるリミッターはオーバーライドしてください。<br>
+	 *
+	 * @param queueName ジョブキューの名前。ジョブキューを指定しない API の場合は null
+	 * @param function 機能名 (例: Push, RunByUserId)
+	 * @return 送信許可
+	 */
+	default CompletableFuture<Permit> acquireAsync(String queueName, String function) {
+		CompletableFuture<Permit> future = new CompletableFuture<>();
+		try {
+			future.complete(acquire(queueName, function));
+		} catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * 複数のリミッターを順に適用するリミッターを取得します。<br>
+	 * <br>
+	 * 途中のリミッターが送信を拒否した場合は、取得済みの送信許可をその例外で解放します。<br>
+	 *
+	 * @param limiters リミッター
+	 * @return 複数のリミッターを順に適用するリミッター
+	 */
+	static RequestLimiter chain(RequestLimiter... limiters) {
+		RequestLimiter[] chained = limiters.clone();
+		return new RequestLimiter() {
+
+			@Override
+			public Permit acquire(String queueName, String function) {
+				Permit[] permits = new Permit[chained.length];
+				for(int i = 0; i < chained.length; i++) {
+					try {
+						permits[i] = chained[i].acquire(queueName, function);
+					} catch (RuntimeException e) {
+						release(permits, i, e);
+						throw e;
+					}
+				}
+				return combine(permits);
+			}
+
+			@Override
+			public CompletableFuture<Permit> acquireAsync(String queueName, String function) {
+				CompletableFuture<Permit> future = new CompletableFuture<>();
+				acquireAsync(queueName, function, new Permit[chained.length], 0, future);
+				return future;
+			}
+
+			private void acquireAsync(String queueName, String function, Permit[] permits, int index, CompletableFuture<Permit> future) {
+				if(index == chained.length) {
+					future.complete(combine(permits));
+					return;
+				}
+				CompletableFuture<Permit> next;
+				try {
+					next = chained[index].acquireAsync(queueName, function);
+				} catch (RuntimeException e) {
+					release(permits, index, e);
+					future.completeExceptionally(e);
+					return;
+				}
+				next.whenComplete((permit, error) -> {
+					if(error != null) {
+						Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+						release(permits, index, cause);
+						future.completeExceptionally(cause);
+						return;
+					}
+					permits[index] = permit;
+					acquireAsync(queueName, function, permits, index + 1, future);
+				});
+			}
+
+			/**
+			 * 取得済みの送信許可を解放します。
+			 */
+			private void release(Permit[] permits, int count, Throwable error) {
+				for(int i = 0; i < count; i++) {
+					permits[i].release(0, error);
+				}
+			}
+
+			/**
+			 * 複数の送信許可をまとめて解放する送信許可を取得します。
+			 */
+			private Permit combine(Permit[] permits) {
+				return (latencyNanos, error) -> {
+					for(Permit permit : permits) {
+						permit.release(latencyNanos, error);
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * リクエストの送信許可
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	interface Permit {
+
+		/**
+		 * リクエストが完了したので送信許可を解放します。
+		 *
+		 * @param latencyNanos 送信からレスポンスの読み込みまでの時間(ナノ秒)
+		 * @param error 発生した例外。成功した場合は null
+		 */
+		void release(long latencyNanos, Throwable error);
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ロックを使わないトークンバケット<br>
+ * <br>
+ * GCRA (Generic Cell Rate Algorithm) で実装しており、状態は次のトークンが補充される理論上の時刻を表す
+ * 1つの {@link AtomicLong} だけです。取得は CAS で行うため、多数のスレッドから呼び出してもロックで待たされません。<br>
+ * 最大 burst 個までは間隔を空けずに取得でき、それ以降は 1/permitsPerSecond 秒ごとに1つずつ取得できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class TokenBucket {
+
+	/** トークンを1つ補充する間隔(ナノ秒) */
+	private final long intervalNanos;
+
+	/** 間隔を空けずに取得できる時間の幅(ナノ秒) */
+	private final long toleranceNanos;
+
+	/** 次のトークンが補充される理論上の時刻 */
+	private final AtomicLong theoreticalArrival;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param permitsPerSecond 1秒あたりに補充するトークン数
+	 * @param burst 間隔を空けずに取得できる最大のトークン数
+	 */
+	public TokenBucket(double permitsPerSecond, int burst) {
+		if(!(permitsPerSecond > 0)) throw new IllegalArgumentException("permitsPerSecond must be positive");
+		if(burst < 1) throw new IllegalArgumentException("burst must be positive");
+		this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+		this.toleranceNanos = intervalNanos * (burst - 1);
+		this.theoreticalArrival = new AtomicLong(System.nanoTime());
+	}
+
+	/**
+	 * トークンを予約します。<br>
+	 * <br>
+	 * 予約したトークンが使えるようになるまでの時間を返します。呼び出し元はその時間だけ待ってから送信してください。<br>
+	 * 待ち時間が maxWaitNanos を超える場合は予約せずに -1 を返します。<br>
+	 *
+	 * @param maxWaitNanos 許容する最大の待ち時間(ナノ秒)
+	 * @return 待ち時間(ナノ秒)。予約できなかった場合は -1
+	 */
+	public long reserve(long maxWaitNanos) {
+		while(true) {
+			long now = System.nanoTime();
+			long arrival = theoreticalArrival.get();
+			long start = arrival - now > 0 ? arrival : now;
+			long waitNanos = Math.max(0, start - now - toleranceNanos);
+			if(waitNanos > maxWaitNanos) {
+				return -1;
+			}
+			if(theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+				return waitNanos;
+			}
+		}
+	}
+
+	/**
+	 * 待たずに取得できる場合だけトークンを取得します。
+	 *
+	 * @return 取得できた場合は true
+	 */
+	public boolean tryAcquire() {
+		return reserve(0) == 0;
+	}
+
+	/**
+	 * トークンを取得します。<br>
+	 * <br>
+	 * 取得できるまで最大 maxWaitNanos 待機します。<br>
+	 *
+	 * @param maxWaitNanos 最大の待ち時間(ナノ秒)
+	 * @return 取得できた場合は true。待ち時間が maxWaitNanos を超える場合は待たずに false
+	 * @throws InterruptedException 待機中に割り込まれた
+	 */
+	public boolean acquire(long maxWaitNanos) throws InterruptedException {
+		long waitNanos = reserve(maxWaitNanos);
+		if(waitNanos < 0) {
+			return false;
+		}
+		if(waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+		return true;
+	}
+
+}
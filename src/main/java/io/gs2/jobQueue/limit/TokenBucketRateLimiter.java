@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.limit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ジョブキュー・機能ごとに送信レートを制限するリミッター<br>
+ * <br>
+ * ジョブキューの名前と機能名 (Constant.FUNCTION) の組み合わせごとに {@link TokenBucket} を割り当て、
+ * サービスのクォータを超えるリクエストをプロセスの外に出る前に待機させるか拒否します。<br>
+ * 送信時には次の順に最初に見つかった設定を適用します。<br>
+ * <ol>
+ * <li>ジョブキューと機能の両方を指定した設定</li>
+ * <li>ジョブキューだけを指定した設定 (そのジョブキューの全機能で1つのバケットを共有)</li>
+ * <li>機能だけを指定した設定 (ジョブキューごとに別のバケット)</li>
+ * <li>どちらも指定しない設定 (ジョブキューごとに全機能で1つのバケットを共有)</li>
+ * </ol>
+ * 該当する設定が無いリクエストは制限しません。<br>
+ * {@link #acquireAsync(String, String)} はトークンを予約し、使えるようになる時刻に共有のスケジューラーで完了するため、
+ * 待機中もスレッドを占有しません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class TokenBucketRateLimiter implements RequestLimiter {
+
+	/** 制限しないリクエストの送信許可 */
+	private static final Permit UNLIMITED = (latencyNanos, error) -> { };
+
+	/** 設定 */
+	private final ConcurrentHashMap<Key, Rate> rates = new ConcurrentHashMap<>();
+
+	/** バケット。設定を変更するたびに作り直す */
+	private volatile ConcurrentHashMap<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+	/** トークンを待つ最大時間(ナノ秒) */
+	private volatile long maxWaitNanos = 0;
+
+	/**
+	 * 送信レートを設定します。<br>
+	 * <br>
+	 * 設定を変更すると、それまでのバケットの状態は破棄されます。<br>
+	 *
+	 * @param queueName ジョブキューの名前。null の場合はすべてのジョブキュー
+	 * @param function 機能名 (例: Push, RunByUserId)。null の場合はすべての機能
+	 * @param permitsPerSecond 1秒あたりの最大リクエスト数
+	 * @param burst 間隔を空けずに送信できる最大のリクエスト数
+	 * @return this
+	 */
+	public TokenBucketRateLimiter withRate(String queueName, String function, double permitsPerSecond, int burst) {
+		if(!(permitsPerSecond > 0)) throw new IllegalArgumentException("permitsPerSecond must be positive");
+		if(burst < 1) throw new IllegalArgumentException("burst must be positive");
+		rates.put(new Key(queueName, function), new Rate(permitsPerSecond, burst));
+		buckets = new ConcurrentHashMap<>();
+		return this;
+	}
+
+	/**
+	 * トークンを待つ最大時間(ミリ秒)を設定します。<br>
+	 * <br>
+	 * 0 の場合はトークンが無ければ待たずに {@link LimitExceededException} を送出します。<br>
+	 *
+	 * @param maxWaitMillis トークンを待つ最大時間(ミリ秒)
+	 * @return this
+	 */
+	public TokenBucketRateLimiter withMaxWaitMillis(long maxWaitMillis) {
+		if(maxWaitMillis < 0) throw new IllegalArgumentException("maxWaitMillis must not be negative");
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		return this;
+	}
+
+	@Override
+	public Permit acquire(String queueName, String function) {
+		TokenBucket bucket = bucket(queueName, function);
+		if(bucket == null) {
+			return UNLIMITED;
+		}
+		boolean acquired;
+		try {
+			acquired = bucket.acquire(maxWaitNanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LimitExceededException(function, "interrupted while waiting for " + function, e);
+		}
+		if(!acquired) {
+			throw new LimitExceededException(function,
+					function + " rate limit exceeded" + (queueName == null ? "" : " for queue " + queueName));
+		}
+		return UNLIMITED;
+	}
+
+	@Override
+	public CompletableFuture<Permit> acquireAsync(String queueName, String function) {
+		TokenBucket bucket = bucket(queueName, function);
+		if(bucket == null) {
+			return CompletableFuture.completedFuture(UNLIMITED);
+		}
+		CompletableFuture<Permit> future = new CompletableFuture<>();
+		long waitNanos = bucket.reserve(maxWaitNanos);
+		if(waitNanos < 0) {
+			future.completeExceptionally(new LimitExceededException(function,
+					function + " rate limit exceeded" + (queueName == null ? "" : " for queue " + queueName)));
+		} else if(waitNanos == 0) {
+			future.complete(UNLIMITED);
+		} else {
+			LimiterScheduler.schedule(() -> future.complete(UNLIMITED), waitNanos);
+		}
+		return future;
+	}
+
+	private TokenBucket bucket(String queueName, String function) {
+		if(rates.isEmpty()) {
+			return null;
+		}
+		ConcurrentHashMap<Key, TokenBucket> buckets = this.buckets;
+		Key exact = new Key(queueName, function);
+		TokenBucket bucket = buckets.get(exact);
+		if(bucket != null) {
+			return bucket;
+		}
+		Rate rate;
+		Key bucketKey;
+		if((rate = rates.get(exact)) != null) {
+			bucketKey = exact;
+		} else if((rate = rates.get(new Key(queueName, null))) != null) {
+			bucketKey = new Key(queueName, null);
+		} else if((rate = rates.get(new Key(null, function))) != null) {
+			bucketKey = exact;
+		} else if((rate = rates.get(new Key(null, null))) != null) {
+			bucketKey = new Key(queueName, null);
+		} else {
+			return null;
+		}
+		Rate selected = rate;
+		bucket = buckets.computeIfAbsent(bucketKey, key -> new TokenBucket(selected.permitsPerSecond, selected.burst));
+		if(!bucketKey.equals(exact)) {
+			// 共有するバケットを次回から1回の検索で見つけられるようにする
+			buckets.putIfAbsent(exact, bucket);
+		}
+		return bucket;
+	}
+
+	private static class Rate {
+
+		final double permitsPerSecond;
+
+		final int burst;
+
+		Rate(double permitsPerSecond, int burst) {
+			this.permitsPerSecond = permitsPerSecond;
+			this.burst = burst;
+		}
+	}
+
+	private static class Key {
+
+		final String queueName;
+
+		final String function;
+
+		Key(String queueName, String function) {
+			this.queueName = queueName;
+			this.function = function;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(!(o instanceof Key)) return false;
+			Key other = (Key) o;
+			return (queueName == null ? other.queueName == null : queueName.equals(other.queueName))
+					&& (function == null ? other.function == null : function.equals(other.function));
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (queueName == null ? 0 : queueName.hashCode()) + (function == null ? 0 : function.hashCode());
+		}
+	}
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 計測結果をメモリ上に集計する {@link RequestMetricsListener}<br>
+ * <br>
+ * 機能名ごとにレイテンシのヒストグラム、ペイロードサイズ、ステータスコード、実行中の件数を集計します。<br>
+ * 記録は {@link LongAdder} と {@link LatencyHistogram} への加算だけで行い、ロックを取りません。<br>
+ * {@link #snapshot()} で任意の時点の集計結果を取得できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class InMemoryRequestMetrics implements RequestMetricsListener {
+
+	/** 機能名ごとの集計 */
+	private final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+
+	@Override
+	public void onRequestStart(String function) {
+		operation(function).inFlight.increment();
+	}
+
+	@Override
+	public void onRequestEnd(String function, long latencyNanos, long requestBytes, long responseBytes, int statusCode, Throwable error) {
+		Operation operation = operation(function);
+		operation.inFlight.decrement();
+		operation.latency.record(latencyNanos);
+		operation.requestBytes.add(requestBytes);
+		if(responseBytes >= 0) {
+			operation.responseBytes.add(responseBytes);
+		}
+		if(error != null) {
+			operation.errors.increment();
+		}
+		LongAdder counter = operation.statusCodes.get(statusCode);
+		if(counter == null) {
+			counter = operation.statusCodes.computeIfAbsent(statusCode, key -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	/**
+	 * 現時点の集計結果を取得します。
+	 *
+	 * @return 機能名ごとの集計結果
+	 */
+	public Map<String, OperationSnapshot> snapshot() {
+		Map<String, OperationSnapshot> snapshot = new TreeMap<>();
+		for(Map.Entry<String, Operation> entry : operations.entrySet()) {
+			snapshot.put(entry.getKey(), new OperationSnapshot(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * 集計結果を破棄します。
+	 */
+	public void reset() {
+		operations.clear();
+	}
+
+	private Operation operation(String function) {
+		Operation operation = operations.get(function);
+		if(operation == null) {
+			operation = operations.computeIfAbsent(function, key -> new Operation());
+		}
+		return operation;
+	}
+
+	private static class Operation {
+
+		final LatencyHistogram latency = new LatencyHistogram();
+
+		final LongAdder inFlight = new LongAdder();
+
+		final LongAdder errors = new LongAdder();
+
+		final LongAdder requestBytes = new LongAdder();
+
+		final LongAdder responseBytes = new LongAdder();
+
+		final ConcurrentHashMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * 機能ごとの集計結果
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 */
+	public static class OperationSnapshot {
+
+		/** 完了したリクエスト数 */
+		private final long count;
+
+		/** 失敗したリクエスト数 */
+		private final long errors;
+
+		/** 実行中のリクエスト数 */
+		private final long inFlight;
+
+		/** リクエストボディの合計バイト数 */
+		private final long requestBytes;
+
+		/** レスポンスボディの合計バイト数 */
+		private final long responseBytes;
+
+		/** レイテンシの平均(ナノ秒) */
+		private final double meanNanos;
+
+		/** レイテンシの中央値(ナノ秒) */
+		private final long p50Nanos;
+
+		/** レイテンシの90パーセンタイル(ナノ秒) */
+		private final long p90Nanos;
+
+		/** レイテンシの99パーセンタイル(ナノ秒) */
+		private final long p99Nanos;
+
+		/** レイテンシの99.9パーセンタイル(ナノ秒) */
+		private final long p999Nanos;
+
+		/** レイテンシの最大値(ナノ秒) */
+		private final long maxNanos;
+
+		/** ステータスコードごとのリクエスト数 */
+		private final Map<Integer, Long> statusCodes;
+
+		OperationSnapshot(Operation operation) {
+			this.count = operation.latency.getCount();
+			this.errors = operation.errors.sum();
+			this.inFlight = operation.inFlight.sum();
+			this.requestBytes = operation.requestBytes.sum();
+			this.responseBytes = operation.responseBytes.sum();
+			this.meanNanos = operation.latency.getMean();
+			this.p50Nanos = operation.latency.getValueAtPercentile(50);
+			this.p90Nanos = operation.latency.getValueAtPercentile(90);
+			this.p99Nanos = operation.latency.getValueAtPercentile(99);
+			this.p999Nanos = operation.latency.getValueAtPercentile(99.9);
+			this.maxNanos = operation.latency.getMax();
+			Map<Integer, Long> statusCodes = new TreeMap<>();
+			for(Map.Entry<Integer, LongAdder> entry : operation.statusCodes.entrySet()) {
+				statusCodes.put(entry.getKey(), entry.getValue().sum());
+			}
+			this.statusCodes = Collections.unmodifiableMap(statusCodes);
+		}
+
+		/**
+		 * 完了したリクエスト数を取得
+		 *
+		 * @return 完了したリクエスト数
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * 失敗したリクエスト数を取得
+		 *
+		 * @return 失敗したリクエスト数
+		 */
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * 実行中のリクエスト数を取得
+		 *
+		 * @return 実行中のリクエスト数
+		 */
+		public long getInFlight() {
+			return inFlight;
+		}
+
+		/**
+		 * リクエストボディの合計バイト数を取得
+		 *
+		 * @return リクエストボディの合計バイト数
+		 */
+		public long getRequestBytes() {
+			return requestBytes;
+		}
+
+		/**
+		 * レスポンスボディの合計バイト数を取得
+		 *
+		 * @return レスポンスボディの合計バイト数
+		 */
+		public long getResponseBytes() {
+			return responseBytes;
+		}
+
+		/**
+		 * レイテンシの平均(ナノ秒)を取得
+		 *
+		 * @return レイテンシの平均(ナノ秒)
+		 */
+		public double getMeanNanos() {
+			return meanNanos;
+		}
+
+		/**
+		 * レイテンシの中央値(ナノ秒)を取得
+		 *
+		 * @return レイテンシの中央値(ナノ秒)
+		 */
+		public long getP50Nanos() {
+			return p50Nanos;
+		}
+
+		/**
+		 * レイテンシの90パーセンタイル(ナノ秒)を取得
+		 *
+		 * @return レイテンシの90パーセンタイル(ナノ秒)
+		 */
+		public long getP90Nanos() {
+			return p90Nanos;
+		}
+
+		/**
+		 * レイテンシの99パーセンタイル(ナノ秒)を取得
+		 *
+		 * @return レイテンシの99パーセンタイル(ナノ秒)
+		 */
+		public long getP99Nanos() {
+			return p99Nanos;
+		}
+
+		/**
+		 * レイテンシの99.9パーセンタイル(ナノ秒)を取得
+		 *
+		 * @return レイテンシの99.9パーセンタイル(ナノ秒)
+		 */
+		public long getP999Nanos() {
+			return p999Nanos;
+		}
+
+		/**
+		 * レイテンシの最大値(ナノ秒)を取得
+		 *
+		 * @return レイテンシの最大値(ナノ秒)
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		/**
+		 * ステータスコードごとのリクエスト数を取得
+		 *
+		 * @return ステータスコードごとのリクエスト数
+		 */
+		public Map<Integer, Long> getStatusCodes() {
+			return statusCodes;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count
+					+ ", errors=" + errors
+					+ ", inFlight=" + inFlight
+					+ ", requestBytes=" + requestBytes
+					+ ", responseBytes=" + responseBytes
+					+ ", meanNanos=" + (long) meanNanos
+					+ ", p50Nanos=" + p50Nanos
+					+ ", p90Nanos=" + p90Nanos
+					+ ", p99Nanos=" + p99Nanos
+					+ ", p999Nanos=" + p999Nanos
+					+ ", maxNanos=" + maxNanos
+					+ ", statusCodes=" + statusCodes;
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ロックを使わずに値を記録するヒストグラム<br>
+ * <br>
+ * HdrHistogram と同様に、値を2の冪ごとの区間に分け、各区間をさらに {@value #SUB_BUCKETS} 等分して数えます。<br>
+ * 記録は配列の1要素への加算だけで完了し、相対誤差は約 {@code 1 / }{@value #HALF_SUB_BUCKETS} に収まります。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+
+	/** 2の冪ごとの区間の分割数 */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** 2の冪ごとの区間の分割数の半分 */
+	public static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+	private static final int BUCKETS = HALF_SUB_BUCKETS * (64 - SUB_BUCKET_BITS) + SUB_BUCKETS;
+
+	/** 区間ごとの件数 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/** 件数 */
+	private final LongAdder count = new LongAdder();
+
+	/** 合計 */
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * 値を記録します。
+	 *
+	 * @param value 値。負の値は 0 として記録します
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		counts.incrementAndGet(index(v));
+		count.increment();
+		sum.add(v);
+	}
+
+	/**
+	 * 記録した件数を取得
+	 *
+	 * @return 件数
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * 記録した値の平均を取得
+	 *
+	 * @return 平均。記録が無い場合は 0
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * 指定したパーセンタイルの値を取得します。<br>
+	 * <br>
+	 * 記録と並行して呼び出した場合は、その時点までのおおよその値を返します。<br>
+	 *
+	 * @param percentile パーセンタイル (0 - 100)
+	 * @return 値。記録が無い場合は 0
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if(total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) {
+				return highestEquivalentValue(i);
+			}
+		}
+		return highestEquivalentValue(BUCKETS - 1);
+	}
+
+	/**
+	 * 記録した最大値を取得します。<br>
+	 * <br>
+	 * 区間の上限を返すため、実際の最大値より最大で相対誤差分だけ大きくなります。<br>
+	 *
+	 * @return 最大値。記録が無い場合は 0
+	 */
+	public long getMax() {
+		for(int i = BUCKETS - 1; i >= 0; i--) {
+			if(counts.get(i) > 0) {
+				return highestEquivalentValue(i);
+			}
+		}
+		return 0;
+	}
+
+	static int index(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return HALF_SUB_BUCKETS * exponent + (int) (value >>> exponent);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if(index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / HALF_SUB_BUCKETS - 1;
+		long subBucket = index - (long) HALF_SUB_BUCKETS * exponent;
+		return ((subBucket + 1) << exponent) - 1;
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.metrics;
+
+/**
+ * リクエストの計測結果を受け取るリスナー<br>
+ * <br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueClient} の各 API の呼び出しの前後で、リクエストを送信したスレッドから呼び出されます。<br>
+ * リクエストの送信を遅らせないよう、実装は短時間で戻るようにしてください。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public interface RequestMetricsListener {
+
+	/**
+	 * リクエストを送信する
+	 *
+	 * @param function 機能名 (例: Push, RunByUserId)
+	 */
+	void onRequestStart(String function);
+
+	/**
+	 * リクエストが完了した
+	 *
+	 * @param function 機能名 (例: Push, RunByUserId)
+	 * @param latencyNanos 送信からレスポンスの読み込みまでの時間(ナノ秒)
+	 * @param requestBytes リクエストボディのバイト数
+	 * @param responseBytes レスポンスボディのバイト数。不明な場合は -1
+	 * @param statusCode ステータスコード。通信に失敗した場合は 0
+	 * @param error 発生した例外。成功した場合は null
+	 */
+	void onRequestEnd(String function, long latencyNanos, long requestBytes, long responseBytes, int statusCode, Throwable error);
+
+}
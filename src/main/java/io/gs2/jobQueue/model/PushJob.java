@@ -17,8 +17,12 @@
 package io.gs2.jobQueue.model;
 
 import java.util.List;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
@@ -137,4 +141,49 @@ public class PushJob implements Serializable {
             .put("args", this.getArgs())
             .put("maxRetry", this.getMaxRetry());
     }
+
+	/**
+	 * {@link #toJson()} と同じ内容を JsonGenerator に直接書き出します。
+	 *
+	 * @param generator 書き出し先
+	 * @throws IOException 書き出しに失敗した
+	 */
+    public void writeJson(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeFieldName("scriptName");
+		writeString(generator, this.getScriptName());
+		generator.writeFieldName("args");
+		writeString(generator, this.getArgs());
+		generator.writeFieldName("maxRetry");
+		if(this.getMaxRetry() == null) {
+			generator.writeNull();
+		} else {
+			generator.writeNumber(this.getMaxRetry());
+		}
+		generator.writeEndObject();
+    }
+
+	/**
+	 * {@link #toJson()} の文字列を UTF-8 にしたものと同じバイト列で文字列を書き出します。<br>
+	 * <br>
+	 * UTF-8 の JsonGenerator はサロゲートペアをエスケープシーケンスで書き出すため、
+	 * サロゲートを含む文字列はエスケープだけを行い、UTF-8 に変換してそのまま書き出します。<br>
+	 */
+	private static void writeString(JsonGenerator generator, String value) throws IOException {
+		if(value == null || !hasSurrogate(value)) {
+			generator.writeString(value);
+			return;
+		}
+		byte[] quoted = new String(JsonStringEncoder.getInstance().quoteAsString(value)).getBytes(StandardCharsets.UTF_8);
+		generator.writeRawUTF8String(quoted, 0, quoted.length);
+	}
+
+	private static boolean hasSurrogate(String value) {
+		for(int i = 0; i < value.length(); i++) {
+			if(Character.isSurrogate(value.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
\ No newline at end of file
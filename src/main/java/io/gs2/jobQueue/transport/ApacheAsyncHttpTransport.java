@@ -0,0 +1,216 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Apache HttpAsyncClient を利用するトランスポート<br>
+ * <br>
+ * ノンブロッキング I/O でリクエストを送信するため、応答を待つ間スレッドを占有しません。
+ * 少数の I/O スレッドで {@link ApacheHttpTransportConfig} の最大コネクション数までのリクエストを同時に送信できます。<br>
+ * Java 8 でも利用でき、{@link io.gs2.jobQueue.Gs2JobQueueAsyncClient} の既定のトランスポートとして使われます。<br>
+ * レスポンスボディはすべて受信してからメモリ上に保持します。<br>
+ * {@link ApacheHttpTransportConfig#getIdleTimeoutMillis()} は使用しません。
+ * 未使用のコネクションは keep-alive の期限を過ぎた時点で破棄します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class ApacheAsyncHttpTransport implements AsyncGs2JobQueueTransport {
+
+	/** HTTP クライアント */
+	private final CloseableHttpAsyncClient httpClient;
+
+	/**
+	 * コンストラクタ。
+	 */
+	public ApacheAsyncHttpTransport() {
+		this(new ApacheHttpTransportConfig());
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param config コネクションプールとソケットの設定
+	 */
+	public ApacheAsyncHttpTransport(ApacheHttpTransportConfig config) {
+		this(createHttpClient(config));
+	}
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * 開始していない HTTP クライアントはここで開始します。<br>
+	 *
+	 * @param httpClient HTTP クライアント
+	 */
+	public ApacheAsyncHttpTransport(CloseableHttpAsyncClient httpClient) {
+		if(httpClient == null) throw new IllegalArgumentException("httpClient is required");
+		this.httpClient = httpClient;
+		if(!httpClient.isRunning()) {
+			httpClient.start();
+		}
+	}
+
+	/**
+	 * 設定に従って HTTP クライアントを生成します。<br>
+	 * <br>
+	 * 生成したクライアントは開始していません。<br>
+	 *
+	 * @param config コネクションプールとソケットの設定
+	 * @return HTTP クライアント
+	 */
+	public static CloseableHttpAsyncClient createHttpClient(ApacheHttpTransportConfig config) {
+		if(config == null) throw new IllegalArgumentException("config is required");
+		PoolingNHttpClientConnectionManager connectionManager;
+		try {
+			connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(IOReactorConfig.custom()
+					.setConnectTimeout(config.getConnectTimeoutMillis())
+					.setSoTimeout(config.getSocketTimeoutMillis())
+					.setTcpNoDelay(config.isTcpNoDelay())
+					.setSoKeepAlive(true)
+					.setSndBufSize(config.getSendBufferSize())
+					.setRcvBufSize(config.getReceiveBufferSize())
+					.build()));
+		} catch (IOReactorException e) {
+			throw new UncheckedIOException(e);
+		}
+		connectionManager.setMaxTotal(config.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+		connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+				.setBufferSize(config.getBufferSize())
+				.build());
+
+		long keepAliveMillis = config.getKeepAliveMillis();
+		return HttpAsyncClients.custom()
+				.useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectTimeout(config.getConnectTimeoutMillis())
+						.setSocketTimeout(config.getSocketTimeoutMillis())
+						.setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+						.build())
+				.setKeepAliveStrategy((response, context) -> {
+					long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return duration > 0 || keepAliveMillis == 0 ? duration : keepAliveMillis;
+				})
+				.build();
+	}
+
+	@Override
+	public Gs2JobQueueResponse execute(HttpRequestBase request) throws IOException {
+		try {
+			return executeAsync(request).get();
+		} catch (InterruptedException e) {
+			request.abort();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for the response");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	public CompletableFuture<Gs2JobQueueResponse> executeAsync(HttpRequestBase request) {
+		CompletableFuture<Gs2JobQueueResponse> future = new CompletableFuture<>();
+		httpClient.execute(request, new FutureCallback<HttpResponse>() {
+
+			@Override
+			public void completed(HttpResponse response) {
+				future.complete(new Response(response));
+			}
+
+			@Override
+			public void failed(Exception e) {
+				future.completeExceptionally(e instanceof IOException ? e : new IOException(e));
+			}
+
+			@Override
+			public void cancelled() {
+				future.completeExceptionally(new IOException("request cancelled"));
+			}
+		});
+		return future;
+	}
+
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+
+	private static class Response extends Gs2JobQueueResponse {
+
+		private final HttpResponse response;
+
+		Response(HttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return response.getStatusLine().getStatusCode();
+		}
+
+		/**
+		 * レスポンスボディを取得します。<br>
+		 * <br>
+		 * HttpAsyncClient は圧縮されたボディを展開しないため、Content-Encoding に従ってここで展開します。<br>
+		 */
+		@Override
+		public InputStream getContent() throws IOException {
+			HttpEntity entity = response.getEntity();
+			if(entity == null) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			return ContentEncoding.decode(entity.getContent(),
+					entity.getContentEncoding() == null ? null : entity.getContentEncoding().getValue());
+		}
+
+		@Override
+		public void close() {
+			EntityUtils.consumeQuietly(response.getEntity());
+		}
+	}
+
+}
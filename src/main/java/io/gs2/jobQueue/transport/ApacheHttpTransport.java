@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Apache HttpClient を利用するトランスポート<br>
+ * <br>
+ * {@link ApacheHttpTransportConfig} を指定すると、コネクションプールの大きさ・keep-alive・ソケットの設定を調整できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class ApacheHttpTransport implements Gs2JobQueueTransport {
+
+	/** HTTP クライアント */
+	private final CloseableHttpClient httpClient;
+
+	/**
+	 * コンストラクタ。
+	 */
+	public ApacheHttpTransport() {
+		this(HttpClients.createSystem());
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param config コネクションプールとソケットの設定
+	 */
+	public ApacheHttpTransport(ApacheHttpTransportConfig config) {
+		this(createHttpClient(config));
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param httpClient HTTP クライアント
+	 */
+	public ApacheHttpTransport(CloseableHttpClient httpClient) {
+		if(httpClient == null) throw new IllegalArgumentException("httpClient is required");
+		this.httpClient = httpClient;
+	}
+
+	/**
+	 * 設定に従って HTTP クライアントを生成します。<br>
+	 * <br>
+	 * プロキシなどのシステムプロパティは {@link HttpClients#createSystem()} と同様に反映します。<br>
+	 *
+	 * @param config コネクションプールとソケットの設定
+	 * @return HTTP クライアント
+	 */
+	public static CloseableHttpClient createHttpClient(ApacheHttpTransportConfig config) {
+		if(config == null) throw new IllegalArgumentException("config is required");
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory>create()
+						.register("http", PlainConnectionSocketFactory.getSocketFactory())
+						.register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+						.build());
+		connectionManager.setMaxTotal(config.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+		connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivityMillis());
+		connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+				.setTcpNoDelay(config.isTcpNoDelay())
+				.setSoKeepAlive(true)
+				.setSoTimeout(config.getSocketTimeoutMillis())
+				.setSndBufSize(config.getSendBufferSize())
+				.setRcvBufSize(config.getReceiveBufferSize())
+				.build());
+		connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+				.setBufferSize(config.getBufferSize())
+				.build());
+
+		long keepAliveMillis = config.getKeepAliveMillis();
+		HttpClientBuilder builder = HttpClients.custom()
+				.useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(RequestConfig.custom()
+						.setConnectTimeout(config.getConnectTimeoutMillis())
+						.setSocketTimeout(config.getSocketTimeoutMillis())
+						.setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+						.build())
+				.setKeepAliveStrategy((response, context) -> {
+					long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return duration > 0 || keepAliveMillis == 0 ? duration : keepAliveMillis;
+				});
+		if(config.getIdleTimeoutMillis() > 0) {
+			builder.evictExpiredConnections()
+					.evictIdleConnections(config.getIdleTimeoutMillis(), TimeUnit.MILLISECONDS);
+		}
+		return builder.build();
+	}
+
+	@Override
+	public Gs2JobQueueResponse execute(HttpRequestBase request) throws IOException {
+		return new Response(httpClient.execute(request));
+	}
+
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+
+	private static class Response extends Gs2JobQueueResponse {
+
+		private final CloseableHttpResponse response;
+
+		Response(CloseableHttpResponse response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return response.getStatusLine().getStatusCode();
+		}
+
+		/**
+		 * レスポンスボディを取得します。<br>
+		 * <br>
+		 * 既定の HttpClient は圧縮されたボディを自動的に展開しますが、
+		 * 展開を無効にした HttpClient が渡された場合はここで Content-Encoding に従って展開します。<br>
+		 */
+		@Override
+		public InputStream getContent() throws IOException {
+			HttpEntity entity = response.getEntity();
+			if(entity == null) {
+				return new ByteArrayInputStream(new byte[0]);
+			}
+			return ContentEncoding.decode(entity.getContent(),
+					entity.getContentEncoding() == null ? null : entity.getContentEncoding().getValue());
+		}
+
+		@Override
+		public void close() throws IOException {
+			response.close();
+		}
+	}
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+/**
+ * {@link ApacheHttpTransport} のコネクションプールとソケットの設定<br>
+ * <br>
+ * プールしたコネクションを keep-alive で再利用することで、
+ * リクエストのたびに TCP/TLS のハンドシェイクが発生するのを避けます。<br>
+ * サイズ・時間に 0 を指定した項目は OS / HttpClient の既定値を使用します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class ApacheHttpTransportConfig {
+
+	/** 最大コネクション数 */
+	private int maxConnections = 256;
+
+	/** 接続先ごとの最大コネクション数 */
+	private int maxConnectionsPerRoute = 64;
+
+	/** 接続タイムアウト(ミリ秒) */
+	private int connectTimeoutMillis = 10000;
+
+	/** 応答の読み込みタイムアウト(ミリ秒) */
+	private int socketTimeoutMillis = 60000;
+
+	/** プールからコネクションを取得するまでのタイムアウト(ミリ秒) */
+	private int connectionRequestTimeoutMillis = 10000;
+
+	/** 未使用のコネクションを破棄するまでの時間(ミリ秒) */
+	private long idleTimeoutMillis = 30000;
+
+	/** 再利用前に接続を検証するまでの未使用時間(ミリ秒) */
+	private int validateAfterInactivityMillis = 2000;
+
+	/** サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒) */
+	private long keepAliveMillis = 30000;
+
+	/** TCP_NODELAY を有効にするか */
+	private boolean tcpNoDelay = true;
+
+	/** 送信バッファサイズ(バイト) */
+	private int sendBufferSize = 0;
+
+	/** 受信バッファサイズ(バイト) */
+	private int receiveBufferSize = 0;
+
+	/** コネクションごとの入出力バッファサイズ(バイト) */
+	private int bufferSize = 8192;
+
+	/**
+	 * 最大コネクション数を取得
+	 *
+	 * @return 最大コネクション数
+	 */
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	/**
+	 * 最大コネクション数を設定
+	 *
+	 * @param maxConnections 最大コネクション数
+	 */
+	public void setMaxConnections(int maxConnections) {
+		if(maxConnections < 1) throw new IllegalArgumentException("maxConnections must be positive");
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * 最大コネクション数を設定
+	 *
+	 * @param maxConnections 最大コネクション数
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withMaxConnections(int maxConnections) {
+		setMaxConnections(maxConnections);
+		return this;
+	}
+
+	/**
+	 * 接続先ごとの最大コネクション数を取得
+	 *
+	 * @return 接続先ごとの最大コネクション数
+	 */
+	public int getMaxConnectionsPerRoute() {
+		return maxConnectionsPerRoute;
+	}
+
+	/**
+	 * 接続先ごとの最大コネクション数を設定<br>
+	 * 同時に実行するリクエスト数以上を指定すると、バースト時にも新しい接続を確立せずに済みます。<br>
+	 *
+	 * @param maxConnectionsPerRoute 接続先ごとの最大コネクション数
+	 */
+	public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+		if(maxConnectionsPerRoute < 1) throw new IllegalArgumentException("maxConnectionsPerRoute must be positive");
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	/**
+	 * 接続先ごとの最大コネクション数を設定
+	 *
+	 * @param maxConnectionsPerRoute 接続先ごとの最大コネクション数
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+		setMaxConnectionsPerRoute(maxConnectionsPerRoute);
+		return this;
+	}
+
+	/**
+	 * 接続タイムアウト(ミリ秒)を取得
+	 *
+	 * @return 接続タイムアウト(ミリ秒)
+	 */
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	/**
+	 * 接続タイムアウト(ミリ秒)を設定
+	 *
+	 * @param connectTimeoutMillis 接続タイムアウト(ミリ秒)
+	 */
+	public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		if(connectTimeoutMillis < 0) throw new IllegalArgumentException("connectTimeoutMillis must not be negative");
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	/**
+	 * 接続タイムアウト(ミリ秒)を設定
+	 *
+	 * @param connectTimeoutMillis 接続タイムアウト(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withConnectTimeoutMillis(int connectTimeoutMillis) {
+		setConnectTimeoutMillis(connectTimeoutMillis);
+		return this;
+	}
+
+	/**
+	 * 応答の読み込みタイムアウト(ミリ秒)を取得
+	 *
+	 * @return 応答の読み込みタイムアウト(ミリ秒)
+	 */
+	public int getSocketTimeoutMillis() {
+		return socketTimeoutMillis;
+	}
+
+	/**
+	 * 応答の読み込みタイムアウト(ミリ秒)を設定
+	 *
+	 * @param socketTimeoutMillis 応答の読み込みタイムアウト(ミリ秒)
+	 */
+	public void setSocketTimeoutMillis(int socketTimeoutMillis) {
+		if(socketTimeoutMillis < 0) throw new IllegalArgumentException("socketTimeoutMillis must not be negative");
+		this.socketTimeoutMillis = socketTimeoutMillis;
+	}
+
+	/**
+	 * 応答の読み込みタイムアウト(ミリ秒)を設定
+	 *
+	 * @param socketTimeoutMillis 応答の読み込みタイムアウト(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withSocketTimeoutMillis(int socketTimeoutMillis) {
+		setSocketTimeoutMillis(socketTimeoutMillis);
+		return this;
+	}
+
+	/**
+	 * プールからコネクションを取得するまでのタイムアウト(ミリ秒)を取得
+	 *
+	 * @return プールからコネクションを取得するまでのタイムアウト(ミリ秒)
+	 */
+	public int getConnectionRequestTimeoutMillis() {
+		return connectionRequestTimeoutMillis;
+	}
+
+	/**
+	 * プールからコネクションを取得するまでのタイムアウト(ミリ秒)を設定
+	 *
+	 * @param connectionRequestTimeoutMillis プールからコネクションを取得するまでのタイムアウト(ミリ秒)
+	 */
+	public void setConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+		if(connectionRequestTimeoutMillis < 0) throw new IllegalArgumentException("connectionRequestTimeoutMillis must not be negative");
+		this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+	}
+
+	/**
+	 * プールからコネクションを取得するまでのタイムアウト(ミリ秒)を設定
+	 *
+	 * @param connectionRequestTimeoutMillis プールからコネクションを取得するまでのタイムアウト(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withConnectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+		setConnectionRequestTimeoutMillis(connectionRequestTimeoutMillis);
+		return this;
+	}
+
+	/**
+	 * 未使用のコネクションを破棄するまでの時間(ミリ秒)を取得
+	 *
+	 * @return 未使用のコネクションを破棄するまでの時間(ミリ秒)
+	 */
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	/**
+	 * 未使用のコネクションを破棄するまでの時間(ミリ秒)を設定<br>
+	 * 0 の場合は未使用のコネクションを破棄しません。<br>
+	 *
+	 * @param idleTimeoutMillis 未使用のコネクションを破棄するまでの時間(ミリ秒)
+	 */
+	public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+		if(idleTimeoutMillis < 0) throw new IllegalArgumentException("idleTimeoutMillis must not be negative");
+		this.idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+	/**
+	 * 未使用のコネクションを破棄するまでの時間(ミリ秒)を設定
+	 *
+	 * @param idleTimeoutMillis 未使用のコネクションを破棄するまでの時間(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withIdleTimeoutMillis(long idleTimeoutMillis) {
+		setIdleTimeoutMillis(idleTimeoutMillis);
+		return this;
+	}
+
+	/**
+	 * 再利用前に接続を検証するまでの未使用時間(ミリ秒)を取得
+	 *
+	 * @return 再利用前に接続を検証するまでの未使用時間(ミリ秒)
+	 */
+	public int getValidateAfterInactivityMillis() {
+		return validateAfterInactivityMillis;
+	}
+
+	/**
+	 * 再利用前に接続を検証するまでの未使用時間(ミリ秒)を設定
+	 *
+	 * @param validateAfterInactivityMillis 再利用前に接続を検証するまでの未使用時間(ミリ秒)
+	 */
+	public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+		if(validateAfterInactivityMillis < 0) throw new IllegalArgumentException("validateAfterInactivityMillis must not be negative");
+		this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+	}
+
+	/**
+	 * 再利用前に接続を検証するまでの未使用時間(ミリ秒)を設定
+	 *
+	 * @param validateAfterInactivityMillis 再利用前に接続を検証するまでの未使用時間(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+		setValidateAfterInactivityMillis(validateAfterInactivityMillis);
+		return this;
+	}
+
+	/**
+	 * サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)を取得
+	 *
+	 * @return サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)
+	 */
+	public long getKeepAliveMillis() {
+		return keepAliveMillis;
+	}
+
+	/**
+	 * サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)を設定<br>
+	 * 0 の場合は期限を設けません。<br>
+	 *
+	 * @param keepAliveMillis サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)
+	 */
+	public void setKeepAliveMillis(long keepAliveMillis) {
+		if(keepAliveMillis < 0) throw new IllegalArgumentException("keepAliveMillis must not be negative");
+		this.keepAliveMillis = keepAliveMillis;
+	}
+
+	/**
+	 * サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)を設定
+	 *
+	 * @param keepAliveMillis サーバーが Keep-Alive ヘッダを返さなかった場合にコネクションを保持する時間(ミリ秒)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withKeepAliveMillis(long keepAliveMillis) {
+		setKeepAliveMillis(keepAliveMillis);
+		return this;
+	}
+
+	/**
+	 * TCP_NODELAY を有効にするかを取得
+	 *
+	 * @return TCP_NODELAY を有効にするか
+	 */
+	public boolean isTcpNoDelay() {
+		return tcpNoDelay;
+	}
+
+	/**
+	 * TCP_NODELAY を有効にするかを設定
+	 *
+	 * @param tcpNoDelay TCP_NODELAY を有効にするか
+	 */
+	public void setTcpNoDelay(boolean tcpNoDelay) {
+		this.tcpNoDelay = tcpNoDelay;
+	}
+
+	/**
+	 * TCP_NODELAY を有効にするかを設定
+	 *
+	 * @param tcpNoDelay TCP_NODELAY を有効にするか
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withTcpNoDelay(boolean tcpNoDelay) {
+		setTcpNoDelay(tcpNoDelay);
+		return this;
+	}
+
+	/**
+	 * 送信バッファサイズ(バイト)を取得
+	 *
+	 * @return 送信バッファサイズ(バイト)
+	 */
+	public int getSendBufferSize() {
+		return sendBufferSize;
+	}
+
+	/**
+	 * 送信バッファサイズ(バイト)を設定
+	 *
+	 * @param sendBufferSize 送信バッファサイズ(バイト)。0 の場合は OS の既定値
+	 */
+	public void setSendBufferSize(int sendBufferSize) {
+		if(sendBufferSize < 0) throw new IllegalArgumentException("sendBufferSize must not be negative");
+		this.sendBufferSize = sendBufferSize;
+	}
+
+	/**
+	 * 送信バッファサイズ(バイト)を設定
+	 *
+	 * @param sendBufferSize 送信バッファサイズ(バイト)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withSendBufferSize(int sendBufferSize) {
+		setSendBufferSize(sendBufferSize);
+		return this;
+	}
+
+	/**
+	 * 受信バッファサイズ(バイト)を取得
+	 *
+	 * @return 受信バッファサイズ(バイト)
+	 */
+	public int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
+	/**
+	 * 受信バッファサイズ(バイト)を設定
+	 *
+	 * @param receiveBufferSize 受信バッファサイズ(バイト)。0 の場合は OS の既定値
+	 */
+	public void setReceiveBufferSize(int receiveBufferSize) {
+		if(receiveBufferSize < 0) throw new IllegalArgumentException("receiveBufferSize must not be negative");
+		this.receiveBufferSize = receiveBufferSize;
+	}
+
+	/**
+	 * 受信バッファサイズ(バイト)を設定
+	 *
+	 * @param receiveBufferSize 受信バッファサイズ(バイト)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withReceiveBufferSize(int receiveBufferSize) {
+		setReceiveBufferSize(receiveBufferSize);
+		return this;
+	}
+
+	/**
+	 * コネクションごとの入出力バッファサイズ(バイト)を取得
+	 *
+	 * @return コネクションごとの入出力バッファサイズ(バイト)
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * コネクションごとの入出力バッファサイズ(バイト)を設定
+	 *
+	 * @param bufferSize コネクションごとの入出力バッファサイズ(バイト)
+	 */
+	public void setBufferSize(int bufferSize) {
+		if(bufferSize < 1) throw new IllegalArgumentException("bufferSize must be positive");
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * コネクションごとの入出力バッファサイズ(バイト)を設定
+	 *
+	 * @param bufferSize コネクションごとの入出力バッファサイズ(バイト)
+	 * @return this
+	 */
+	public ApacheHttpTransportConfig withBufferSize(int bufferSize) {
+		setBufferSize(bufferSize);
+		return this;
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * 応答をスレッドで待たずにリクエストを送信できるトランスポート<br>
+ * <br>
+ * {@link io.gs2.jobQueue.Gs2JobQueueAsyncClient} はトランスポートがこのインターフェースを実装している場合、
+ * 応答を待つ間スレッドを占有せずにリクエストを送信します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public interface AsyncGs2JobQueueTransport extends Gs2JobQueueTransport {
+
+	/**
+	 * リクエストを非同期に送信します。<br>
+	 * <br>
+	 * 返す Future はレスポンスボディをすべて受信してから完了します。
+	 * 通信に失敗した場合は IOException で例外的に完了します。<br>
+	 * 完了したレスポンスは呼び出し側で close してください。<br>
+	 *
+	 * @param request 署名済みのリクエスト
+	 * @return レスポンス
+	 */
+	CompletableFuture<Gs2JobQueueResponse> executeAsync(HttpRequestBase request);
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP の Content-Encoding (gzip / deflate) の圧縮と展開<br>
+ * <br>
+ * 圧縮に使う {@link Deflater} は初期化のたびにネイティブのバッファを確保するため、
+ * スレッドに紐づけずに小さなプールで再利用します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public final class ContentEncoding {
+
+	/** gzip */
+	public static final String GZIP = "gzip";
+
+	/** deflate */
+	public static final String DEFLATE = "deflate";
+
+	/** Accept-Encoding に指定する値 */
+	public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	/** gzip のヘッダ (圧縮方式 deflate、フラグ・更新時刻なし) */
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+	/** gzip のトレーラのサイズ */
+	private static final int GZIP_TRAILER_SIZE = 8;
+
+	/** 再利用する Deflater */
+	private static final ArrayBlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+
+	private ContentEncoding() {
+	}
+
+	/**
+	 * バイト列を gzip で圧縮します。
+	 *
+	 * @param b バイト列
+	 * @param off 開始位置
+	 * @param len 長さ
+	 * @param level 圧縮レベル (0-9)。{@link Deflater#DEFAULT_COMPRESSION} も指定できます
+	 * @return 圧縮したバイト列
+	 */
+	public static byte[] gzip(byte[] b, int off, int len, int level) {
+		Deflater deflater = DEFLATERS.poll();
+		if(deflater == null) {
+			deflater = new Deflater(level, true);
+		} else {
+			deflater.setLevel(level);
+		}
+		try {
+			deflater.setInput(b, off, len);
+			deflater.finish();
+			byte[] out = Arrays.copyOf(GZIP_HEADER, GZIP_HEADER.length + len + (len >> 3) + 64);
+			int count = GZIP_HEADER.length;
+			while(!deflater.finished()) {
+				if(count == out.length - GZIP_TRAILER_SIZE) {
+					out = Arrays.copyOf(out, out.length * 2);
+				}
+				count += deflater.deflate(out, count, out.length - GZIP_TRAILER_SIZE - count);
+			}
+			CRC32 crc = new CRC32();
+			crc.update(b, off, len);
+			count = writeIntLE(out, count, (int) crc.getValue());
+			count = writeIntLE(out, count, len);
+			return count == out.length ? out : Arrays.copyOf(out, count);
+		} finally {
+			deflater.reset();
+			if(!DEFLATERS.offer(deflater)) {
+				deflater.end();
+			}
+		}
+	}
+
+	private static int writeIntLE(byte[] out, int offset, int value) {
+		out[offset] = (byte) value;
+		out[offset + 1] = (byte) (value >> 8);
+		out[offset + 2] = (byte) (value >> 16);
+		out[offset + 3] = (byte) (value >> 24);
+		return offset + 4;
+	}
+
+	/**
+	 * Content-Encoding に従ってレスポンスボディを展開するストリームを取得します。<br>
+	 * <br>
+	 * deflate は zlib 形式を想定し、zlib のヘッダが無い場合は raw deflate として展開します。<br>
+	 *
+	 * @param content レスポンスボディ
+	 * @param contentEncoding Content-Encoding。null の場合は展開しません
+	 * @return 展開したレスポンスボディ
+	 * @throws IOException 読み込みに失敗した、または未対応の Content-Encoding
+	 */
+	public static InputStream decode(InputStream content, String contentEncoding) throws IOException {
+		if(contentEncoding == null) {
+			return content;
+		}
+		String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+		switch(encoding) {
+		case "":
+		case "identity":
+			return content;
+		case GZIP:
+		case "x-gzip":
+			return new GZIPInputStream(content);
+		case DEFLATE:
+			PushbackInputStream pushback = new PushbackInputStream(content, 2);
+			byte[] header = new byte[2];
+			int read = 0;
+			while(read < 2) {
+				int n = pushback.read(header, read, 2 - read);
+				if(n < 0) {
+					break;
+				}
+				read += n;
+			}
+			pushback.unread(header, 0, read);
+			boolean zlib = read == 2 && (header[0] & 0x0f) == Deflater.DEFLATED
+					&& (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+			Inflater inflater = new Inflater(!zlib);
+			return new InflaterInputStream(pushback, inflater) {
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						inflater.end();
+					}
+				}
+			};
+		default:
+			throw new IOException("unsupported Content-Encoding: " + contentEncoding);
+		}
+	}
+
+}
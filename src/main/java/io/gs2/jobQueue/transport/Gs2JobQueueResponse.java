@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import io.gs2.exception.BadGatewayException;
+import io.gs2.exception.BadRequestException;
+import io.gs2.exception.ConflictException;
+import io.gs2.exception.InternalServerErrorException;
+import io.gs2.exception.NotFoundException;
+import io.gs2.exception.QuotaExceedException;
+import io.gs2.exception.RequestTimeoutException;
+import io.gs2.exception.ServiceUnavailableException;
+import io.gs2.exception.UnauthorizedException;
+import io.gs2.jobQueue.util.JsonSupport;
+
+/**
+ * トランスポートが受信したレスポンス
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public abstract class Gs2JobQueueResponse implements Closeable {
+
+	/**
+	 * ステータスコードを取得
+	 *
+	 * @return ステータスコード
+	 */
+	public abstract int getStatusCode();
+
+	/**
+	 * レスポンスボディを取得
+	 *
+	 * @return レスポンスボディ。ボディが無い場合は空のストリーム
+	 * @throws IOException 読み込みに失敗した
+	 */
+	public abstract InputStream getContent() throws IOException;
+
+	/**
+	 * ステータスコードが成功を示していることを確認します。<br>
+	 * <br>
+	 * 失敗を示している場合はレスポンスを閉じ、ステータスコードに対応する例外を送出します。<br>
+	 *
+	 * @throws IOException レスポンスボディの読み込みに失敗した
+	 */
+	public void ensureSuccess() throws IOException {
+		int statusCode = getStatusCode();
+		if(statusCode >= 200 && statusCode < 300) {
+			return;
+		}
+		String message;
+		try {
+			message = readAsString();
+		} finally {
+			close();
+		}
+		switch(statusCode) {
+		case 400: throw new BadRequestException(message);
+		case 401: throw new UnauthorizedException(message);
+		case 402: throw new QuotaExceedException(message);
+		case 404: throw new NotFoundException(message);
+		case 409: throw new ConflictException(message);
+		case 502: throw new BadGatewayException(message);
+		case 503: throw new ServiceUnavailableException(message);
+		case 504: throw new RequestTimeoutException(message);
+		default: throw new InternalServerErrorException(message);
+		}
+	}
+
+	/**
+	 * レスポンスボディを JSON として読み込みます。
+	 *
+	 * @param clazz 読み込む型
+	 * @param <U> 読み込む型
+	 * @return 読み込んだ値。ボディが空の場合は null
+	 * @throws IOException 読み込みに失敗した
+	 */
+	public <U> U readValue(Class<U> clazz) throws IOException {
+		byte[] body = readAsBytes();
+		if(body.length == 0) {
+			return null;
+		}
+		return JsonSupport.MAPPER.readValue(body, clazz);
+	}
+
+	/**
+	 * レスポンスボディを文字列として読み込みます。
+	 *
+	 * @return レスポンスボディ
+	 * @throws IOException 読み込みに失敗した
+	 */
+	public String readAsString() throws IOException {
+		return new String(readAsBytes(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * レスポンスボディをバイト列として読み込みます。
+	 *
+	 * @return レスポンスボディ
+	 * @throws IOException 読み込みに失敗した
+	 */
+	public byte[] readAsBytes() throws IOException {
+		try(InputStream content = getContent()) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			byte[] chunk = new byte[4096];
+			int read;
+			while((read = content.read(chunk)) != -1) {
+				buffer.write(chunk, 0, read);
+			}
+			return buffer.toByteArray();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * 署名済みの HTTP リクエストを送信するトランスポート
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public interface Gs2JobQueueTransport extends Closeable {
+
+	/**
+	 * リクエストを送信します。<br>
+	 * <br>
+	 * 返したレスポンスは呼び出し側で close してください。<br>
+	 *
+	 * @param request 署名済みのリクエスト
+	 * @return レスポンス
+	 * @throws IOException 通信に失敗した
+	 */
+	Gs2JobQueueResponse execute(HttpRequestBase request) throws IOException;
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 名前付きのデーモンスレッドを生成する ThreadFactory
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class DaemonThreadFactory implements ThreadFactory {
+
+	/** スレッド名の接頭辞 */
+	private final String prefix;
+
+	/** 生成したスレッド数 */
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param prefix スレッド名の接頭辞
+	 */
+	public DaemonThreadFactory(String prefix) {
+		this.prefix = prefix;
+	}
+
+	@Override
+	public Thread newThread(Runnable runnable) {
+		Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+}
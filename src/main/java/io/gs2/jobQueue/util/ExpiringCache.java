@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 有効期限と最大件数を持つキャッシュ<br>
+ * <br>
+ * 最大件数を超えた場合は最も長く参照されていない要素から破棄します。<br>
+ * 読み込み中に {@link #invalidate(Object)} / {@link #invalidateAll()} が呼び出された場合、
+ * 読み込んだ値は古い可能性があるためキャッシュしません。<br>
+ * キャッシュから値を返す処理はロックを取得しないため、多数のスレッドから同時に呼び出しても競合しません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+public class ExpiringCache<K, V> {
+
+	/** 有効期間(ナノ秒) */
+	private final long ttlNanos;
+
+	/** 最大件数 */
+	private final int maxSize;
+
+	/** 要素 */
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	/** 最大件数を超えた要素の破棄を1スレッドずつ行うためのロック */
+	private final Object evictionLock = new Object();
+
+	/** 無効化した回数 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/** キャッシュから値を返した回数 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/** 値を読み込んだ回数 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param ttl 有効期間
+	 * @param unit 有効期間の単位
+	 * @param maxSize 最大件数
+	 */
+	public ExpiringCache(long ttl, TimeUnit unit, int maxSize) {
+		if(ttl <= 0) throw new IllegalArgumentException("ttl must be positive");
+		if(unit == null) throw new IllegalArgumentException("unit is required");
+		if(maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+		this.ttlNanos = unit.toNanos(ttl);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 値を取得します。<br>
+	 * <br>
+	 * キャッシュに有効な値がない場合は loader で読み込み、結果をキャッシュします。<br>
+	 * loader が null を返した場合や例外を送出した場合はキャッシュしません。<br>
+	 * 読み込みはロックの外で実行するため、同じキーを同時に読み込むことがあります。<br>
+	 *
+	 * @param key キー
+	 * @param loader 値を読み込む関数
+	 * @return 値
+	 */
+	public V get(K key, Supplier<V> loader) {
+		Entry<V> entry = entries.get(key);
+		if(entry != null) {
+			long now = System.nanoTime();
+			if(now - entry.expiresAt < 0) {
+				entry.lastAccess = now;
+				hitCount.increment();
+				return entry.value;
+			}
+			entries.remove(key, entry);
+		}
+		missCount.increment();
+		long loadingGeneration = generation.get();
+		V value = loader.get();
+		if(value != null && generation.get() == loadingGeneration) {
+			long now = System.nanoTime();
+			Entry<V> loaded = new Entry<>(value, now + ttlNanos, now);
+			entries.put(key, loaded);
+			// 追加した後に無効化された場合は、無効化より前に読み込んだ値のため取り除く
+			if(generation.get() != loadingGeneration) {
+				entries.remove(key, loaded);
+			}
+			if(entries.size() > maxSize) {
+				evict();
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 最大件数に収まるまで、最も長く参照されていない要素を破棄します。
+	 */
+	private void evict() {
+		synchronized(evictionLock) {
+			while(entries.size() > maxSize) {
+				Map.Entry<K, Entry<V>> eldest = null;
+				for(Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+					if(eldest == null || candidate.getValue().lastAccess - eldest.getValue().lastAccess < 0) {
+						eldest = candidate;
+					}
+				}
+				if(eldest == null) {
+					return;
+				}
+				entries.remove(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * 値を無効化します。
+	 *
+	 * @param key キー
+	 */
+	public void invalidate(K key) {
+		generation.incrementAndGet();
+		entries.remove(key);
+	}
+
+	/**
+	 * すべての値を無効化します。
+	 */
+	public void invalidateAll() {
+		generation.incrementAndGet();
+		entries.clear();
+	}
+
+	/**
+	 * キャッシュしている件数を取得します。<br>
+	 * 有効期限切れでまだ破棄されていない要素を含みます。<br>
+	 *
+	 * @return キャッシュしている件数
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * キャッシュから値を返した回数を取得します。
+	 *
+	 * @return キャッシュから値を返した回数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 値を読み込んだ回数を取得します。
+	 *
+	 * @return 値を読み込んだ回数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	private static class Entry<V> {
+
+		final V value;
+
+		final long expiresAt;
+
+		/** 最後に参照した時刻。破棄する要素の選択にだけ使うため、更新の競合は許容する */
+		volatile long lastAccess;
+
+		Entry(V value, long expiresAt, long lastAccess) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+}
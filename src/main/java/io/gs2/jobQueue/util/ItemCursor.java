@@ -0,0 +1,194 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.gs2.jobQueue.transport.Gs2JobQueueResponse;
+
+/**
+ * 一覧取得のレスポンスを1要素ずつ読み出すカーソル<br>
+ * <br>
+ * レスポンスボディの items 配列を JsonParser で先頭から順に読み込み、要素を1件デコードするごとに返します。<br>
+ * ページ全体を List として保持しないため、1ページの件数が多い場合もメモリ使用量は1要素分に収まります。<br>
+ * items 配列中の null の要素は読み飛ばします。<br>
+ * 読み出しを終えたら必ず {@link #close()} を呼び出してください。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ * @param <T> 要素の型
+ */
+public class ItemCursor<T> implements Iterator<T>, Closeable {
+
+	private static final ObjectMapper MAPPER = JsonSupport.MAPPER;
+
+	private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+	/** レスポンス */
+	private final Gs2JobQueueResponse response;
+
+	/** 要素の型 */
+	private final Class<T> itemType;
+
+	/** パーサー */
+	private final JsonParser parser;
+
+	/** items 配列の中を読んでいるか */
+	private boolean inItems;
+
+	/** 読み出しを終えたか */
+	private boolean finished;
+
+	/** 次に返す要素が読み込み済みか */
+	private boolean ready;
+
+	/** 次のページを読み込むためのトークン */
+	private String nextPageToken;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param response 成功を示すレスポンス
+	 * @param itemType 要素の型
+	 * @throws IOException 読み込みに失敗した
+	 */
+	public ItemCursor(Gs2JobQueueResponse response, Class<T> itemType) throws IOException {
+		this.response = response;
+		this.itemType = itemType;
+		this.parser = JSON_FACTORY.createParser(response.getContent());
+		try {
+			if(parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IOException("unexpected response body");
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(ready) {
+			return true;
+		}
+		if(finished) {
+			return false;
+		}
+		try {
+			if(!inItems && !seekItems()) {
+				close();
+				return false;
+			}
+			JsonToken token;
+			while((token = parser.nextToken()) == JsonToken.VALUE_NULL) {
+				// null の要素は読み飛ばす
+			}
+			if(token == JsonToken.START_OBJECT) {
+				ready = true;
+				return true;
+			}
+			if(token != JsonToken.END_ARRAY) {
+				throw new IOException("unexpected item in items");
+			}
+			inItems = false;
+			if(!seekItems()) {
+				close();
+			}
+			return false;
+		} catch (IOException e) {
+			closeQuietly();
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		ready = false;
+		try {
+			return MAPPER.readValue(parser, itemType);
+		} catch (IOException e) {
+			closeQuietly();
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 次のページを読み込むためのトークンを取得<br>
+	 * <br>
+	 * レスポンス中で items より後ろに出現する場合があるため、すべての要素を読み出してから参照してください。<br>
+	 *
+	 * @return 次のページを読み込むためのトークン
+	 */
+	public String getNextPageToken() {
+		return nextPageToken;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		ready = false;
+		try {
+			parser.close();
+		} finally {
+			response.close();
+		}
+	}
+
+	/**
+	 * 最上位のフィールドを読み進め、items 配列の先頭で止まります。
+	 *
+	 * @return items 配列が見つかった
+	 */
+	private boolean seekItems() throws IOException {
+		JsonToken token;
+		while((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if("items".equals(field) && value == JsonToken.START_ARRAY) {
+				inItems = true;
+				return true;
+			}
+			if("nextPageToken".equals(field)) {
+				nextPageToken = value == JsonToken.VALUE_NULL ? null : parser.getText();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		if(token != JsonToken.END_OBJECT) {
+			throw new IOException("unexpected response body");
+		}
+		return false;
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException ignore) {
+		}
+	}
+
+}
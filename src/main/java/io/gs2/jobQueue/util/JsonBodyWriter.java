@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.transport.ContentEncoding;
+
+/**
+ * リクエストボディを JsonGenerator で直接書き出すライター<br>
+ * <br>
+ * ObjectNode のツリーや中間の String を作らずに、再利用するバッファへ UTF-8 で書き出します。<br>
+ * 返すエンティティはボディと同じ大きさの専用の配列を持つため、送信を待たずに次の書き出しを行っても内容は変わりません。
+ * 非同期クライアントのように、書き出したスレッドとは別のスレッドが後から送信する場合も安全です。<br>
+ * バッファはスレッドに結び付けずにすべてのスレッドで共有するプールから借りるため、
+ * 仮想スレッドのように短命なスレッドを大量に使う場合もスレッドごとにバッファを確保しません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class JsonBodyWriter {
+
+	/** 再利用するバッファの初期サイズ */
+	private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+	/** これより大きく伸びたバッファは再利用せずに破棄する */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/** プールに保持するバッファの最大数 */
+	private static final int MAX_POOLED_BUFFERS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	/** 書き出しに使っていないバッファ */
+	private static final ConcurrentLinkedQueue<Buffer> POOL = new ConcurrentLinkedQueue<>();
+
+	/** プールに保持しているバッファの数 */
+	private static final AtomicInteger POOLED = new AtomicInteger();
+
+	private JsonBodyWriter() {
+	}
+
+	/**
+	 * push のリクエストボディを書き出します。
+	 *
+	 * @param request リクエストパラメータ
+	 * @return リクエストボディ
+	 */
+	public static ByteArrayEntity push(PushRequest request) {
+		return push(request, -1, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * push のリクエストボディを書き出します。<br>
+	 * <br>
+	 * 書き出したボディが compressionThreshold バイトを超える場合は gzip で圧縮し、
+	 * Content-Encoding を設定したエンティティを返します。<br>
+	 *
+	 * @param request リクエストパラメータ
+	 * @param compressionThreshold 圧縮するボディの最小サイズ(バイト)。負の値の場合は圧縮しません
+	 * @param compressionLevel 圧縮レベル
+	 * @return リクエストボディ
+	 */
+	public static ByteArrayEntity push(PushRequest request, int compressionThreshold, int compressionLevel) {
+		Buffer buffer = acquire();
+		try {
+			return write(request, buffer, compressionThreshold, compressionLevel);
+		} finally {
+			recycle(buffer);
+		}
+	}
+
+	private static ByteArrayEntity write(PushRequest request, Buffer buffer, int compressionThreshold, int compressionLevel) {
+		try(JsonGenerator generator = JSON_FACTORY.createGenerator(buffer, JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			if(request.getJobs() != null) {
+				generator.writeArrayFieldStart("jobs");
+				for(PushJob job : request.getJobs()) {
+					job.writeJson(generator);
+				}
+				generator.writeEndArray();
+			}
+			generator.writeEndObject();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if(compressionThreshold >= 0 && buffer.size() > compressionThreshold) {
+			return buffer.toCompressedEntity(compressionLevel);
+		}
+		return buffer.toEntity();
+	}
+
+	private static Buffer acquire() {
+		Buffer buffer = POOL.poll();
+		if(buffer == null) {
+			return new Buffer();
+		}
+		POOLED.decrementAndGet();
+		buffer.reset();
+		return buffer;
+	}
+
+	private static void recycle(Buffer buffer) {
+		if(buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+			return;
+		}
+		if(POOLED.incrementAndGet() > MAX_POOLED_BUFFERS) {
+			POOLED.decrementAndGet();
+			return;
+		}
+		POOL.offer(buffer);
+	}
+
+	private static class Buffer extends ByteArrayOutputStream {
+
+		Buffer() {
+			super(INITIAL_BUFFER_SIZE);
+		}
+
+		int capacity() {
+			return buf.length;
+		}
+
+		ByteArrayEntity toEntity() {
+			return new ByteArrayEntity(Arrays.copyOf(buf, count), ContentType.APPLICATION_JSON);
+		}
+
+		ByteArrayEntity toCompressedEntity(int level) {
+			ByteArrayEntity entity = new ByteArrayEntity(ContentEncoding.gzip(buf, 0, count, level), ContentType.APPLICATION_JSON);
+			entity.setContentEncoding(ContentEncoding.GZIP);
+			return entity;
+		}
+	}
+
+}
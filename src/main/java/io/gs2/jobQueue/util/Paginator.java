@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ページトークンで分割された一覧を遅延して読み出すページネーター<br>
+ * <br>
+ * 要素を読み進めて現在のページを使い切った時点で次のページを取得するため、
+ * 一覧全体の件数に関わらず同時に保持するのは1ページ分の要素だけです。<br>
+ * {@link #iterator()} / {@link #stream()} を呼び出すたびに最初のページから読み直します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ * @param <T> 要素の型
+ */
+public class Paginator<T> implements Iterable<T> {
+
+	/** 最初のページのトークン */
+	private final String firstPageToken;
+
+	/** ページトークンからページを取得する関数 */
+	private final Function<String, Page<T>> fetcher;
+
+	/** 先読みを実行する Executor */
+	private final Executor prefetchExecutor;
+
+	/** 先読みするページ数 */
+	private final int readAheadPages;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param firstPageToken 最初のページのトークン。null の場合は先頭から取得します
+	 * @param fetcher ページトークンからページを取得する関数
+	 */
+	public Paginator(String firstPageToken, Function<String, Page<T>> fetcher) {
+		this(firstPageToken, fetcher, null, 0);
+	}
+
+	private Paginator(String firstPageToken, Function<String, Page<T>> fetcher, Executor prefetchExecutor, int readAheadPages) {
+		if(fetcher == null) throw new IllegalArgumentException("fetcher is required");
+		this.firstPageToken = firstPageToken;
+		this.fetcher = fetcher;
+		this.prefetchExecutor = prefetchExecutor;
+		this.readAheadPages = readAheadPages;
+	}
+
+	/**
+	 * 次のページを先読みするページネーターを取得します。<br>
+	 * <br>
+	 * 利用者が現在のページを処理している間に、次のページの取得を executor で実行します。<br>
+	 * 先読みしたページは最大 readAheadPages ページまで保持します。<br>
+	 * 最後まで読み出さずに終了する場合は、イテレーターを {@link AutoCloseable#close()} するか Stream を close してください。<br>
+	 *
+	 * @param executor 先読みを実行する Executor
+	 * @param readAheadPages 先読みするページ数
+	 * @return 先読みするページネーター
+	 */
+	public Paginator<T> withPrefetch(Executor executor, int readAheadPages) {
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		if(readAheadPages < 1) throw new IllegalArgumentException("readAheadPages must be positive");
+		return new Paginator<>(firstPageToken, fetcher, executor, readAheadPages);
+	}
+
+	/**
+	 * ページ単位で読み出すイテレーターを取得
+	 *
+	 * @return ページのイテレーター
+	 */
+	public Iterator<Page<T>> pages() {
+		if(prefetchExecutor != null) {
+			return new PrefetchPageIterator<>(new PageIterator(), prefetchExecutor, readAheadPages);
+		}
+		return new PageIterator();
+	}
+
+	/**
+	 * 要素を読み出すイテレーターを取得
+	 *
+	 * @return 要素のイテレーター
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new ItemIterator<>(pages());
+	}
+
+	/**
+	 * 要素を読み出す Spliterator を取得<br>
+	 * <br>
+	 * Spliterator には先読みを停止する手段が無いため、先読みの設定に関わらず要素を読み進めた時点で次のページを取得します。
+	 * 先読みする場合は {@link #stream()} を利用してください。<br>
+	 *
+	 * @return 要素の Spliterator
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return Spliterators.spliteratorUnknownSize(new ItemIterator<>(new PageIterator()), Spliterator.ORDERED | Spliterator.NONNULL);
+	}
+
+	/**
+	 * 要素を読み出す Stream を取得<br>
+	 * <br>
+	 * 先読みする場合は、最後まで読み出さずに終了する場合も Stream を close すると先読みを停止します。<br>
+	 *
+	 * @return 要素の Stream
+	 */
+	public Stream<T> stream() {
+		ItemIterator<T> iterator = new ItemIterator<>(pages());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * 次のページがあるかを判定します。<br>
+	 * 空文字のページトークンも最後のページとして扱います。<br>
+	 *
+	 * @param pageToken 次のページを読み込むためのトークン
+	 * @return 次のページがある場合は true
+	 */
+	public static boolean hasToken(String pageToken) {
+		return pageToken != null && !pageToken.isEmpty();
+	}
+
+	private class PageIterator implements Iterator<Page<T>> {
+
+		private String pageToken = firstPageToken;
+
+		private boolean finished;
+
+		@Override
+		public boolean hasNext() {
+			return !finished;
+		}
+
+		@Override
+		public Page<T> next() {
+			if(finished) throw new NoSuchElementException();
+			Page<T> page = fetcher.apply(pageToken);
+			pageToken = page == null ? null : page.getNextPageToken();
+			finished = !hasToken(pageToken);
+			return page == null ? new Page<T>(null, null) : page;
+		}
+	}
+
+	/**
+	 * ページのイテレーターを要素のイテレーターに展開するイテレーター
+	 *
+	 * @param <T> 要素の型
+	 */
+	static class ItemIterator<T> implements Iterator<T>, AutoCloseable {
+
+		private final Iterator<Page<T>> pages;
+
+		private Iterator<T> current = Collections.emptyIterator();
+
+		ItemIterator(Iterator<Page<T>> pages) {
+			this.pages = pages;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(!current.hasNext()) {
+				if(!pages.hasNext()) {
+					return false;
+				}
+				current = pages.next().getItems().iterator();
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			return current.next();
+		}
+
+		@Override
+		public void close() {
+			if(pages instanceof PrefetchPageIterator) {
+				((PrefetchPageIterator<T>) pages).close();
+			}
+		}
+	}
+
+	/**
+	 * 一覧の1ページ
+	 *
+	 * @author Game Server Services, Inc.
+	 *
+	 * @param <T> 要素の型
+	 */
+	public static class Page<T> {
+
+		/** 要素 */
+		private final List<T> items;
+
+		/** 次のページを読み込むためのトークン */
+		private final String nextPageToken;
+
+		/**
+		 * コンストラクタ。
+		 *
+		 * @param items 要素
+		 * @param nextPageToken 次のページを読み込むためのトークン
+		 */
+		public Page(List<T> items, String nextPageToken) {
+			this.items = items == null ? Collections.<T>emptyList() : items;
+			this.nextPageToken = nextPageToken;
+		}
+
+		/**
+		 * 要素を取得
+		 *
+		 * @return 要素
+		 */
+		public List<T> getItems() {
+			return items;
+		}
+
+		/**
+		 * 次のページを読み込むためのトークンを取得
+		 *
+		 * @return 次のページを読み込むためのトークン
+		 */
+		public String getNextPageToken() {
+			return nextPageToken;
+		}
+	}
+
+}
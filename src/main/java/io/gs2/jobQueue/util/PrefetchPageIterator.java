@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 次のページをバックグラウンドで先読みするページのイテレーター<br>
+ * <br>
+ * 利用者が現在のページを処理している間に、元のイテレーターから最大 readAheadPages ページ分を先に取得します。<br>
+ * 先読みしたページは固定長のキューに保持されるため、利用者の処理が遅い場合も読み出しはそこで待機します。<br>
+ * 元のイテレーターが例外やエラーを送出した場合は、そのページを読み出す時点で利用者のスレッドに送出します。<br>
+ * 最後まで読み出さずに終了する場合は {@link #close()} を呼び出して先読みを停止してください。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ * @param <T> 要素の型
+ */
+public class PrefetchPageIterator<T> implements Iterator<Paginator.Page<T>>, AutoCloseable {
+
+	/** キューが一杯の場合に停止を確認する間隔(ミリ秒) */
+	private static final long OFFER_INTERVAL_MILLIS = 100;
+
+	private static final Object END = new Object();
+
+	/** 先読みしたページ */
+	private final BlockingQueue<Object> buffer;
+
+	/** 次に返す要素 */
+	private Object next;
+
+	/** 停止済みか */
+	private volatile boolean closed;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param pages 元のページのイテレーター
+	 * @param executor 先読みを実行する Executor
+	 * @param readAheadPages 先読みするページ数
+	 */
+	public PrefetchPageIterator(Iterator<Paginator.Page<T>> pages, Executor executor, int readAheadPages) {
+		if(readAheadPages < 1) throw new IllegalArgumentException("readAheadPages must be positive");
+		this.buffer = new ArrayBlockingQueue<>(readAheadPages);
+		executor.execute(() -> {
+			try {
+				while(!closed && pages.hasNext()) {
+					if(!offer(pages.next())) {
+						return;
+					}
+				}
+				offer(END);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				buffer.offer(new Failure(e));
+			} catch (Throwable e) {
+				try {
+					offer(new Failure(e));
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+
+	/**
+	 * 先読みしたページをキューに追加します。<br>
+	 * キューが一杯の間は待機しますが、停止された場合は追加せずに戻ります。<br>
+	 */
+	private boolean offer(Object element) throws InterruptedException {
+		while(!closed) {
+			if(buffer.offer(element, OFFER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(next == null) {
+			try {
+				next = buffer.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("interrupted while waiting for the next page", e);
+			}
+		}
+		if(next instanceof Failure) {
+			Throwable cause = ((Failure) next).cause;
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+		return next != END;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Paginator.Page<T> next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		Paginator.Page<T> page = (Paginator.Page<T>) next;
+		next = null;
+		return page;
+	}
+
+	/**
+	 * 先読みを停止します。<br>
+	 * <br>
+	 * 取得中のページがある場合はその取得の完了後に停止します。
+	 * キューが一杯で待機している先読みは 100 ミリ秒以内に停止します。<br>
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		buffer.clear();
+		next = END;
+	}
+
+	private static class Failure {
+
+		final Throwable cause;
+
+		Failure(Throwable cause) {
+			this.cause = cause;
+		}
+	}
+
+}
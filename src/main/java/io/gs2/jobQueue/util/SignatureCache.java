@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+
+import io.gs2.Gs2Constant;
+
+/**
+ * 署名済みヘッダーのキャッシュ<br>
+ * <br>
+ * GS2 の署名はモジュール名・機能名・タイムスタンプ(秒)から計算されるため、
+ * 同じ秒の間に同じ機能を呼び出す場合は署名を再計算せずに同じヘッダーを使いまわせます。<br>
+ * 最初のリクエストは通常どおり署名し、その際に付与されたヘッダーを X-GS2-REQUEST-TIMESTAMP の秒とともに記録します。
+ * 以降は現在時刻がその秒と一致する間だけ、記録したヘッダーを新しいリクエストに複製します。<br>
+ * X-GS2-REQUEST-TIMESTAMP が付与されていない場合はキャッシュしません。<br>
+ * 記録したヘッダーは署名したクレデンシャルとリージョンでのみ再利用します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class SignatureCache {
+
+	/** 署名のタイムスタンプを表すヘッダー */
+	static final String TIMESTAMP_HEADER = "X-GS2-REQUEST-TIMESTAMP";
+
+	/** モジュール名・機能名ごとの署名済みヘッダー */
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	/** キャッシュから署名を返した回数 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/** 署名を計算した回数 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 署名済みのリクエストを取得します。<br>
+	 * <br>
+	 * キャッシュに同じ秒の署名があれば factory で生成したリクエストにヘッダーとボディを設定して返し、
+	 * なければ signer で署名したリクエストを返します。<br>
+	 * キャッシュの署名は credential と region が記録したときと同じ場合だけ使います。<br>
+	 *
+	 * @param credential 署名に使うクレデンシャル
+	 * @param region リージョン
+	 * @param url URL。{@link Gs2Constant#ENDPOINT_HOST} から始まること
+	 * @param module モジュール名
+	 * @param function 機能名
+	 * @param body ボディ。ボディを持たないリクエストの場合は null
+	 * @param signer 署名したリクエストを生成する関数
+	 * @param factory URL から署名していないリクエストを生成する関数
+	 * @param <T> リクエストの型
+	 * @return 署名済みのリクエスト
+	 */
+	public <T extends HttpRequestBase> T sign(Object credential, String region, String url, String module, String function, String body, Supplier<T> signer, Function<String, T> factory) {
+		String host = Gs2Constant.ENDPOINT_HOST;
+		String key = module + ":" + function;
+		Entry entry = entries.get(key);
+		if(entry != null && entry.isValid(credential, region, host, System.currentTimeMillis() / 1000)) {
+			hitCount.increment();
+			T request = factory.apply(entry.resolvedHost + url.substring(host.length()));
+			request.setHeaders(entry.headers);
+			request.setConfig(entry.config);
+			if(body != null && request instanceof HttpEntityEnclosingRequestBase) {
+				((HttpEntityEnclosingRequestBase) request).setEntity(new StringEntity(body, entry.contentType));
+			}
+			return request;
+		}
+		missCount.increment();
+		T request = signer.get();
+		Entry signed = Entry.of(credential, region, host, url, request);
+		if(signed != null) {
+			entries.put(key, signed);
+		}
+		return request;
+	}
+
+	/**
+	 * キャッシュから署名を返した回数を取得
+	 *
+	 * @return キャッシュから署名を返した回数
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 署名を計算した回数を取得
+	 *
+	 * @return 署名を計算した回数
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 記録した署名をすべて破棄します。
+	 */
+	public void invalidateAll() {
+		entries.clear();
+	}
+
+	private static class Entry {
+
+		/** 署名に使ったクレデンシャル */
+		final Object credential;
+
+		/** 署名したときのリージョン */
+		final String region;
+
+		/** 記録したときの ENDPOINT_HOST */
+		final String host;
+
+		/** {service} と {region} を展開した ENDPOINT_HOST */
+		final String resolvedHost;
+
+		/** 署名のタイムスタンプ(秒) */
+		final long timestamp;
+
+		/** 署名済みのヘッダー */
+		final Header[] headers;
+
+		/** リクエストの設定 */
+		final RequestConfig config;
+
+		/** ボディの Content-Type */
+		final ContentType contentType;
+
+		Entry(Object credential, String region, String host, String resolvedHost, long timestamp, Header[] headers, RequestConfig config, ContentType contentType) {
+			this.credential = credential;
+			this.region = region;
+			this.host = host;
+			this.resolvedHost = resolvedHost;
+			this.timestamp = timestamp;
+			this.headers = headers;
+			this.config = config;
+			this.contentType = contentType;
+		}
+
+		static Entry of(Object credential, String region, String host, String url, HttpRequestBase request) {
+			Header timestampHeader = request.getFirstHeader(TIMESTAMP_HEADER);
+			if(timestampHeader == null || !url.startsWith(host)) {
+				return null;
+			}
+			long timestamp;
+			try {
+				timestamp = Long.parseLong(timestampHeader.getValue());
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			String resolved = request.getURI().toString();
+			String path = url.substring(host.length());
+			if(!resolved.endsWith(path)) {
+				return null;
+			}
+			ContentType contentType = ContentType.DEFAULT_TEXT.withCharset("UTF-8");
+			if(request instanceof HttpEntityEnclosingRequestBase) {
+				HttpEntity entity = ((HttpEntityEnclosingRequestBase) request).getEntity();
+				if(entity != null && entity.getContentType() != null) {
+					contentType = ContentType.parse(entity.getContentType().getValue());
+				}
+			}
+			return new Entry(credential, region, host, resolved.substring(0, resolved.length() - path.length()), timestamp,
+					request.getAllHeaders(), request.getConfig(), contentType);
+		}
+
+		boolean isValid(Object credential, String region, String host, long now) {
+			return timestamp == now && this.credential == credential
+					&& Objects.equals(this.region, region) && this.host.equals(host);
+		}
+
+	}
+
+}
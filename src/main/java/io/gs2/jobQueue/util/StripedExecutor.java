@@ -0,0 +1,401 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * キーごとに直列に実行する Executor<br>
+ * <br>
+ * キー (ユーザIDなど) のハッシュ値で固定数のレーンに振り分け、同じレーンのタスクは投入した順に1つずつ実行します。
+ * 異なるレーンのタスクは並列に実行されるため、「同じユーザは直列、異なるユーザは並列」をロックを使わずに実現できます。<br>
+ * レーンはスレッドに固定せず、タスクがある間だけ下位の Executor に投入されるメールボックスです。
+ * 空いているスレッドはタスクを持つどのレーンでも実行するため、一部のレーンにタスクが偏っても他のスレッドが遊ぶことはありません。
+ * 既定では work-stealing の {@link ForkJoinPool} を下位の Executor に使います。<br>
+ * 1つのレーンが連続して実行するタスク数には上限があり、上限に達したレーンは Executor に投入し直して他のレーンに順番を譲ります。<br>
+ * 異なるキーが同じレーンに振り分けられた場合、それらのキーのタスクも互いに直列に実行されます。
+ * 長く続く処理は1回のタスクを短くし、続きを同じキーで投入し直すと、同じレーンの他のキーを長く待たせずに済みます。<br>
+ * <br>
+ * 各レーンの待機中のタスク数には上限があります。
+ * 上限を超えて投入したタスクと、下位の Executor が受け付けなかったレーンの待機中のタスクは、
+ * 実行されずに投入時に指定した onRejected に渡されます。
+ * そのため下位の Executor が停止しても、タスクの完了を待つ呼び出し元が待ち続けることはありません。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class StripedExecutor implements Closeable {
+
+	/** レーン数の既定値 */
+	public static final int DEFAULT_STRIPES = 1024;
+
+	/** 1つのレーンが順番を譲るまでに連続して実行する最大タスク数 */
+	static final int MAX_TASKS_PER_TURN = 32;
+
+	/** レーンを実行する Executor */
+	private final Executor executor;
+
+	/** このインスタンスが生成した ForkJoinPool。外部の Executor を使う場合は null */
+	private final ForkJoinPool ownedPool;
+
+	/** 各レーンの待機中のタスク数の上限 */
+	private final int queueCapacity;
+
+	/** レーン。最初にタスクが投入されたときに生成する */
+	private final AtomicReferenceArray<Lane> lanes;
+
+	/**
+	 * コンストラクタ。<br>
+	 * <br>
+	 * 利用可能なプロセッサ数の並列度を持つ ForkJoinPool を生成して利用します。<br>
+	 *
+	 * @param stripes レーン数
+	 * @param queueCapacity 各レーンの待機中のタスク数の上限
+	 */
+	public StripedExecutor(int stripes, int queueCapacity) {
+		this(new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true), stripes, queueCapacity, true);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param executor レーンを実行する Executor
+	 * @param stripes レーン数
+	 * @param queueCapacity 各レーンの待機中のタスク数の上限
+	 */
+	public StripedExecutor(Executor executor, int stripes, int queueCapacity) {
+		this(executor, stripes, queueCapacity, false);
+	}
+
+	private StripedExecutor(Executor executor, int stripes, int queueCapacity, boolean owned) {
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		if(stripes < 1) throw new IllegalArgumentException("stripes must be positive");
+		if(queueCapacity < 1) throw new IllegalArgumentException("queueCapacity must be positive");
+		this.executor = executor;
+		this.ownedPool = owned ? (ForkJoinPool) executor : null;
+		this.queueCapacity = queueCapacity;
+		this.lanes = new AtomicReferenceArray<>(stripes);
+	}
+
+	/**
+	 * キーに対応するレーンでタスクを実行します。<br>
+	 * <br>
+	 * タスクが実行されなかった場合は onRejected を呼び出します。
+	 * onRejected は execute を呼び出したスレッド、またはレーンを実行していたスレッドから呼び出されます。<br>
+	 *
+	 * @param key キー。null の場合は同じ1つのレーンに振り分けます
+	 * @param task タスク
+	 * @param onRejected タスクが実行されなかった場合の処理
+	 */
+	public void execute(Object key, Runnable task, Consumer<? super RejectedExecutionException> onRejected) {
+		if(task == null) throw new IllegalArgumentException("task is required");
+		if(onRejected == null) throw new IllegalArgumentException("onRejected is required");
+		lane(key).execute(new Task() {
+
+			@Override
+			CompletableFuture<?> run() {
+				task.run();
+				return null;
+			}
+
+			@Override
+			void reject(RejectedExecutionException e) {
+				onRejected.accept(e);
+			}
+		});
+	}
+
+	/**
+	 * キーに対応するレーンでタスクを実行し、結果を返します。<br>
+	 * <br>
+	 * タスクが実行されなかった場合、Future は {@link RejectedExecutionException} で完了します。<br>
+	 *
+	 * @param key キー
+	 * @param task タスク
+	 * @param <T> 結果の型
+	 * @return 結果
+	 */
+	public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+		if(task == null) throw new IllegalArgumentException("task is required");
+		CompletableFuture<T> future = new CompletableFuture<>();
+		execute(key, () -> {
+			try {
+				future.complete(task.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}, future::completeExceptionally);
+		return future;
+	}
+
+	/**
+	 * キーに対応するレーンで非同期の処理を開始します。<br>
+	 * <br>
+	 * レーンは task が返した処理が完了するまで次のタスクを実行しません。
+	 * 待機中はスレッドを占有しないため、非同期クライアントの呼び出しをキーごとに1つずつ順番に送信する用途に使えます。<br>
+	 * タスクが実行されなかった場合は onRejected を呼び出します。
+	 * onRejected は executeAsync を呼び出したスレッド、またはレーンを実行していたスレッドから呼び出されます。<br>
+	 *
+	 * @param key キー
+	 * @param task 非同期の処理を開始するタスク。null を返した場合は完了を待ちません
+	 * @param onRejected タスクが実行されなかった場合の処理
+	 */
+	public void executeAsync(Object key, Supplier<? extends CompletionStage<?>> task, Consumer<? super RejectedExecutionException> onRejected) {
+		if(task == null) throw new IllegalArgumentException("task is required");
+		if(onRejected == null) throw new IllegalArgumentException("onRejected is required");
+		lane(key).execute(new Task() {
+
+			@Override
+			CompletableFuture<?> run() {
+				CompletionStage<?> stage = task.get();
+				if(stage == null) {
+					return null;
+				}
+				CompletableFuture<Void> done = new CompletableFuture<>();
+				stage.whenComplete((result, error) -> done.complete(null));
+				return done;
+			}
+
+			@Override
+			void reject(RejectedExecutionException e) {
+				onRejected.accept(e);
+			}
+		});
+	}
+
+	/**
+	 * キーに対応するレーンで非同期の処理を開始し、その結果を返します。<br>
+	 * <br>
+	 * レーンは task が返した処理が完了するまで次のタスクを実行しません。<br>
+	 * タスクが実行されなかった場合、Future は {@link RejectedExecutionException} で完了します。<br>
+	 *
+	 * @param key キー
+	 * @param task 非同期の処理を開始するタスク
+	 * @param <T> 結果の型
+	 * @return 結果
+	 */
+	public <T> CompletableFuture<T> submitAsync(Object key, Supplier<? extends CompletionStage<T>> task) {
+		if(task == null) throw new IllegalArgumentException("task is required");
+		CompletableFuture<T> future = new CompletableFuture<>();
+		executeAsync(key, () -> {
+			CompletionStage<T> stage;
+			try {
+				stage = task.get();
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+				return null;
+			}
+			if(stage == null) {
+				future.complete(null);
+				return null;
+			}
+			stage.whenComplete((result, error) -> {
+				if(error != null) {
+					future.completeExceptionally(error);
+				} else {
+					future.complete(result);
+				}
+			});
+			return future;
+		}, future::completeExceptionally);
+		return future;
+	}
+
+	/**
+	 * レーン数を取得
+	 *
+	 * @return レーン数
+	 */
+	public int getStripes() {
+		return lanes.length();
+	}
+
+	/**
+	 * キーを振り分けるレーンの番号を取得
+	 *
+	 * @param key キー
+	 * @return レーンの番号。0 以上 {@link #getStripes()} 未満
+	 */
+	public int stripeOf(Object key) {
+		int hash = key == null ? 0 : key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), lanes.length());
+	}
+
+	/**
+	 * キーに対応するレーンの待機中のタスク数を取得
+	 *
+	 * @param key キー
+	 * @return 待機中のタスク数
+	 */
+	public int getQueuedTasks(Object key) {
+		Lane lane = lanes.get(stripeOf(key));
+		return lane == null ? 0 : lane.size.get();
+	}
+
+	/**
+	 * このインスタンスが生成した ForkJoinPool を停止します。<br>
+	 * <br>
+	 * 外部から渡された Executor は停止しません。
+	 * 停止後に実行できなかったタスクは onRejected に渡されます。<br>
+	 */
+	@Override
+	public void close() {
+		if(ownedPool != null) {
+			ownedPool.shutdown();
+		}
+	}
+
+	private Lane lane(Object key) {
+		int index = stripeOf(key);
+		Lane lane = lanes.get(index);
+		if(lane == null) {
+			Lane created = new Lane();
+			lane = lanes.compareAndSet(index, null, created) ? created : lanes.get(index);
+		}
+		return lane;
+	}
+
+	/**
+	 * レーンで実行するタスク
+	 */
+	private abstract static class Task {
+
+		/**
+		 * タスクを実行します。
+		 *
+		 * @return レーンが次のタスクの前に完了を待つ処理。待つ必要がなければ null
+		 */
+		abstract CompletableFuture<?> run();
+
+		/**
+		 * タスクが実行されなかったことを通知します。
+		 *
+		 * @param e 理由
+		 */
+		abstract void reject(RejectedExecutionException e);
+	}
+
+	private class Lane implements Runnable {
+
+		/** 待機中のタスク */
+		final ConcurrentLinkedQueue<Task> tasks = new ConcurrentLinkedQueue<>();
+
+		/** 待機中のタスク数 */
+		final AtomicInteger size = new AtomicInteger();
+
+		/** Executor に投入済み、実行中、または非同期の処理の完了を待っているか */
+		final AtomicBoolean scheduled = new AtomicBoolean();
+
+		void execute(Task task) {
+			if(size.incrementAndGet() > queueCapacity) {
+				size.decrementAndGet();
+				reject(task, new RejectedExecutionException("lane queue is full"));
+				return;
+			}
+			tasks.add(task);
+			if(scheduled.compareAndSet(false, true)) {
+				dispatch();
+			}
+		}
+
+		/**
+		 * レーンを Executor に投入します。scheduled を取得したスレッドから呼び出します。<br>
+		 * Executor が受け付けなかった場合は待機中のタスクをすべて onRejected に渡してレーンを解放します。
+		 */
+		void dispatch() {
+			while(true) {
+				try {
+					executor.execute(this);
+					return;
+				} catch (RejectedExecutionException e) {
+					Task task;
+					while((task = tasks.poll()) != null) {
+						size.decrementAndGet();
+						reject(task, e);
+					}
+				}
+				scheduled.set(false);
+				// 解放する前に追加されたタスクは、追加したスレッドが scheduled を取得できずに残っている
+				if(tasks.isEmpty() || !scheduled.compareAndSet(false, true)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * レーンを解放します。解放する前に追加されたタスクがあれば投入し直します。
+		 */
+		void release() {
+			scheduled.set(false);
+			if(!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+				dispatch();
+			}
+		}
+
+		@Override
+		public void run() {
+			for(int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+				Task task = tasks.poll();
+				if(task == null) {
+					release();
+					return;
+				}
+				size.decrementAndGet();
+				CompletableFuture<?> pending;
+				try {
+					pending = task.run();
+				} catch (Throwable e) {
+					uncaught(e);
+					continue;
+				}
+				if(pending != null && !pending.isDone()) {
+					// 完了するまでレーンを保持し、完了したスレッドから続きを投入する
+					pending.whenComplete((result, error) -> dispatch());
+					return;
+				}
+			}
+			// 他のレーンに順番を譲る
+			dispatch();
+		}
+
+		private void reject(Task task, RejectedExecutionException e) {
+			try {
+				task.reject(e);
+			} catch (Throwable t) {
+				uncaught(t);
+			}
+		}
+	}
+
+	private static void uncaught(Throwable e) {
+		Thread current = Thread.currentThread();
+		current.getUncaughtExceptionHandler().uncaughtException(current, e);
+	}
+
+}
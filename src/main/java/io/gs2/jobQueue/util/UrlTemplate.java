@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.gs2.Gs2Constant;
+
+/**
+ * 事前に解析した URL テンプレート<br>
+ * <br>
+ * "/queue/{queueName}/job/user/{userId}" のようなパスを生成時に固定文字列と変数に分解しておき、
+ * 呼び出しごとに {@link Gs2Constant#ENDPOINT_HOST} と固定文字列、パーセントエンコードした変数を
+ * スレッドごとに使い回す {@link StringBuilder} に書き込んで URL を組み立てます。<br>
+ * 最初の変数 (ジョブキューの名前) までを含むプレフィックス (例: "/queue/{queueName}/job/user/") は
+ * 値ごとにキャッシュするため、同じジョブキューへのリクエストでは再エンコードしません。<br>
+ * 変数が null または空文字列の場合は "null" として展開します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public final class UrlTemplate {
+
+	/** キャッシュするプレフィックスの最大数 */
+	static final int MAX_CACHED_PREFIXES = 1024;
+
+	/** 使い回す StringBuilder の最大容量。これより大きくなった場合は破棄します */
+	static final int MAX_REUSED_CAPACITY = 1024;
+
+	/** 16進数の文字 */
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/** スレッドごとに使い回す StringBuilder */
+	private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+	/** 変数の前後の固定文字列。変数の数 + 1 個 */
+	private final String[] literals;
+
+	/** 最初の変数の値ごとのプレフィックス */
+	private final ConcurrentHashMap<String, String> prefixes = new ConcurrentHashMap<>();
+
+	private UrlTemplate(String[] literals) {
+		this.literals = literals;
+	}
+
+	/**
+	 * テンプレートを解析します。
+	 *
+	 * @param pattern ENDPOINT_HOST より後ろのパス。変数は {name} で表す
+	 * @return テンプレート
+	 */
+	public static UrlTemplate compile(String pattern) {
+		if(pattern == null) throw new IllegalArgumentException("pattern is required");
+		List<String> literals = new ArrayList<>();
+		int start = 0;
+		while(true) {
+			int open = pattern.indexOf('{', start);
+			if(open < 0) {
+				break;
+			}
+			int close = pattern.indexOf('}', open);
+			if(close < 0) throw new IllegalArgumentException("unterminated variable in " + pattern);
+			literals.add(pattern.substring(start, open));
+			start = close + 1;
+		}
+		literals.add(pattern.substring(start));
+		return new UrlTemplate(literals.toArray(new String[0]));
+	}
+
+	/**
+	 * 変数の数を取得
+	 *
+	 * @return 変数の数
+	 */
+	public int getVariableCount() {
+		return literals.length - 1;
+	}
+
+	/**
+	 * URL を組み立てます。<br>
+	 * <br>
+	 * 呼び出したスレッドの StringBuilder に書き込むため、返り値の String 以外は割り当てません。<br>
+	 *
+	 * @param values 変数の値。テンプレート内の順
+	 * @return URL
+	 */
+	public String render(String... values) {
+		if(values.length != literals.length - 1) throw new IllegalArgumentException("expected " + (literals.length - 1) + " values but got " + values.length);
+		StringBuilder builder = BUILDER.get();
+		builder.setLength(0);
+		String url = appendTo(builder.append(Gs2Constant.ENDPOINT_HOST), values).toString();
+		if(builder.capacity() > MAX_REUSED_CAPACITY) {
+			// 長い値で一度だけ大きくなったバッファを保持し続けない
+			BUILDER.remove();
+		}
+		return url;
+	}
+
+	/**
+	 * パスを StringBuilder に書き込みます。<br>
+	 * <br>
+	 * ENDPOINT_HOST は書き込みません。<br>
+	 *
+	 * @param out 書き込み先
+	 * @param values 変数の値。テンプレート内の順
+	 * @return out
+	 */
+	public StringBuilder appendTo(StringBuilder out, String... values) {
+		if(values.length != literals.length - 1) throw new IllegalArgumentException("expected " + (literals.length - 1) + " values but got " + values.length);
+		if(values.length == 0) {
+			return out.append(literals[0]);
+		}
+		out.append(prefix(values[0]));
+		for(int i = 1; i < values.length; i++) {
+			appendSegment(out, values[i]);
+			out.append(literals[i + 1]);
+		}
+		return out;
+	}
+
+	private String prefix(String value) {
+		String key = value == null ? "" : value;
+		String prefix = prefixes.get(key);
+		if(prefix == null) {
+			StringBuilder builder = new StringBuilder(literals[0].length() + key.length() + literals[1].length() + 8);
+			prefix = appendSegment(builder.append(literals[0]), key).append(literals[1]).toString();
+			if(prefixes.size() < MAX_CACHED_PREFIXES) {
+				prefixes.putIfAbsent(key, prefix);
+			}
+		}
+		return prefix;
+	}
+
+	/**
+	 * パスの1区間をパーセントエンコードして書き込みます。<br>
+	 * <br>
+	 * RFC 3986 の unreserved 文字 (英数字と -._~) 以外はすべて UTF-8 でエンコードします。
+	 * 値が null または空文字列の場合は "null" を書き込みます。<br>
+	 *
+	 * @param out 書き込み先
+	 * @param value 値
+	 * @return out
+	 */
+	public static StringBuilder appendSegment(StringBuilder out, String value) {
+		if(value == null || value.isEmpty()) {
+			return out.append("null");
+		}
+		int length = value.length();
+		int plain = 0;
+		while(plain < length && isUnreserved(value.charAt(plain))) {
+			plain++;
+		}
+		if(plain == length) {
+			return out.append(value);
+		}
+		out.append(value, 0, plain);
+		for(byte b : value.substring(plain).getBytes(StandardCharsets.UTF_8)) {
+			if(isUnreserved((char) b)) {
+				out.append((char) b);
+			} else {
+				out.append('%').append(HEX[(b >> 4) & 0x0f]).append(HEX[b & 0x0f]);
+			}
+		}
+		return out;
+	}
+
+	private static boolean isUnreserved(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+				|| c == '-' || c == '.' || c == '_' || c == '~';
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import org.reactivestreams.FlowAdapters;
+
+import io.gs2.jobQueue.control.*;
+import io.gs2.jobQueue.model.*;
+import io.gs2.jobQueue.util.PaginatorPublisher;
+
+/**
+ * GS2 JobQueue の一覧取得 API を {@link Flow.Publisher} として提供します。<br>
+ * <br>
+ * 購読者の要求件数に応じてページを取得するため、背圧を保ったまま全件を読み出せます。<br>
+ * Reactive Streams のライブラリと組み合わせる場合は {@link #toReactiveStreams(Flow.Publisher)} で変換してください。
+ * 変換には org.reactivestreams:reactive-streams が必要です。<br>
+ * Java 11 以降で利用できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class Gs2JobQueuePublishers {
+
+	private Gs2JobQueuePublishers() {
+	}
+
+	/**
+	 * ジョブの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<Job> describeJob(Gs2JobQueueClient client, DescribeJobRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeJob(client, request), executor);
+	}
+
+	/**
+	 * ユーザのジョブの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<Job> describeJobByUserId(Gs2JobQueueClient client, DescribeJobByUserIdRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeJobByUserId(client, request), executor);
+	}
+
+	/**
+	 * デッドジョブの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<DeadJob> describeDeadJob(Gs2JobQueueClient client, DescribeDeadJobRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeDeadJob(client, request), executor);
+	}
+
+	/**
+	 * スクリプト名で絞り込んだデッドジョブの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<DeadJob> describeDeadJobByScriptName(Gs2JobQueueClient client, DescribeDeadJobByScriptNameRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeDeadJobByScriptName(client, request), executor);
+	}
+
+	/**
+	 * ユーザIDで絞り込んだデッドジョブの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<DeadJob> describeDeadJobByUserId(Gs2JobQueueClient client, DescribeDeadJobByUserIdRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeDeadJobByUserId(client, request), executor);
+	}
+
+	/**
+	 * ジョブの実行結果の一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<JobResult> describeJobResult(Gs2JobQueueClient client, DescribeJobResultRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeJobResult(client, request), executor);
+	}
+
+	/**
+	 * ジョブキューの一覧のパブリッシャーを取得します。
+	 *
+	 * @param client クライアント
+	 * @param request リクエストパラメータ
+	 * @param executor ページの取得と通知を実行する Executor
+	 * @return パブリッシャー
+	 */
+	public static Flow.Publisher<Queue> describeQueue(Gs2JobQueueClient client, DescribeQueueRequest request, Executor executor) {
+		return new PaginatorPublisher<>(Gs2JobQueuePaginators.describeQueue(client, request), executor);
+	}
+
+	/**
+	 * Reactive Streams の Publisher に変換します。
+	 *
+	 * @param publisher パブリッシャー
+	 * @param <T> 要素の型
+	 * @return Reactive Streams の Publisher
+	 */
+	public static <T> org.reactivestreams.Publisher<T> toReactiveStreams(Flow.Publisher<T> publisher) {
+		return FlowAdapters.toPublisher(publisher);
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * JDK の {@link HttpClient} を利用するトランスポート<br>
+ * <br>
+ * HTTP/2 を優先して接続するため、同じエンドポイントへの多数の同時リクエストを
+ * 少数のコネクション上で多重化して送信します。
+ * サーバーが HTTP/2 に対応していない場合は HTTP/1.1 で送信します。<br>
+ * Java 11 以降で利用できます。<br>
+ * <br>
+ * 応答の待機はスレッドをブロックするロックを保持せずに行うため、
+ * Java 21 の仮想スレッドから呼び出してもキャリアスレッドをピン留めしません。
+ * {@link ApacheHttpTransport} はコネクションの返却時にモニターを保持したままソケットを操作するため、
+ * 大量の仮想スレッドから呼び出す場合はこのトランスポートを利用してください。<br>
+ * 仮想スレッドの数だけ同時にリクエストが発生しないよう、最大同時リクエスト数で制限できます。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ */
+public class JdkHttpClientTransport implements AsyncGs2JobQueueTransport {
+
+	/** 接続タイムアウトの既定値 */
+	public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+	/** リクエストタイムアウトの既定値 */
+	public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+	/** HttpClient が設定するため転送しないヘッダ */
+	private static final Set<String> RESTRICTED_HEADERS = Set.of(
+			"connection", "content-length", "expect", "host", "upgrade");
+
+	/** HTTP クライアント */
+	private final HttpClient httpClient;
+
+	/** リクエストタイムアウト */
+	private final Duration requestTimeout;
+
+	/** 同時に実行できるリクエスト数。制限しない場合は null */
+	private final Semaphore permits;
+
+	/** 同時に実行できるリクエスト数の枠が空くのを待っている非同期リクエスト */
+	private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * コンストラクタ。
+	 */
+	public JdkHttpClientTransport() {
+		this(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(DEFAULT_CONNECT_TIMEOUT)
+				.build(), DEFAULT_REQUEST_TIMEOUT);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param httpClient HTTP クライアント
+	 * @param requestTimeout リクエストタイムアウト
+	 */
+	public JdkHttpClientTransport(HttpClient httpClient, Duration requestTimeout) {
+		this(httpClient, requestTimeout, 0);
+	}
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param httpClient HTTP クライアント
+	 * @param requestTimeout リクエストタイムアウト
+	 * @param maxConcurrentRequests 最大同時リクエスト数。0 の場合は制限しません
+	 */
+	public JdkHttpClientTransport(HttpClient httpClient, Duration requestTimeout, int maxConcurrentRequests) {
+		if(httpClient == null) throw new IllegalArgumentException("httpClient is required");
+		if(requestTimeout == null) throw new IllegalArgumentException("requestTimeout is required");
+		if(maxConcurrentRequests < 0) throw new IllegalArgumentException("maxConcurrentRequests must not be negative");
+		this.httpClient = httpClient;
+		this.requestTimeout = requestTimeout;
+		this.permits = maxConcurrentRequests == 0 ? null : new Semaphore(maxConcurrentRequests);
+	}
+
+	/**
+	 * HTTP クライアントを取得します。
+	 *
+	 * @return HTTP クライアント
+	 */
+	public HttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	@Override
+	public Gs2JobQueueResponse execute(HttpRequestBase request) throws IOException {
+		HttpRequest httpRequest = toHttpRequest(request);
+		try {
+			if(permits != null) {
+				permits.acquire();
+			}
+		} catch (InterruptedException e) {
+			throw interrupted(e);
+		}
+		try {
+			HttpResponse<InputStream> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+			return new Response(response, response.body(), this::release);
+		} catch (InterruptedException e) {
+			release();
+			throw interrupted(e);
+		} catch (IOException | RuntimeException e) {
+			release();
+			throw e;
+		}
+	}
+
+	/**
+	 * リクエストを非同期に送信します。<br>
+	 * <br>
+	 * レスポンスボディはすべて受信してから返します。
+	 * 最大同時リクエスト数に達している場合、リクエストは枠が空くまでスレッドを使わずに待ちます。<br>
+	 */
+	@Override
+	public CompletableFuture<Gs2JobQueueResponse> executeAsync(HttpRequestBase request) {
+		CompletableFuture<Gs2JobQueueResponse> future = new CompletableFuture<>();
+		HttpRequest httpRequest;
+		try {
+			httpRequest = toHttpRequest(request);
+		} catch (IOException | RuntimeException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		Runnable send = () -> {
+			CompletableFuture<HttpResponse<byte[]>> response;
+			try {
+				response = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+			} catch (RuntimeException e) {
+				release();
+				future.completeExceptionally(e);
+				return;
+			}
+			response.whenComplete((received, error) -> {
+				// ボディを受信し終えているため、close を待たずに枠を返す
+				release();
+				if(error != null) {
+					future.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+				} else {
+					future.complete(new Response(received, new ByteArrayInputStream(received.body()), () -> {}));
+				}
+			});
+		};
+		if(permits == null || permits.tryAcquire()) {
+			send.run();
+		} else {
+			pending.add(send);
+			startPending();
+		}
+		return future;
+	}
+
+	private HttpRequest toHttpRequest(HttpRequestBase request) throws IOException {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(request.getURI())
+				.timeout(requestTimeout)
+				.method(request.getMethod(), bodyOf(request));
+		for(Header header : request.getAllHeaders()) {
+			if(!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+				builder.header(header.getName(), header.getValue());
+			}
+		}
+		// Apache HttpClient はエンティティの Content-Type / Content-Encoding をヘッダーに補うため、同じように補う
+		if(request instanceof HttpEntityEnclosingRequestBase) {
+			HttpEntity entity = ((HttpEntityEnclosingRequestBase) request).getEntity();
+			if(entity != null) {
+				copyEntityHeader(request, builder, entity.getContentType());
+				copyEntityHeader(request, builder, entity.getContentEncoding());
+			}
+		}
+		return builder.build();
+	}
+
+	private static void copyEntityHeader(HttpRequestBase request, HttpRequest.Builder builder, Header header) {
+		if(header != null && header.getValue() != null && !request.containsHeader(header.getName())) {
+			builder.header(header.getName(), header.getValue());
+		}
+	}
+
+	private void release() {
+		if(permits != null) {
+			permits.release();
+			startPending();
+		}
+	}
+
+	private void startPending() {
+		// 枠を確保してから取り出すことで、追加と解放が同時に起きても待ちのリクエストを取り残さない
+		while(!pending.isEmpty() && permits.tryAcquire()) {
+			Runnable send = pending.poll();
+			if(send == null) {
+				permits.release();
+				continue;
+			}
+			send.run();
+		}
+	}
+
+	private static InterruptedIOException interrupted(InterruptedException e) {
+		Thread.currentThread().interrupt();
+		InterruptedIOException interrupted = new InterruptedIOException("request interrupted");
+		interrupted.initCause(e);
+		return interrupted;
+	}
+
+	private static HttpRequest.BodyPublisher bodyOf(HttpRequestBase request) throws IOException {
+		if(!(request instanceof HttpEntityEnclosingRequestBase)) {
+			return HttpRequest.BodyPublishers.noBody();
+		}
+		HttpEntity entity = ((HttpEntityEnclosingRequestBase) request).getEntity();
+		if(entity == null) {
+			return HttpRequest.BodyPublishers.noBody();
+		}
+		long length = entity.getContentLength();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(length > 0 && length < Integer.MAX_VALUE ? (int) length : 256);
+		entity.writeTo(buffer);
+		return HttpRequest.BodyPublishers.ofByteArray(buffer.toByteArray());
+	}
+
+	/**
+	 * {@link HttpClient} は共有のコネクションを自動的に解放するため、何もしません。
+	 */
+	@Override
+	public void close() {
+	}
+
+	private static class Response extends Gs2JobQueueResponse {
+
+		private final HttpResponse<?> response;
+
+		/** 受信したままのレスポンスボディ */
+		private final InputStream body;
+
+		/** 同時リクエスト数の枠を返す処理 */
+		private final Runnable release;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		/** Content-Encoding に従って展開したレスポンスボディ */
+		private InputStream content;
+
+		Response(HttpResponse<?> response, InputStream body, Runnable release) {
+			this.response = response;
+			this.body = body;
+			this.release = release;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return response.statusCode();
+		}
+
+		/**
+		 * レスポンスボディを取得します。<br>
+		 * <br>
+		 * {@link HttpClient} は圧縮されたボディを展開しないため、Content-Encoding に従って展開します。<br>
+		 */
+		@Override
+		public InputStream getContent() throws IOException {
+			if(content == null) {
+				content = ContentEncoding.decode(body,
+						response.headers().firstValue("Content-Encoding").orElse(null));
+			}
+			return content;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(closed.compareAndSet(false, true)) {
+				try {
+					body.close();
+				} finally {
+					release.run();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.gs2.jobQueue.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Paginator} を {@link Flow.Publisher} として提供するパブリッシャー<br>
+ * <br>
+ * 購読者が {@link Flow.Subscription#request(long)} で要求した件数を満たすのに必要な分だけページを取得します。
+ * 取得済みのページを使い切るまで次のページは取得しないため、購読者の処理が遅くても
+ * 保持するのは1ページ分の要素だけです。<br>
+ * ページの取得と購読者への通知は executor で実行するため、request を呼び出したスレッドはブロックしません。<br>
+ * 購読するたびに最初のページから読み直します。<br>
+ *
+ * @author Game Server Services, Inc.
+ *
+ * @param <T> 要素の型
+ */
+public class PaginatorPublisher<T> implements Flow.Publisher<T> {
+
+	/** ページネーター */
+	private final Paginator<T> paginator;
+
+	/** ページの取得と通知を実行する Executor */
+	private final Executor executor;
+
+	/**
+	 * コンストラクタ。
+	 *
+	 * @param paginator ページネーター
+	 * @param executor ページの取得と通知を実行する Executor
+	 */
+	public PaginatorPublisher(Paginator<T> paginator, Executor executor) {
+		if(paginator == null) throw new IllegalArgumentException("paginator is required");
+		if(executor == null) throw new IllegalArgumentException("executor is required");
+		this.paginator = paginator;
+		this.executor = executor;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		if(subscriber == null) throw new NullPointerException("subscriber is required");
+		PaginatorSubscription subscription = new PaginatorSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * 1人の購読者に対する購読<br>
+	 * <br>
+	 * 通知は work-in-progress カウンタで直列化し、同時に1つのスレッドだけが drain を実行します。<br>
+	 */
+	private class PaginatorSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super T> subscriber;
+
+		/** 未充足の要求件数 */
+		private final AtomicLong requested = new AtomicLong();
+
+		/** drain の実行要求数 */
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled;
+
+		/** 不正な要求件数が指定された場合に通知する例外 */
+		private volatile Throwable invalidRequest;
+
+		// 以下は drain を実行しているスレッドだけが参照する
+
+		private Iterator<Paginator.Page<T>> pages;
+
+		private Iterator<T> current = Collections.emptyIterator();
+
+		private boolean done;
+
+		PaginatorSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				invalidRequest = new IllegalArgumentException("request must be positive but was " + n);
+			} else {
+				long current;
+				long next;
+				do {
+					current = requested.get();
+					if(current == Long.MAX_VALUE) {
+						break;
+					}
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while(!requested.compareAndSet(current, next));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if(wip.getAndIncrement() == 0) {
+				try {
+					executor.execute(this);
+				} catch (RejectedExecutionException e) {
+					cancelled = true;
+					subscriber.onError(e);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = wip.addAndGet(-missed);
+			} while(missed != 0);
+		}
+
+		private void drain() {
+			if(done) {
+				return;
+			}
+			if(cancelled) {
+				finish();
+				return;
+			}
+			Throwable error = invalidRequest;
+			if(error != null) {
+				finish();
+				subscriber.onError(error);
+				return;
+			}
+			try {
+				if(pages == null) {
+					pages = paginator.pages();
+				}
+				long demand = requested.get();
+				long emitted = 0;
+				while(emitted != demand) {
+					if(cancelled) {
+						finish();
+						return;
+					}
+					if(current.hasNext()) {
+						subscriber.onNext(current.next());
+						emitted++;
+						continue;
+					}
+					if(!pages.hasNext()) {
+						break;
+					}
+					current = pages.next().getItems().iterator();
+				}
+				if(!current.hasNext() && !pages.hasNext()) {
+					finish();
+					subscriber.onComplete();
+					return;
+				}
+				if(demand != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+			} catch (RuntimeException e) {
+				finish();
+				subscriber.onError(e);
+			}
+		}
+
+		private void finish() {
+			done = true;
+			current = Collections.emptyIterator();
+			if(pages instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) pages).close();
+				} catch (Exception ignore) {
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DeleteQueueRequest;
+import io.gs2.jobQueue.control.DescribeQueueRequest;
+import io.gs2.jobQueue.control.DescribeQueueResult;
+import io.gs2.jobQueue.control.GetQueueRequest;
+import io.gs2.jobQueue.control.GetQueueResult;
+import io.gs2.jobQueue.control.UpdateQueueRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.metrics.InMemoryRequestMetrics;
+
+/**
+ * {@link CachingGs2JobQueueClient} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class CachingGs2JobQueueClientTest {
+
+	private final InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+
+	private Gs2JobQueueEmulator emulator;
+
+	private CachingGs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start();
+		client = new CachingGs2JobQueueClient(null, "ap-northeast-1", 60_000, 10);
+		client.withTransport(emulator.createTransport());
+		client.withMetricsListener(metrics);
+		client.createQueue(new CreateQueueRequest().withName("queue").withDescription("first").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		emulator.close();
+	}
+
+	@Test
+	public void servesRepeatedGetQueueFromTheCache() {
+		GetQueueResult first = client.getQueue(new GetQueueRequest().withQueueName("queue"));
+		GetQueueResult second = client.getQueue(new GetQueueRequest().withQueueName("queue"));
+		assertEquals("first", second.getItem().getDescription());
+		assertEquals(1, requests(GetQueueRequest.Constant.FUNCTION));
+		assertNotSame(first, second);
+		assertNotSame(first.getItem(), second.getItem());
+	}
+
+	@Test
+	public void returnsCopiesThatCallersMayModify() {
+		client.getQueue(new GetQueueRequest().withQueueName("queue")).getItem().setDescription("modified");
+		assertEquals("first", client.getQueue(new GetQueueRequest().withQueueName("queue")).getItem().getDescription());
+		client.describeQueue(new DescribeQueueRequest()).getItems().get(0).setDescription("modified");
+		DescribeQueueResult result = client.describeQueue(new DescribeQueueRequest());
+		assertEquals("first", result.getItems().get(0).getDescription());
+		assertEquals(1, requests(DescribeQueueRequest.Constant.FUNCTION));
+	}
+
+	@Test
+	public void invalidatesOnUpdateAndDelete() {
+		client.getQueue(new GetQueueRequest().withQueueName("queue"));
+		client.describeQueue(new DescribeQueueRequest());
+		client.updateQueue(new UpdateQueueRequest().withQueueName("queue").withDescription("second").withNotificationType("none"));
+		assertEquals("second", client.getQueue(new GetQueueRequest().withQueueName("queue")).getItem().getDescription());
+		assertEquals("second", client.describeQueue(new DescribeQueueRequest()).getItems().get(0).getDescription());
+		client.deleteQueue(new DeleteQueueRequest().withQueueName("queue"));
+		assertEquals(0, client.describeQueue(new DescribeQueueRequest()).getItems().size());
+		assertEquals(2, requests(GetQueueRequest.Constant.FUNCTION));
+		assertEquals(3, requests(DescribeQueueRequest.Constant.FUNCTION));
+	}
+
+	@Test
+	public void invalidatesDescribeQueueOnCreate() {
+		assertEquals(1, client.describeQueue(new DescribeQueueRequest()).getItems().size());
+		client.createQueue(new CreateQueueRequest().withName("other").withNotificationType("none"));
+		assertEquals(2, client.describeQueue(new DescribeQueueRequest()).getItems().size());
+	}
+
+	@Test
+	public void bypassesTheCacheWithoutAQueueName() {
+		for(int i = 0; i < 2; i++) {
+			try {
+				client.getQueue(new GetQueueRequest());
+			} catch (NotFoundException e) {
+				// キャッシュせずにサーバーの応答をそのまま返す
+			}
+		}
+		assertEquals(2, requests(GetQueueRequest.Constant.FUNCTION));
+		assertEquals(0, client.getQueueCache().size());
+	}
+
+	@Test
+	public void reloadsAfterTheTtl() throws Exception {
+		CachingGs2JobQueueClient shortLived = new CachingGs2JobQueueClient(null, "ap-northeast-1", 50, 10);
+		shortLived.withTransport(emulator.createTransport());
+		shortLived.getQueue(new GetQueueRequest().withQueueName("queue"));
+		Thread.sleep(100);
+		shortLived.getQueue(new GetQueueRequest().withQueueName("queue"));
+		assertEquals(2, shortLived.getQueueCache().getMissCount());
+		assertEquals(0, shortLived.getQueueCache().getHitCount());
+	}
+
+	private long requests(String function) {
+		InMemoryRequestMetrics.OperationSnapshot snapshot = metrics.snapshot().get(function);
+		return snapshot == null ? 0 : snapshot.getCount();
+	}
+
+}
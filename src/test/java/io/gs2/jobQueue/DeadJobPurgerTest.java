@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DeleteDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobResult;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link DeadJobPurger} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class DeadJobPurgerTest {
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> new JobResult().withStatusCode(500)).start();
+		executor = Executors.newFixedThreadPool(4);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void deletesEveryDeadJobAcrossPages() throws Exception {
+		seed(25);
+		AtomicInteger deleted = new AtomicInteger();
+		DeadJobPurger.PurgeReport report = new DeadJobPurger(client, executor, 4).withPageSize(4).purge("queue", new DeadJobPurger.Listener() {
+			@Override
+			public void onDeleted(DeadJob deadJob) {
+				deleted.incrementAndGet();
+			}
+		});
+		assertEquals(25, report.getDeleted());
+		assertEquals(25, deleted.get());
+		assertEquals(0, report.getAlreadyDeleted());
+		assertTrue(report.getFailures().isEmpty());
+		assertEquals(0, deadJobs());
+	}
+
+	@Test
+	public void deletesOnlyTheMatchingDeadJobs() throws Exception {
+		seed(12);
+		DeadJobPurger purger = new DeadJobPurger(client, executor, 2).withPageSize(5);
+		assertEquals(4, purger.purgeByUserId("queue", "user0", null).getDeleted());
+		assertEquals(4, purger.purgeByScriptName("queue", "script1", null).getDeleted());
+		assertEquals(4, deadJobs());
+	}
+
+	@Test
+	public void reportsFailuresAndKeepsGoing() throws Exception {
+		seed(10);
+		Gs2JobQueueClient failing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public void deleteDeadJob(DeleteDeadJobRequest request) {
+				if("user1".equals(request.getUserId())) {
+					throw new IllegalStateException("delete failed");
+				}
+				super.deleteDeadJob(request);
+			}
+		};
+		AtomicInteger failed = new AtomicInteger();
+		DeadJobPurger.PurgeReport report = new DeadJobPurger(failing, executor, 3).withPageSize(3).purge("queue", new DeadJobPurger.Listener() {
+			@Override
+			public void onFailed(DeadJob deadJob, Throwable error) {
+				failed.incrementAndGet();
+			}
+		});
+		assertEquals(7, report.getDeleted());
+		assertEquals(3, report.getFailures().size());
+		assertEquals(3, failed.get());
+		assertEquals(3, deadJobs());
+	}
+
+	@Test
+	public void countsDeadJobsDeletedElsewhereSeparately() throws Exception {
+		seed(5);
+		Gs2JobQueueClient racing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public void deleteDeadJob(DeleteDeadJobRequest request) {
+				// 他の処理が先に削除した状態を再現する
+				super.deleteDeadJob(request);
+				super.deleteDeadJob(request);
+			}
+		};
+		DeadJobPurger.PurgeReport report = new DeadJobPurger(racing, executor, 2).purge("queue", null);
+		assertEquals(0, report.getDeleted());
+		assertEquals(5, report.getAlreadyDeleted());
+		assertTrue(report.getFailures().isEmpty());
+	}
+
+	@Test
+	public void keepsThePartialReportWhenListingFails() throws Exception {
+		seed(10);
+		AtomicInteger pages = new AtomicInteger();
+		Gs2JobQueueClient failing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public DescribeDeadJobResult describeDeadJob(DescribeDeadJobRequest request) {
+				if(pages.incrementAndGet() > 1) {
+					throw new IllegalStateException("list failed");
+				}
+				return super.describeDeadJob(request);
+			}
+		};
+		try {
+			new DeadJobPurger(failing, executor, 2).withPageSize(4).purge("queue", null);
+		} catch (DeadJobPurger.PurgeException e) {
+			assertEquals("list failed", e.getCause().getMessage());
+			assertEquals(4, e.getReport().getScanned());
+			assertEquals(4, e.getReport().getDeleted());
+			return;
+		}
+		throw new AssertionError("expected PurgeException");
+	}
+
+	@Test(timeout = 10000)
+	public void returnsWhenTheExecutorRejectsDeletes() throws Exception {
+		seed(5);
+		executor.shutdown();
+		DeadJobPurger.PurgeReport report = new DeadJobPurger(client, executor, 2).purge("queue", null);
+		assertEquals(0, report.getDeleted());
+		assertEquals(5, report.getFailures().size());
+		for(Throwable failure : report.getFailures().values()) {
+			assertTrue(failure instanceof RejectedExecutionException);
+		}
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void failsForAMissingQueue() throws Throwable {
+		try {
+			new DeadJobPurger(client, executor, 2).purge("missing", null);
+		} catch (DeadJobPurger.PurgeException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositivePageSize() {
+		new DeadJobPurger(client, executor, 2).withPageSize(0);
+	}
+
+	/**
+	 * ユーザ user0 - user2、スクリプト script0 - script2 に分けてデッドジョブを作成します。
+	 */
+	private void seed(int count) {
+		for(int i = 0; i < count; i++) {
+			client.push(new PushRequest().withQueueName("queue").withUserId("user" + (i % 3)).withJobs(Collections.singletonList(
+					new PushJob().withScriptName("script" + (i % 3)).withArgs("{\"i\":" + i + "}").withMaxRetry(0))));
+		}
+		for(int i = 0; i < count; i++) {
+			client.runByUserId(new RunByUserIdRequest().withQueueName("queue").withUserId("user" + (i % 3)));
+		}
+	}
+
+	private int deadJobs() {
+		return client.describeDeadJob(new DescribeDeadJobRequest().withQueueName("queue").withLimit(1000)).getItems().size();
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DeleteDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobRequest;
+import io.gs2.jobQueue.control.DescribeDeadJobResult;
+import io.gs2.jobQueue.control.DescribeJobByUserIdRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link DeadJobRedriver} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class DeadJobRedriverTest {
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> new JobResult().withStatusCode(500)).start();
+		executor = Executors.newFixedThreadPool(4);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void requeuesEveryDeadJobInItsOriginalOrder() throws Exception {
+		seed(30);
+		AtomicInteger redriven = new AtomicInteger();
+		DeadJobRedriver.RedriveReport report = new DeadJobRedriver(client, executor, 4, 3, 2).withPageSize(7).redrive("queue", new DeadJobRedriver.Listener() {
+			@Override
+			public void onRedriven(DeadJob deadJob, Job job) {
+				assertEquals(deadJob.getArgs(), job.getArgs());
+				redriven.incrementAndGet();
+			}
+		});
+		assertEquals(30, report.getScanned());
+		assertEquals(30, report.getPushed());
+		assertEquals(30, report.getDeleted());
+		assertEquals(30, redriven.get());
+		assertTrue(report.getFailures().isEmpty());
+		assertEquals(0, deadJobs());
+		for(int u = 0; u < 3; u++) {
+			List<String> expected = new ArrayList<>();
+			for(int i = u; i < 30; i += 3) {
+				expected.add(args(i));
+			}
+			List<String> actual = new ArrayList<>();
+			for(Job job : jobs("user" + u)) {
+				assertEquals(Integer.valueOf(2), job.getMaxRetry());
+				actual.add(job.getArgs());
+			}
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void requeuesOnlyTheMatchingDeadJobs() throws Exception {
+		seed(9);
+		DeadJobRedriver redriver = new DeadJobRedriver(client, executor, 2);
+		assertEquals(3, redriver.redriveByUserId("queue", "user2", null).getDeleted());
+		assertEquals(3, redriver.redriveByScriptName("queue", "script0", null).getDeleted());
+		assertEquals(3, deadJobs());
+		assertEquals(3, jobs("user2").size());
+		assertEquals(3, jobs("user0").size());
+	}
+
+	@Test
+	public void keepsDeadJobsWhosePushFailed() throws Exception {
+		seed(9);
+		Gs2JobQueueClient failing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public PushResult push(PushRequest request) {
+				if("user1".equals(request.getUserId())) {
+					throw new IllegalStateException("push failed");
+				}
+				return super.push(request);
+			}
+		};
+		AtomicInteger failed = new AtomicInteger();
+		DeadJobRedriver.RedriveReport report = new DeadJobRedriver(failing, executor, 2).redrive("queue", new DeadJobRedriver.Listener() {
+			@Override
+			public void onFailed(DeadJob deadJob, Throwable error) {
+				failed.incrementAndGet();
+			}
+		});
+		assertEquals(6, report.getPushed());
+		assertEquals(6, report.getDeleted());
+		assertEquals(3, report.getFailures().size());
+		assertEquals(3, failed.get());
+		assertEquals(3, deadJobs());
+	}
+
+	@Test
+	public void countsDeadJobsDeletedElsewhereSeparately() throws Exception {
+		seed(4);
+		Gs2JobQueueClient racing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public void deleteDeadJob(DeleteDeadJobRequest request) {
+				super.deleteDeadJob(request);
+				super.deleteDeadJob(request);
+			}
+		};
+		DeadJobRedriver.RedriveReport report = new DeadJobRedriver(racing, executor, 2).redrive("queue", null);
+		assertEquals(4, report.getPushed());
+		assertEquals(0, report.getDeleted());
+		assertEquals(4, report.getAlreadyDeleted());
+	}
+
+	@Test
+	public void keepsThePartialReportWhenListingFails() throws Exception {
+		seed(10);
+		AtomicInteger pages = new AtomicInteger();
+		Gs2JobQueueClient failing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public DescribeDeadJobResult describeDeadJob(DescribeDeadJobRequest request) {
+				if(pages.incrementAndGet() > 1) {
+					throw new IllegalStateException("list failed");
+				}
+				return super.describeDeadJob(request);
+			}
+		};
+		try {
+			new DeadJobRedriver(failing, executor, 2).withPageSize(4).redrive("queue", null);
+		} catch (DeadJobRedriver.RedriveException e) {
+			assertEquals("list failed", e.getCause().getMessage());
+			assertEquals(4, e.getReport().getPushed());
+			assertEquals(4, e.getReport().getDeleted());
+			return;
+		}
+		throw new AssertionError("expected RedriveException");
+	}
+
+	@Test(timeout = 10000)
+	public void returnsWhenTheExecutorRejectsBatches() throws Exception {
+		seed(6);
+		executor.shutdown();
+		DeadJobRedriver.RedriveReport report = new DeadJobRedriver(client, executor, 2).redrive("queue", null);
+		assertEquals(0, report.getPushed());
+		assertEquals(6, report.getFailures().size());
+		for(Throwable failure : report.getFailures().values()) {
+			assertTrue(failure instanceof RejectedExecutionException);
+		}
+		assertEquals(6, deadJobs());
+	}
+
+	/**
+	 * ユーザ user0 - user2、スクリプト script0 - script2 に分けてデッドジョブを作成します。
+	 */
+	private void seed(int count) {
+		for(int i = 0; i < count; i++) {
+			client.push(new PushRequest().withQueueName("queue").withUserId("user" + (i % 3)).withJobs(Collections.singletonList(
+					new PushJob().withScriptName("script" + (i % 3)).withArgs(args(i)).withMaxRetry(0))));
+		}
+		for(int i = 0; i < count; i++) {
+			client.runByUserId(new RunByUserIdRequest().withQueueName("queue").withUserId("user" + (i % 3)));
+		}
+	}
+
+	private int deadJobs() {
+		return client.describeDeadJob(new DescribeDeadJobRequest().withQueueName("queue").withLimit(1000)).getItems().size();
+	}
+
+	private List<Job> jobs(String userId) {
+		return client.describeJobByUserId(new DescribeJobByUserIdRequest().withQueueName("queue").withUserId(userId).withLimit(1000)).getItems();
+	}
+
+	private static String args(int i) {
+		return "{\"i\":" + i + "}";
+	}
+
+}
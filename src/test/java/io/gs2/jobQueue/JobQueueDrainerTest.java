@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.control.RunByUserIdResult;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link JobQueueDrainer} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class JobQueueDrainerTest {
+
+	private final Map<String, List<String>> executed = new ConcurrentHashMap<>();
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> {
+			executed.computeIfAbsent(job.getUserId(), k -> Collections.synchronizedList(new ArrayList<>())).add(job.getArgs());
+			return new JobResult().withStatusCode(200);
+		}).start();
+		executor = Executors.newFixedThreadPool(4);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void runsEveryJobOfEveryUserInOrder() throws Exception {
+		List<String> userIds = IntStream.range(0, 20).mapToObj(i -> "user" + i).collect(Collectors.toList());
+		for(String userId : userIds) {
+			push(userId, 5);
+		}
+		List<String> completed = Collections.synchronizedList(new ArrayList<>());
+		JobQueueDrainer.DrainReport report = new JobQueueDrainer(client, executor, 3).drain("queue", userIds.iterator(), new JobQueueDrainer.Listener() {
+			@Override
+			public void onUserCompleted(String userId, int jobCount) {
+				assertEquals(5, jobCount);
+				completed.add(userId);
+			}
+		});
+		assertEquals(20, report.getCompletedUsers());
+		assertEquals(100, report.getExecutedJobs());
+		assertTrue(report.getFailures().isEmpty());
+		assertEquals(20, completed.size());
+		for(String userId : userIds) {
+			assertEquals(Arrays.asList(args(0), args(1), args(2), args(3), args(4)), executed.get(userId));
+		}
+	}
+
+	@Test
+	public void completesUsersWithoutJobs() throws Exception {
+		JobQueueDrainer.DrainReport report = new JobQueueDrainer(client, executor, 2).drain("queue", Arrays.asList("a", "b", "c").stream());
+		assertEquals(3, report.getCompletedUsers());
+		assertEquals(0, report.getExecutedJobs());
+	}
+
+	@Test
+	public void reportsFailedUsersAndContinues() throws Exception {
+		push("good", 2);
+		push("bad", 2);
+		Gs2JobQueueClient failing = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport()) {
+			@Override
+			public RunByUserIdResult runByUserId(RunByUserIdRequest request) {
+				if("bad".equals(request.getUserId())) {
+					throw new IllegalStateException("boom");
+				}
+				return super.runByUserId(request);
+			}
+		};
+		List<String> failed = Collections.synchronizedList(new ArrayList<>());
+		JobQueueDrainer.DrainReport report = new JobQueueDrainer(failing, executor, 2).drain("queue", Arrays.asList("good", "bad").iterator(), new JobQueueDrainer.Listener() {
+			@Override
+			public void onUserFailed(String userId, int jobCount, Throwable error) {
+				failed.add(userId);
+			}
+		});
+		assertEquals(1, report.getCompletedUsers());
+		assertEquals(2, report.getExecutedJobs());
+		assertEquals(Collections.singletonList("bad"), failed);
+		assertTrue(report.getFailures().get("bad") instanceof IllegalStateException);
+	}
+
+	@Test(timeout = 10000)
+	public void returnsWhenTheExecutorRejectsUsers() throws Exception {
+		push("user", 3);
+		executor.shutdown();
+		JobQueueDrainer.DrainReport report = new JobQueueDrainer(client, executor, 2).drain("queue", Arrays.asList("user", "other", "another").stream());
+		assertEquals(0, report.getCompletedUsers());
+		assertEquals(3, report.getFailures().size());
+		assertTrue(report.getFailures().get("user") instanceof RejectedExecutionException);
+	}
+
+	private void push(String userId, int count) {
+		List<PushJob> jobs = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			jobs.add(new PushJob().withScriptName("script").withArgs(args(i)).withMaxRetry(0));
+		}
+		client.push(new PushRequest().withQueueName("queue").withUserId(userId).withJobs(jobs));
+	}
+
+	private static String args(int i) {
+		return "{\"i\":" + i + "}";
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DescribeJobResultRequest;
+import io.gs2.jobQueue.control.DescribeJobResultResult;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link JobResultWaiter} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class JobResultWaiterTest {
+
+	/** 失敗させる残り回数 */
+	private final AtomicInteger failures = new AtomicInteger();
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> failures.getAndDecrement() > 0
+				? new JobResult().withStatusCode(500)
+				: new JobResult().withStatusCode(200).withResult("done")).start();
+		executor = Executors.newFixedThreadPool(4);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void waitsForTheSuccessfulResult() throws Exception {
+		failures.set(2);
+		String jobId = push(2);
+		try(JobResultWaiter waiter = new JobResultWaiter(new Gs2JobQueueAsyncClient(client, executor), 10, 50, 2)) {
+			CompletableFuture<JobResult> any = waiter.await("queue", jobId, 0, JobResultWaiter.ANY_RESULT);
+			CompletableFuture<JobResult> last = waiter.await("queue", jobId);
+			Thread.sleep(50);
+			assertFalse(any.isDone());
+			run();
+			assertEquals(Integer.valueOf(500), any.get(5, TimeUnit.SECONDS).getStatusCode());
+			assertFalse(last.isDone());
+			run();
+			run();
+			JobResult result = last.get(5, TimeUnit.SECONDS);
+			assertEquals(Integer.valueOf(200), result.getStatusCode());
+			assertEquals("done", result.getResult());
+			assertEquals(0, waiter.getWaitingCount());
+		}
+	}
+
+	@Test
+	public void completesWithTheFinalFailureOfTheLastJob() throws Exception {
+		failures.set(1);
+		String jobId = push(0);
+		try(JobResultWaiter waiter = new JobResultWaiter(new Gs2JobQueueAsyncClient(client, executor), 10, 50, 2)) {
+			CompletableFuture<JobResult> future = waiter.await("queue", jobId);
+			run();
+			JobResult result = future.get(5, TimeUnit.SECONDS);
+			assertEquals(Integer.valueOf(500), result.getStatusCode());
+			assertTrue(result.getEndOfJob());
+		}
+	}
+
+	@Test
+	public void timesOut() throws Exception {
+		String jobId = push(0);
+		try(JobResultWaiter waiter = new JobResultWaiter(new Gs2JobQueueAsyncClient(client, executor), 10, 50, 2)) {
+			assertCause(TimeoutException.class, waiter.await("queue", jobId, 100, JobResultWaiter.FINAL_RESULT));
+		}
+	}
+
+	@Test
+	public void stopsOnPermanentErrors() throws Exception {
+		try(JobResultWaiter waiter = new JobResultWaiter(new Gs2JobQueueAsyncClient(client, executor), 10, 50, 2)) {
+			assertCause(NotFoundException.class, waiter.await("missing", "job", 5000, JobResultWaiter.FINAL_RESULT));
+		}
+	}
+
+	@Test
+	public void cancelsWaitsOnClose() throws Exception {
+		String jobId = push(0);
+		JobResultWaiter waiter = new JobResultWaiter(new Gs2JobQueueAsyncClient(client, executor), 10, 50, 2);
+		CompletableFuture<JobResult> future = waiter.await("queue", jobId);
+		waiter.close();
+		assertTrue(future.isCompletedExceptionally());
+		try {
+			future.get();
+		} catch (CancellationException | ExecutionException e) {
+			return;
+		}
+		throw new AssertionError("expected cancellation");
+	}
+
+	@Test
+	public void limitsConcurrentPolls() throws Exception {
+		AtomicInteger current = new AtomicInteger();
+		AtomicInteger max = new AtomicInteger();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<DescribeJobResultResult> describeJobResult(DescribeJobResultRequest request) {
+				max.accumulateAndGet(current.incrementAndGet(), Math::max);
+				return CompletableFuture.supplyAsync(() -> {
+					try {
+						Thread.sleep(5);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					current.decrementAndGet();
+					return null;
+				}, executor).thenCompose(v -> super.describeJobResult(request));
+			}
+		};
+		List<String> jobIds = new ArrayList<>();
+		for(int i = 0; i < 20; i++) {
+			jobIds.add(push(0));
+		}
+		try(JobResultWaiter waiter = new JobResultWaiter(async, 1, 5, 1, 2)) {
+			List<CompletableFuture<JobResult>> futures = new ArrayList<>();
+			for(String jobId : jobIds) {
+				futures.add(waiter.await("queue", jobId));
+			}
+			Thread.sleep(100);
+			for(int i = 0; i < jobIds.size(); i++) {
+				run();
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+		}
+		assertTrue(max.get() <= 2);
+	}
+
+	private String push(int maxRetry) {
+		return client.push(new PushRequest().withQueueName("queue").withUserId("user").withJobs(Collections.singletonList(
+				new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(maxRetry)))).getItems().get(0).getJobId();
+	}
+
+	private void run() {
+		client.runByUserId(new RunByUserIdRequest().withQueueName("queue").withUserId("user"));
+	}
+
+	private static void assertCause(Class<? extends Throwable> expected, CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(String.valueOf(e.getCause()), expected.isInstance(e.getCause()));
+			return;
+		}
+		throw new AssertionError("expected " + expected.getSimpleName());
+	}
+
+}
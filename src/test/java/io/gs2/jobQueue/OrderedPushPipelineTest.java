@@ -0,0 +1,271 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.exception.BadRequestException;
+import io.gs2.exception.ServiceUnavailableException;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link OrderedPushPipeline} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class OrderedPushPipelineTest {
+
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> {
+			executed.add(job.getUserId() + ":" + job.getArgs());
+			return new JobResult().withStatusCode(200);
+		}).start();
+		executor = Executors.newFixedThreadPool(8);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void registersJobsInTheOrderTheyWerePushed() throws Exception {
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(new Gs2JobQueueAsyncClient(client, executor), 5, 0, 0)) {
+			for(int i = 0; i < 100; i++) {
+				futures.add(pipeline.push("queue", "user" + (i % 2), job(i)));
+			}
+			for(int i = 0; i < futures.size(); i++) {
+				Job job = futures.get(i).get(10, TimeUnit.SECONDS);
+				assertEquals("user" + (i % 2), job.getUserId());
+				assertEquals(job(i).getArgs(), job.getArgs());
+			}
+			awaitIdle(pipeline);
+		}
+		for(int u = 0; u < 2; u++) {
+			executed.clear();
+			while(emulator.getStore().runByUserId("queue", "user" + u) != null) {
+			}
+			List<String> expected = new ArrayList<>();
+			for(int i = u; i < 100; i += 2) {
+				expected.add("user" + u + ":" + job(i).getArgs());
+			}
+			assertEquals(expected, executed);
+		}
+	}
+
+	@Test
+	public void neverSendsTwoBatchesOfTheSameUserConcurrently() throws Exception {
+		ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+		AtomicInteger overlaps = new AtomicInteger();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				AtomicInteger counter = inFlight.computeIfAbsent(request.getUserId(), k -> new AtomicInteger());
+				if(counter.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				return super.push(request).whenComplete((result, error) -> counter.decrementAndGet());
+			}
+		};
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 3, 0, 0)) {
+			for(int i = 0; i < 120; i++) {
+				futures.add(pipeline.push("queue", "user" + (i % 3), job(i)));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+		}
+		assertEquals(0, overlaps.get());
+	}
+
+	@Test
+	public void retriesABatchTheServerDidNotProcess() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				if(calls.incrementAndGet() <= 2) {
+					CompletableFuture<PushResult> future = new CompletableFuture<>();
+					future.completeExceptionally(new ServiceUnavailableException("unavailable"));
+					return future;
+				}
+				return super.push(request);
+			}
+		};
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 10, 2, 1)) {
+			CompletableFuture<Job> first = pipeline.push("queue", "user", job(0));
+			CompletableFuture<Job> second = pipeline.push("queue", "user", job(1));
+			assertEquals(job(0).getArgs(), first.get(10, TimeUnit.SECONDS).getArgs());
+			assertEquals(job(1).getArgs(), second.get(10, TimeUnit.SECONDS).getArgs());
+		}
+		assertTrue(calls.get() >= 3);
+		assertEquals(2, emulator.getStore().describeJobs("queue", null, null).getItems().size());
+	}
+
+	@Test
+	public void failsTheBatchAndEverythingBehindItWhenRetriesRunOut() throws Exception {
+		ServiceUnavailableException failure = new ServiceUnavailableException("unavailable");
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				calls.incrementAndGet();
+				return gate.thenCompose(v -> {
+					CompletableFuture<PushResult> future = new CompletableFuture<>();
+					future.completeExceptionally(failure);
+					return future;
+				});
+			}
+		};
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 1, 2, 1)) {
+			for(int i = 0; i < 3; i++) {
+				futures.add(pipeline.push("queue", "user", job(i)));
+			}
+			gate.complete(null);
+			for(CompletableFuture<Job> future : futures) {
+				assertSame(failure, cause(future));
+			}
+			awaitIdle(pipeline);
+			// 失敗した後に登録したジョブは新しく送信する
+			calls.set(0);
+			assertSame(failure, cause(pipeline.push("queue", "user", job(3))));
+			assertEquals(3, calls.get());
+		}
+	}
+
+	@Test
+	public void doesNotRetryErrorsTheServerMayHaveProcessed() throws Exception {
+		BadRequestException failure = new BadRequestException("bad request");
+		AtomicInteger calls = new AtomicInteger();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				calls.incrementAndGet();
+				throw failure;
+			}
+		};
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 10, 3, 1)) {
+			assertSame(failure, cause(pipeline.push("queue", "user", job(0))));
+		}
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void failsWhenTheServerReturnsTheWrongNumberOfJobs() throws Exception {
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				return CompletableFuture.completedFuture(new PushResult());
+			}
+		};
+		try(OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 10, 3, 1)) {
+			assertTrue(cause(pipeline.push("queue", "user", job(0))) instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void doesNotRetryBatchesThatFailAfterClose() throws Exception {
+		ServiceUnavailableException failure = new ServiceUnavailableException("unavailable");
+		AtomicInteger calls = new AtomicInteger();
+		CompletableFuture<Void> gate = new CompletableFuture<>();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				calls.incrementAndGet();
+				return gate.thenCompose(v -> {
+					CompletableFuture<PushResult> future = new CompletableFuture<>();
+					future.completeExceptionally(failure);
+					return future;
+				});
+			}
+		};
+		OrderedPushPipeline pipeline = new OrderedPushPipeline(async, 10, 3, 60000);
+		CompletableFuture<Job> future = pipeline.push("queue", "user", job(0));
+		pipeline.close();
+		gate.complete(null);
+		assertSame(failure, cause(future));
+		assertEquals(1, calls.get());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsPushesAfterClose() {
+		OrderedPushPipeline pipeline = new OrderedPushPipeline(new Gs2JobQueueAsyncClient(client, executor));
+		pipeline.close();
+		pipeline.push("queue", "user", job(0));
+	}
+
+	private static void awaitIdle(OrderedPushPipeline pipeline) throws InterruptedException {
+		// future の完了後にレーンを片付けるため、少し待つ
+		long deadline = System.currentTimeMillis() + 10000;
+		while(pipeline.getActiveUsers() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(0, pipeline.getActiveUsers());
+	}
+
+	private static Throwable cause(CompletableFuture<Job> future) throws Exception {
+		try {
+			future.get(10, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+		throw new AssertionError("expected failure");
+	}
+
+	private static PushJob job(int i) {
+		return new PushJob().withScriptName("script").withArgs("{\"i\":" + i + "}").withMaxRetry(0);
+	}
+
+}
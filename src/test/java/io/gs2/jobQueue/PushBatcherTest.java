@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.PushResult;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link PushBatcher} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class PushBatcherTest {
+
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+	private Gs2JobQueueEmulator emulator;
+
+	private ExecutorService executor;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> {
+			executed.add(job.getUserId() + ":" + job.getArgs());
+			return new JobResult().withStatusCode(200);
+		}).start();
+		executor = Executors.newFixedThreadPool(8);
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+		emulator.close();
+	}
+
+	@Test
+	public void registersJobsInTheOrderTheyWerePushed() throws Exception {
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(PushBatcher batcher = new PushBatcher(new Gs2JobQueueAsyncClient(client, executor), 7, 1)) {
+			for(int i = 0; i < 200; i++) {
+				futures.add(batcher.push("queue", "user" + (i % 3), job(i)));
+			}
+		}
+		for(int i = 0; i < futures.size(); i++) {
+			Job job = futures.get(i).get(10, TimeUnit.SECONDS);
+			assertEquals("user" + (i % 3), job.getUserId());
+			assertEquals(job(i).getArgs(), job.getArgs());
+		}
+		for(int u = 0; u < 3; u++) {
+			executed.clear();
+			while(emulator.getStore().runByUserId("queue", "user" + u) != null) {
+			}
+			List<String> expected = new ArrayList<>();
+			for(int i = u; i < 200; i += 3) {
+				expected.add("user" + u + ":" + job(i).getArgs());
+			}
+			assertEquals(expected, executed);
+		}
+	}
+
+	@Test
+	public void neverSendsTwoBatchesOfTheSameKeyConcurrently() throws Exception {
+		ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+		AtomicInteger overlaps = new AtomicInteger();
+		AtomicInteger calls = new AtomicInteger();
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				calls.incrementAndGet();
+				AtomicInteger counter = inFlight.computeIfAbsent(request.getUserId(), k -> new AtomicInteger());
+				if(counter.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+				return CompletableFuture.supplyAsync(() -> {
+					try {
+						Thread.sleep(2);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					counter.decrementAndGet();
+					return null;
+				}, executor).thenCompose(v -> super.push(request));
+			}
+		};
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(PushBatcher batcher = new PushBatcher(async, 2, 1)) {
+			for(int i = 0; i < 300; i++) {
+				futures.add(batcher.push("queue", "user" + (i % 2), job(i)));
+				if(i % 10 == 0) {
+					Thread.sleep(1);
+				}
+			}
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+		assertTrue(calls.get() >= 150);
+		assertEquals(0, overlaps.get());
+	}
+
+	@Test
+	public void failsEveryJobOfAFailedBatch() throws Exception {
+		RuntimeException failure = new RuntimeException("push failed");
+		Gs2JobQueueAsyncClient async = new Gs2JobQueueAsyncClient(client, executor) {
+			@Override
+			public CompletableFuture<PushResult> push(PushRequest request) {
+				throw failure;
+			}
+		};
+		List<CompletableFuture<Job>> futures = new ArrayList<>();
+		try(PushBatcher batcher = new PushBatcher(async, 3, 1000)) {
+			for(int i = 0; i < 5; i++) {
+				futures.add(batcher.push("queue", "user", job(i)));
+			}
+		}
+		for(CompletableFuture<Job> future : futures) {
+			try {
+				future.get(10, TimeUnit.SECONDS);
+				throw new AssertionError("expected failure");
+			} catch (ExecutionException e) {
+				assertEquals(failure, e.getCause());
+			}
+		}
+	}
+
+	@Test
+	public void failsJobsWhenTheExecutorRejectsTheBatch() throws Exception {
+		executor.shutdown();
+		CompletableFuture<Job> future;
+		try(PushBatcher batcher = new PushBatcher(new Gs2JobQueueAsyncClient(client, executor), 1, 1)) {
+			future = batcher.push("queue", "user", job(0));
+		}
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			throw new AssertionError("expected failure");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof java.util.concurrent.RejectedExecutionException);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsPushesAfterClose() {
+		PushBatcher batcher = new PushBatcher(new Gs2JobQueueAsyncClient(client, executor));
+		batcher.close();
+		batcher.push("queue", "user", job(0));
+	}
+
+	private static PushJob job(int i) {
+		return new PushJob().withScriptName("script").withArgs("{\"i\":" + i + "}").withMaxRetry(0);
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.emulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.GetDeadJobRequest;
+import io.gs2.jobQueue.control.GetQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.control.RunByUserIdRequest;
+import io.gs2.jobQueue.model.DeadJob;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.JobResult;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link Gs2JobQueueEmulator} と {@link EmulatorStore} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class Gs2JobQueueEmulatorTest {
+
+	private Gs2JobQueueEmulator emulator;
+
+	private Gs2JobQueueClient client;
+
+	@Before
+	public void setUp() throws Exception {
+		emulator = new Gs2JobQueueEmulator(job -> "{\"fail\":true}".equals(job.getArgs())
+				? new JobResult().withStatusCode(500)
+				: new JobResult().withStatusCode(200).withResult("ok")).start();
+		client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+		client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+	}
+
+	@After
+	public void tearDown() {
+		emulator.close();
+	}
+
+	@Test
+	public void runsJobsInOrderAndMovesFailuresToDeadJobs() {
+		List<Job> jobs = client.push(new PushRequest().withQueueName("queue").withUserId("user").withJobs(Arrays.asList(
+				new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(0),
+				new PushJob().withScriptName("script").withArgs("{\"fail\":true}").withMaxRetry(1)))).getItems();
+		JobResult first = run("user");
+		assertEquals(jobs.get(0).getJobId(), first.getJobId());
+		assertEquals(Integer.valueOf(200), first.getStatusCode());
+		assertFalse(first.getEndOfJob());
+		// リトライ回数を超えるまで先頭に残る
+		JobResult retried = run("user");
+		assertEquals(jobs.get(1).getJobId(), retried.getJobId());
+		assertFalse(retried.getEndOfJob());
+		JobResult dead = run("user");
+		assertEquals(jobs.get(1).getJobId(), dead.getJobId());
+		assertTrue(dead.getEndOfJob());
+		assertNull(run("user"));
+		DeadJob deadJob = client.getDeadJob(new GetDeadJobRequest().withQueueName("queue").withUserId("user").withJobId(jobs.get(1).getJobId())).getItem();
+		assertEquals("{\"fail\":true}", deadJob.getArgs());
+	}
+
+	@Test(expected = NotFoundException.class)
+	public void answersMissingQueuesWithNotFound() {
+		client.getQueue(new GetQueueRequest().withQueueName("missing"));
+	}
+
+	@Test
+	public void answersMalformedRequestsWithBadRequest() throws Exception {
+		String endpoint = emulator.getEndpoint();
+		assertEquals(400, call(endpoint, "POST", "/queue", "{broken", null));
+		assertEquals(400, call(endpoint, "POST", "/queue", "{\"name\":\"other\"}", "br"));
+		assertEquals(400, call(endpoint, "GET", "/queue?limit=abc", null, null));
+		assertEquals(400, call(endpoint, "GET", "/queue?limit=0", null, null));
+		assertEquals(400, call(endpoint, "GET", "/queue/queue/deadJob/unknown/result?pageToken=zz", null, null));
+		assertEquals(200, call(endpoint, "GET", "/queue?limit=1", null, null));
+	}
+
+	@Test
+	public void prunesEmptyUsersAndOldResults() {
+		EmulatorStore store = new EmulatorStore(ScriptRunner.SUCCEED, null, 3);
+		store.createQueue("queue", null, null, null, null);
+		List<String> jobIds = new ArrayList<>();
+		for(int i = 0; i < 5; i++) {
+			jobIds.add(store.push("queue", "user", Collections.singletonList(new PushJob().withScriptName("script").withArgs("{}"))).get(0).getJobId());
+		}
+		for(int i = 0; i < 5; i++) {
+			store.runByUserId("queue", "user");
+		}
+		assertTrue(store.describeJobResults("queue", jobIds.get(0), null, null).getItems().isEmpty());
+		assertTrue(store.describeJobResults("queue", jobIds.get(1), null, null).getItems().isEmpty());
+		for(int i = 2; i < 5; i++) {
+			assertEquals(1, store.describeJobResults("queue", jobIds.get(i), null, null).getItems().size());
+		}
+		assertTrue(store.describeJobsByUserId("queue", "user", null, null).getItems().isEmpty());
+		// 破棄した列の代わりに新しい列へ登録される
+		store.push("queue", "user", Collections.singletonList(new PushJob().withScriptName("script").withArgs("{}")));
+		assertEquals(1, store.describeJobsByUserId("queue", "user", null, null).getItems().size());
+	}
+
+	@Test
+	public void keepsEveryJobPushedWhileTheUserIsPruned() throws Exception {
+		EmulatorStore store = new EmulatorStore(ScriptRunner.SUCCEED);
+		store.createQueue("queue", null, null, null, null);
+		Thread runner = new Thread(() -> {
+			for(int i = 0; i < 20000; i++) {
+				store.runByUserId("queue", "user");
+			}
+		});
+		runner.start();
+		for(int i = 0; i < 2000; i++) {
+			store.push("queue", "user", Collections.singletonList(new PushJob().withScriptName("script").withArgs("{}")));
+		}
+		runner.join();
+		int executed = 0;
+		while(store.runByUserId("queue", "user") != null) {
+			executed++;
+		}
+		assertEquals(0, store.describeJobs("queue", null, null).getItems().size());
+		assertTrue(executed <= 2000);
+	}
+
+	private JobResult run(String userId) {
+		return client.runByUserId(new RunByUserIdRequest().withQueueName("queue").withUserId(userId)).getItem();
+	}
+
+	private static int call(String endpoint, String method, String path, String body, String contentEncoding) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(endpoint + path).openConnection();
+		try {
+			connection.setRequestMethod(method);
+			if(body != null) {
+				connection.setDoOutput(true);
+				connection.setRequestProperty("Content-Type", "application/json");
+				if(contentEncoding != null) {
+					connection.setRequestProperty("Content-Encoding", contentEncoding);
+				}
+				try(OutputStream out = connection.getOutputStream()) {
+					out.write(body.getBytes(StandardCharsets.UTF_8));
+				}
+			}
+			return connection.getResponseCode();
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.gs2.exception.BadRequestException;
+import io.gs2.exception.ServiceUnavailableException;
+import io.gs2.jobQueue.limit.RequestLimiter.Permit;
+
+/**
+ * {@link AimdConcurrencyLimiter} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class AimdConcurrencyLimiterTest {
+
+	private static final String FUNCTION = "RunByUserId";
+
+	@Test
+	public void growsByOneOverTheLimitPerUtilizedSuccess() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(4);
+		// 上限まで使っている状態で 4 件成功すると 4 → 4.25 → 4.49 → (半分未満のため増えない)
+		List<Permit> permits = acquire(limiter, 4);
+		for(Permit permit : permits) {
+			permit.release(0, null);
+		}
+		assertEquals(4, limiter.getLimit(FUNCTION));
+		for(int round = 0; round < 3; round++) {
+			for(Permit permit : acquire(limiter, limiter.getLimit(FUNCTION))) {
+				permit.release(0, null);
+			}
+		}
+		assertEquals(5, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void doesNotGrowWhileUnderutilized() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(10);
+		for(int i = 0; i < 1000; i++) {
+			limiter.acquire(null, FUNCTION).release(0, null);
+		}
+		assertEquals(10, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void neverGrowsPastTheMaxLimit() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(2).withMaxLimit(3);
+		for(int round = 0; round < 100; round++) {
+			for(Permit permit : acquire(limiter, limiter.getLimit(FUNCTION))) {
+				permit.release(0, null);
+			}
+		}
+		assertEquals(3, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void shrinksOncePerOverloadEpisode() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(100).withBackoffRatio(0.5);
+		List<Permit> inFlight = acquire(limiter, 10);
+		inFlight.get(0).release(0, new ServiceUnavailableException("overloaded"));
+		assertEquals(50, limiter.getLimit(FUNCTION));
+		// 減らす前に送信していたリクエストの失敗では減らさない
+		for(int i = 1; i < 10; i++) {
+			inFlight.get(i).release(0, new ServiceUnavailableException("overloaded"));
+		}
+		assertEquals(50, limiter.getLimit(FUNCTION));
+		limiter.acquire(null, FUNCTION).release(0, new ServiceUnavailableException("overloaded"));
+		assertEquals(25, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void shrinksOnSlowResponsesButNotOnRequestErrors() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(10).withLatencyThresholdMillis(100);
+		limiter.acquire(null, FUNCTION).release(0, new BadRequestException("bad"));
+		assertEquals(10, limiter.getLimit(FUNCTION));
+		limiter.acquire(null, FUNCTION).release(TimeUnit.MILLISECONDS.toNanos(200), null);
+		assertEquals(9, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void neverShrinksBelowTheMinLimit() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(4).withMinLimit(2).withBackoffRatio(0.1);
+		for(int i = 0; i < 5; i++) {
+			limiter.acquire(null, FUNCTION).release(0, new ServiceUnavailableException("overloaded"));
+		}
+		assertEquals(2, limiter.getLimit(FUNCTION));
+	}
+
+	@Test
+	public void keepsFunctionsIndependent() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(10);
+		limiter.acquire(null, FUNCTION).release(0, new ServiceUnavailableException("overloaded"));
+		assertEquals(9, limiter.getLimit(FUNCTION));
+		assertEquals(10, limiter.getLimit("Push"));
+	}
+
+	@Test
+	public void failsAfterTheMaxWait() {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(1).withMaxWaitMillis(50);
+		limiter.acquire(null, FUNCTION);
+		long start = System.nanoTime();
+		try {
+			limiter.acquire(null, FUNCTION);
+		} catch (LimitExceededException e) {
+			assertEquals(FUNCTION, e.getFunction());
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+			return;
+		}
+		throw new AssertionError("expected LimitExceededException");
+	}
+
+	@Test
+	public void grantsAsyncWaitersInArrivalOrder() throws Exception {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(1).withMaxLimit(1).withMaxWaitMillis(0);
+		Permit held = limiter.acquireAsync(null, FUNCTION).get();
+		CompletableFuture<Permit> first = limiter.acquireAsync(null, FUNCTION);
+		CompletableFuture<Permit> second = limiter.acquireAsync(null, FUNCTION);
+		assertFalse(first.isDone());
+		held.release(0, null);
+		assertTrue(first.isDone());
+		assertFalse(second.isDone());
+		first.get().release(0, null);
+		second.get(5, TimeUnit.SECONDS).release(0, null);
+		assertEquals(0, limiter.getInFlight(FUNCTION));
+	}
+
+	@Test
+	public void expiresAsyncWaitersAndReturnsCancelledPermits() throws Exception {
+		AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter().withInitialLimit(1).withMaxWaitMillis(50);
+		Permit held = limiter.acquire(null, FUNCTION);
+		CompletableFuture<Permit> expired = limiter.acquireAsync(null, FUNCTION);
+		try {
+			expired.get(5, TimeUnit.SECONDS);
+			throw new AssertionError("expected LimitExceededException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof LimitExceededException);
+		}
+		CompletableFuture<Permit> cancelled = limiter.acquireAsync(null, FUNCTION);
+		cancelled.cancel(false);
+		held.release(0, null);
+		assertEquals(0, limiter.getInFlight(FUNCTION));
+		limiter.acquire(null, FUNCTION).release(0, null);
+	}
+
+	private static List<Permit> acquire(AimdConcurrencyLimiter limiter, int count) {
+		List<Permit> permits = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			permits.add(limiter.acquire(null, FUNCTION));
+		}
+		return permits;
+	}
+
+}
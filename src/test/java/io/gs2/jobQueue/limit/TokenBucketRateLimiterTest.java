@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link TokenBucketRateLimiter} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class TokenBucketRateLimiterTest {
+
+	@Test
+	public void doesNotLimitWithoutRates() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+		for(int i = 0; i < 1000; i++) {
+			limiter.acquire("queue", "Push");
+		}
+	}
+
+	@Test
+	public void limitsEachQueueAndFunctionSeparately() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter().withRate(null, "Push", 0.001, 2);
+		assertEquals(2, acquired(limiter, "a", "Push", 10));
+		assertEquals(2, acquired(limiter, "b", "Push", 10));
+		assertEquals(10, acquired(limiter, "a", "RunByUserId", 10));
+	}
+
+	@Test
+	public void sharesTheQueueBucketAcrossFunctions() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter().withRate("a", null, 0.001, 3);
+		assertEquals(2, acquired(limiter, "a", "Push", 2));
+		assertEquals(1, acquired(limiter, "a", "RunByUserId", 10));
+		assertEquals(10, acquired(limiter, "b", "Push", 10));
+	}
+
+	@Test
+	public void prefersTheMostSpecificRate() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter()
+				.withRate(null, null, 0.001, 1)
+				.withRate("a", null, 0.001, 2)
+				.withRate(null, "Push", 0.001, 3)
+				.withRate("a", "Push", 0.001, 4);
+		assertEquals(4, acquired(limiter, "a", "Push", 10));
+		assertEquals(2, acquired(limiter, "a", "RunByUserId", 10));
+		assertEquals(3, acquired(limiter, "b", "Push", 10));
+		assertEquals(1, acquired(limiter, "b", "RunByUserId", 10));
+	}
+
+	@Test
+	public void waitsUpToTheMaxWait() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter().withRate(null, null, 20, 1).withMaxWaitMillis(200);
+		long start = System.nanoTime();
+		for(int i = 0; i < 3; i++) {
+			limiter.acquire("queue", "Push");
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+	}
+
+	@Test
+	public void delaysAsyncAcquisitionWithoutBlocking() throws Exception {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter().withRate(null, null, 10, 1).withMaxWaitMillis(1000);
+		assertTrue(limiter.acquireAsync("queue", "Push").isDone());
+		CompletableFuture<RequestLimiter.Permit> delayed = limiter.acquireAsync("queue", "Push");
+		assertFalse(delayed.isDone());
+		delayed.get(5, TimeUnit.SECONDS);
+		CompletableFuture<RequestLimiter.Permit> rejected = new TokenBucketRateLimiter().withRate(null, null, 0.001, 1).acquireAsync("queue", "Push");
+		assertTrue(rejected.isDone());
+	}
+
+	@Test
+	public void rejectsAsyncAcquisitionBeyondTheMaxWait() throws Exception {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter().withRate(null, null, 0.001, 1);
+		limiter.acquireAsync("queue", "Push").get();
+		try {
+			limiter.acquireAsync("queue", "Push").get();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof LimitExceededException);
+			return;
+		}
+		throw new AssertionError("expected LimitExceededException");
+	}
+
+	@Test
+	public void limitsClientRequests() throws Exception {
+		try(Gs2JobQueueEmulator emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start()) {
+			Gs2JobQueueClient client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport())
+					.withRequestLimiter(new TokenBucketRateLimiter().withRate("queue", PushRequest.Constant.FUNCTION, 0.001, 2));
+			client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+			PushRequest request = new PushRequest().withQueueName("queue").withUserId("user")
+					.withJobs(Collections.singletonList(new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(0)));
+			client.push(request);
+			client.push(request);
+			try {
+				client.push(request);
+			} catch (LimitExceededException e) {
+				assertEquals(PushRequest.Constant.FUNCTION, e.getFunction());
+				assertEquals(2, emulator.getStore().describeJobs("queue", null, null).getItems().size());
+				return;
+			}
+			throw new AssertionError("expected LimitExceededException");
+		}
+	}
+
+	private static int acquired(TokenBucketRateLimiter limiter, String queueName, String function, int attempts) {
+		int acquired = 0;
+		for(int i = 0; i < attempts; i++) {
+			try {
+				limiter.acquire(queueName, function);
+				acquired++;
+			} catch (LimitExceededException e) {
+				// 上限に達した
+			}
+		}
+		return acquired;
+	}
+
+}
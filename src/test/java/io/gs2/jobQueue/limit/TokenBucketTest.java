@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * {@link TokenBucket} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class TokenBucketTest {
+
+	@Test
+	public void allowsABurstThenOnePerInterval() throws Exception {
+		TokenBucket bucket = new TokenBucket(10, 3);
+		assertTrue(bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire());
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+		Thread.sleep(120);
+		assertTrue(bucket.tryAcquire());
+		assertFalse(bucket.tryAcquire());
+	}
+
+	@Test
+	public void reservesTokensOneIntervalApart() {
+		TokenBucket bucket = new TokenBucket(10, 1);
+		long interval = TimeUnit.MILLISECONDS.toNanos(100);
+		assertEquals(0, bucket.reserve(Long.MAX_VALUE));
+		long first = bucket.reserve(Long.MAX_VALUE);
+		long second = bucket.reserve(Long.MAX_VALUE);
+		assertTrue(first > interval - TimeUnit.MILLISECONDS.toNanos(20) && first <= interval);
+		assertTrue(second - first > interval - TimeUnit.MILLISECONDS.toNanos(5) && second - first <= interval + TimeUnit.MILLISECONDS.toNanos(5));
+	}
+
+	@Test
+	public void doesNotReserveBeyondTheMaxWait() {
+		TokenBucket bucket = new TokenBucket(1, 1);
+		assertTrue(bucket.tryAcquire());
+		assertEquals(-1, bucket.reserve(TimeUnit.MILLISECONDS.toNanos(10)));
+		// 予約しなかった分は次の予約に影響しない
+		long waitNanos = bucket.reserve(Long.MAX_VALUE);
+		assertTrue(waitNanos <= TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	public void paces() throws Exception {
+		TokenBucket bucket = new TokenBucket(200, 1);
+		long start = System.nanoTime();
+		for(int i = 0; i < 21; i++) {
+			assertTrue(bucket.acquire(Long.MAX_VALUE));
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(95));
+	}
+
+	@Test
+	public void grantsExactlyTheBurstAcrossThreads() throws Exception {
+		TokenBucket bucket = new TokenBucket(0.001, 50);
+		AtomicInteger acquired = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for(int t = 0; t < 8; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for(int i = 0; i < 100; i++) {
+					if(bucket.tryAcquire()) {
+						acquired.incrementAndGet();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(50, acquired.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositiveRate() {
+		new TokenBucket(0, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositiveBurst() {
+		new TokenBucket(1, 0);
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import io.gs2.exception.NotFoundException;
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.GetQueueRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link InMemoryRequestMetrics} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class InMemoryRequestMetricsTest {
+
+	@Test
+	public void aggregatesRequestsPerFunction() throws Exception {
+		InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+		try(Gs2JobQueueEmulator emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start()) {
+			Gs2JobQueueClient client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport())
+					.withMetricsListener(metrics);
+			client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+			for(int i = 0; i < 10; i++) {
+				client.push(new PushRequest().withQueueName("queue").withUserId("user")
+						.withJobs(Collections.singletonList(new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(0))));
+			}
+			client.getQueue(new GetQueueRequest().withQueueName("queue"));
+			try {
+				client.getQueue(new GetQueueRequest().withQueueName("missing"));
+			} catch (NotFoundException e) {
+				// 404 も計測される
+			}
+		}
+		InMemoryRequestMetrics.OperationSnapshot push = metrics.snapshot().get(PushRequest.Constant.FUNCTION);
+		assertEquals(10, push.getCount());
+		assertEquals(0, push.getErrors());
+		assertEquals(0, push.getInFlight());
+		assertTrue(push.getRequestBytes() > 0);
+		assertTrue(push.getResponseBytes() > 0);
+		assertEquals(Long.valueOf(10), push.getStatusCodes().get(200));
+		assertTrue(push.getP50Nanos() > 0);
+		assertTrue(push.getP50Nanos() <= push.getP99Nanos());
+		assertTrue(push.getP99Nanos() <= push.getMaxNanos());
+
+		InMemoryRequestMetrics.OperationSnapshot getQueue = metrics.snapshot().get(GetQueueRequest.Constant.FUNCTION);
+		assertEquals(2, getQueue.getCount());
+		assertEquals(1, getQueue.getErrors());
+		assertEquals(Long.valueOf(1), getQueue.getStatusCodes().get(200));
+		assertEquals(Long.valueOf(1), getQueue.getStatusCodes().get(404));
+	}
+
+	@Test
+	public void tracksInFlightRequestsAndReset() {
+		InMemoryRequestMetrics metrics = new InMemoryRequestMetrics();
+		metrics.onRequestStart("Push");
+		metrics.onRequestStart("Push");
+		metrics.onRequestEnd("Push", 1000, 10, -1, 500, new IllegalStateException());
+		InMemoryRequestMetrics.OperationSnapshot push = metrics.snapshot().get("Push");
+		assertEquals(1, push.getInFlight());
+		assertEquals(1, push.getCount());
+		assertEquals(1, push.getErrors());
+		assertEquals(0, push.getResponseBytes());
+		metrics.reset();
+		assertTrue(metrics.snapshot().isEmpty());
+	}
+
+}
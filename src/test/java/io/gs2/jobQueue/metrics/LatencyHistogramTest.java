@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * {@link LatencyHistogram} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void recordsSmallValuesExactly() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 1; i <= 50; i++) {
+			histogram.record(i);
+		}
+		assertEquals(50, histogram.getCount());
+		assertEquals(25.5, histogram.getMean(), 0);
+		assertEquals(25, histogram.getValueAtPercentile(50));
+		assertEquals(50, histogram.getValueAtPercentile(100));
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(50, histogram.getMax());
+	}
+
+	@Test
+	public void keepsTheRelativeErrorWithinHalfSubBuckets() {
+		Random random = new Random(1);
+		for(int i = 0; i < 100000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+			long upper = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+			assertTrue(value + " -> " + upper, upper >= value);
+			assertTrue(value + " -> " + upper, upper - value <= value / LatencyHistogram.HALF_SUB_BUCKETS);
+		}
+	}
+
+	@Test
+	public void mapsEveryValueToAnOrderedBucket() {
+		int previous = LatencyHistogram.index(0);
+		for(long value = 1; value < 1 << 20; value++) {
+			int index = LatencyHistogram.index(value);
+			assertTrue(index == previous || index == previous + 1);
+			previous = index;
+		}
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+	}
+
+	@Test
+	public void recordsNegativeValuesAsZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getMean(), 0);
+	}
+
+	@Test
+	public void returnsZeroWithoutRecords() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getMean(), 0);
+	}
+
+	@Test
+	public void findsPercentilesOfLargeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000000L);
+		}
+		assertWithin(500000000L, histogram.getValueAtPercentile(50));
+		assertWithin(990000000L, histogram.getValueAtPercentile(99));
+		assertWithin(1000000000L, histogram.getMax());
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(expected + " vs " + actual, actual >= expected && actual - expected <= expected / LatencyHistogram.HALF_SUB_BUCKETS);
+	}
+
+}
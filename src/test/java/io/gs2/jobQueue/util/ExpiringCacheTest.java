@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * {@link ExpiringCache} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class ExpiringCacheTest {
+
+	@Test
+	public void loadsOnceUntilInvalidated() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(1, TimeUnit.MINUTES, 10);
+		AtomicInteger loads = new AtomicInteger();
+		assertEquals(Integer.valueOf(1), cache.get("a", loads::incrementAndGet));
+		assertEquals(Integer.valueOf(1), cache.get("a", loads::incrementAndGet));
+		cache.invalidate("a");
+		assertEquals(Integer.valueOf(2), cache.get("a", loads::incrementAndGet));
+		cache.invalidateAll();
+		assertEquals(Integer.valueOf(3), cache.get("a", loads::incrementAndGet));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void doesNotCacheNullOrFailures() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(1, TimeUnit.MINUTES, 10);
+		assertNull(cache.get("a", () -> null));
+		try {
+			cache.get("a", () -> {
+				throw new IllegalStateException();
+			});
+		} catch (IllegalStateException e) {
+			// キャッシュしない
+		}
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void dropsValuesLoadedAcrossAnInvalidation() {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(1, TimeUnit.MINUTES, 10);
+		assertEquals(Integer.valueOf(1), cache.get("a", () -> {
+			cache.invalidate("a");
+			return 1;
+		}));
+		assertEquals(Integer.valueOf(2), cache.get("a", () -> 2));
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyAccessed() throws Exception {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(1, TimeUnit.MINUTES, 2);
+		cache.get("a", () -> 1);
+		Thread.sleep(2);
+		cache.get("b", () -> 2);
+		Thread.sleep(2);
+		cache.get("a", () -> -1);
+		Thread.sleep(2);
+		cache.get("c", () -> 3);
+		assertEquals(2, cache.size());
+		assertEquals(Integer.valueOf(1), cache.get("a", () -> -1));
+		assertEquals(Integer.valueOf(20), cache.get("b", () -> 20));
+	}
+
+	@Test
+	public void expiresAfterTheTtl() throws Exception {
+		ExpiringCache<String, Integer> cache = new ExpiringCache<>(20, TimeUnit.MILLISECONDS, 10);
+		cache.get("a", () -> 1);
+		Thread.sleep(50);
+		assertEquals(Integer.valueOf(2), cache.get("a", () -> 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositiveTtl() {
+		new ExpiringCache<String, Integer>(0, TimeUnit.SECONDS, 1);
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DescribeJobRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.transport.Gs2JobQueueResponse;
+
+/**
+ * {@link ItemCursor} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class ItemCursorTest {
+
+	@Test
+	public void readsItemsAndTheTokenInAnyOrder() throws Exception {
+		Response response = new Response("{\"nextPageToken\":\"a\",\"items\":[{\"jobId\":\"1\"},{\"jobId\":\"2\"}],\"extra\":{\"items\":[]}}");
+		try(ItemCursor<Job> cursor = new ItemCursor<>(response, Job.class)) {
+			assertEquals(Arrays.asList("1", "2"), jobIds(cursor));
+			assertEquals("a", cursor.getNextPageToken());
+		}
+		assertTrue(response.closed);
+	}
+
+	@Test
+	public void readsTheTokenAfterTheItems() throws Exception {
+		try(ItemCursor<Job> cursor = new ItemCursor<>(new Response("{\"items\":[{\"jobId\":\"1\"}],\"nextPageToken\":\"b\"}"), Job.class)) {
+			assertEquals(Arrays.asList("1"), jobIds(cursor));
+			assertEquals("b", cursor.getNextPageToken());
+		}
+	}
+
+	@Test
+	public void skipsNullItems() throws Exception {
+		try(ItemCursor<Job> cursor = new ItemCursor<>(new Response("{\"items\":[null,{\"jobId\":\"1\"},null,{\"jobId\":\"2\"}],\"nextPageToken\":\"c\"}"), Job.class)) {
+			assertEquals(Arrays.asList("1", "2"), jobIds(cursor));
+			assertEquals("c", cursor.getNextPageToken());
+		}
+	}
+
+	@Test
+	public void endsWithoutItems() throws Exception {
+		Response response = new Response("{\"nextPageToken\":null}");
+		ItemCursor<Job> cursor = new ItemCursor<>(response, Job.class);
+		assertFalse(cursor.hasNext());
+		assertTrue(response.closed);
+	}
+
+	@Test
+	public void failsOnUnexpectedItems() throws Exception {
+		Response response = new Response("{\"items\":[{\"jobId\":\"1\"},\"text\"]}");
+		ItemCursor<Job> cursor = new ItemCursor<>(response, Job.class);
+		cursor.next();
+		try {
+			cursor.hasNext();
+		} catch (UncheckedIOException e) {
+			assertTrue(response.closed);
+			return;
+		}
+		throw new AssertionError("expected failure");
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnABodyThatIsNotAnObject() throws Exception {
+		new ItemCursor<>(new Response("[]"), Job.class);
+	}
+
+	@Test
+	public void streamsJobsFromTheEmulator() throws Exception {
+		try(Gs2JobQueueEmulator emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start()) {
+			Gs2JobQueueClient client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+			client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+			List<PushJob> jobs = new ArrayList<>();
+			for(int i = 0; i < 5; i++) {
+				jobs.add(new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(0));
+			}
+			client.push(new PushRequest().withQueueName("queue").withUserId("user").withJobs(jobs));
+			try(ItemCursor<Job> cursor = client.describeJobCursor(new DescribeJobRequest().withQueueName("queue").withLimit(3))) {
+				assertEquals(3, jobIds(cursor).size());
+				String pageToken = cursor.getNextPageToken();
+				assertTrue(Paginator.hasToken(pageToken));
+				try(ItemCursor<Job> next = client.describeJobCursor(new DescribeJobRequest().withQueueName("queue").withLimit(3).withPageToken(pageToken))) {
+					assertEquals(2, jobIds(next).size());
+					assertFalse(Paginator.hasToken(next.getNextPageToken()));
+				}
+			}
+		}
+	}
+
+	private static List<String> jobIds(ItemCursor<Job> cursor) {
+		List<String> jobIds = new ArrayList<>();
+		while(cursor.hasNext()) {
+			jobIds.add(cursor.next().getJobId());
+		}
+		return jobIds;
+	}
+
+	private static class Response extends Gs2JobQueueResponse {
+
+		private final byte[] body;
+
+		boolean closed;
+
+		Response(String body) {
+			this.body = body.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public int getStatusCode() {
+			return 200;
+		}
+
+		@Override
+		public InputStream getContent() {
+			return new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.model.PushJob;
+import io.gs2.jobQueue.transport.ContentEncoding;
+
+/**
+ * {@link JsonBodyWriter} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class JsonBodyWriterTest {
+
+	@Test
+	public void writesTheSameBytesAsToJson() throws Exception {
+		assertSameBody(new PushRequest().withJobs(Arrays.asList(
+				new PushJob().withScriptName("script").withArgs("{\"a\":1}").withMaxRetry(3),
+				new PushJob().withScriptName("script").withArgs("{}").withMaxRetry(0))));
+	}
+
+	@Test
+	public void writesNullFieldsLikeToJson() throws Exception {
+		assertSameBody(new PushRequest().withJobs(Collections.singletonList(new PushJob())));
+	}
+
+	@Test
+	public void writesWithoutJobsLikeToJson() throws Exception {
+		assertSameBody(new PushRequest());
+		assertSameBody(new PushRequest().withJobs(Collections.<PushJob>emptyList()));
+	}
+
+	@Test
+	public void escapesStringsLikeToJson() throws Exception {
+		assertSameBody(new PushRequest().withJobs(Arrays.asList(
+				new PushJob().withScriptName("日本語のスクリプト").withArgs("\"quoted\" \\ / \b\f\n\r\t \u0000\u001f   😀").withMaxRetry(-1),
+				new PushJob().withScriptName("</script>").withArgs("{\"nested\":\"{\\\"x\\\":1}\"}").withMaxRetry(Integer.MAX_VALUE))));
+	}
+
+	@Test
+	public void writesSurrogatesLikeToJson() throws Exception {
+		assertSameBody(new PushRequest().withJobs(Arrays.asList(
+				new PushJob().withScriptName("😀").withArgs("{\"emoji\":\"😀𠮷\\n\"}").withMaxRetry(1),
+				new PushJob().withScriptName("lone \ud83d").withArgs("\ude00 \"lone\"").withMaxRetry(1))));
+	}
+
+	@Test
+	public void writesLargeBodiesLikeToJson() throws Exception {
+		// 保持する最大サイズを超えるバッファと、プールから再利用されたバッファの両方で比較する
+		for(int size : new int[] { 2 * 1024 * 1024, 10, 64 * 1024, 10 }) {
+			assertSameBody(request(size));
+		}
+	}
+
+	@Test
+	public void compressesTheSameBytesAboveTheThreshold() throws Exception {
+		PushRequest request = request(16 * 1024);
+		ByteArrayEntity entity = JsonBodyWriter.push(request, 1024, Deflater.BEST_SPEED);
+		assertEquals(ContentEncoding.GZIP, entity.getContentEncoding().getValue());
+		try(InputStream content = ContentEncoding.decode(entity.getContent(), ContentEncoding.GZIP)) {
+			assertArrayEquals(toJsonBody(request), readAll(content));
+		}
+	}
+
+	@Test
+	public void leavesSmallBodiesUncompressed() throws Exception {
+		PushRequest request = request(10);
+		ByteArrayEntity entity = JsonBodyWriter.push(request, 1024 * 1024, Deflater.BEST_SPEED);
+		assertNull(entity.getContentEncoding());
+		assertArrayEquals(toJsonBody(request), EntityUtils.toByteArray(entity));
+	}
+
+	@Test
+	public void givesEachBodyItsOwnArray() throws Exception {
+		PushRequest first = request(100);
+		ByteArrayEntity entity = JsonBodyWriter.push(first);
+		byte[] before = EntityUtils.toByteArray(entity);
+		JsonBodyWriter.push(request(200));
+		assertArrayEquals(before, EntityUtils.toByteArray(entity));
+	}
+
+	private static void assertSameBody(PushRequest request) throws IOException {
+		ByteArrayEntity entity = JsonBodyWriter.push(request);
+		assertNull(entity.getContentEncoding());
+		assertEquals("application/json; charset=UTF-8", entity.getContentType().getValue());
+		assertArrayEquals(toJsonBody(request), EntityUtils.toByteArray(entity));
+	}
+
+	/**
+	 * JsonBodyWriter を導入する前の push と同じ方法でボディを組み立てます。
+	 */
+	private static byte[] toJsonBody(PushRequest request) {
+		ObjectNode body = JsonNodeFactory.instance.objectNode();
+		if(request.getJobs() != null) {
+			body.set("jobs", JsonNodeFactory.instance.arrayNode().addAll(
+					request.getJobs().stream().map(item -> item.toJson()).collect(Collectors.toList())));
+		}
+		return body.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static PushRequest request(int argsLength) {
+		Random random = new Random(argsLength);
+		StringBuilder args = new StringBuilder(argsLength);
+		for(int i = 0; i < argsLength; i++) {
+			args.append((char) (0x20 + random.nextInt(0x3000)));
+		}
+		List<PushJob> jobs = new ArrayList<>();
+		for(int i = 0; i < 3; i++) {
+			jobs.add(new PushJob().withScriptName("script" + i).withArgs(args.toString()).withMaxRetry(i));
+		}
+		return new PushRequest().withJobs(jobs);
+	}
+
+	private static byte[] readAll(InputStream content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while((read = content.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import io.gs2.jobQueue.Gs2JobQueueClient;
+import io.gs2.jobQueue.Gs2JobQueuePaginators;
+import io.gs2.jobQueue.control.CreateQueueRequest;
+import io.gs2.jobQueue.control.DescribeJobRequest;
+import io.gs2.jobQueue.control.PushRequest;
+import io.gs2.jobQueue.emulator.Gs2JobQueueEmulator;
+import io.gs2.jobQueue.emulator.ScriptRunner;
+import io.gs2.jobQueue.model.Job;
+import io.gs2.jobQueue.model.PushJob;
+
+/**
+ * {@link Paginator} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class PaginatorTest {
+
+	@Test
+	public void readsEveryPageLazily() {
+		AtomicInteger fetches = new AtomicInteger();
+		Paginator<Integer> paginator = new Paginator<>(null, pageToken -> {
+			fetches.incrementAndGet();
+			int page = pageToken == null ? 0 : Integer.parseInt(pageToken);
+			return new Paginator.Page<>(Arrays.asList(page * 2, page * 2 + 1), page < 2 ? String.valueOf(page + 1) : null);
+		});
+		assertEquals(0, fetches.get());
+		Iterator<Integer> iterator = paginator.iterator();
+		assertEquals(Integer.valueOf(0), iterator.next());
+		assertEquals(1, fetches.get());
+		List<Integer> rest = new ArrayList<>();
+		iterator.forEachRemaining(rest::add);
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), rest);
+		assertEquals(3, fetches.get());
+	}
+
+	@Test
+	public void skipsEmptyPagesThatHaveANextPageToken() {
+		Paginator<String> paginator = new Paginator<>("a", pageToken -> {
+			switch(pageToken) {
+			case "a": return new Paginator.Page<>(Collections.<String>emptyList(), "b");
+			case "b": return new Paginator.Page<>(null, "c");
+			default: return new Paginator.Page<>(Collections.singletonList("item"), "");
+			}
+		});
+		assertEquals(Collections.singletonList("item"), paginator.stream().collect(Collectors.toList()));
+	}
+
+	@Test
+	public void endsAtANullPage() {
+		Paginator<String> paginator = new Paginator<>(null, pageToken -> null);
+		assertFalse(paginator.iterator().hasNext());
+	}
+
+	@Test
+	public void readsEveryJobFromTheEmulator() throws Exception {
+		try(Gs2JobQueueEmulator emulator = new Gs2JobQueueEmulator(ScriptRunner.SUCCEED).start()) {
+			Gs2JobQueueClient client = new Gs2JobQueueClient(null, "ap-northeast-1", emulator.createTransport());
+			client.createQueue(new CreateQueueRequest().withName("queue").withNotificationType("none"));
+			List<PushJob> jobs = new ArrayList<>();
+			for(int i = 0; i < 25; i++) {
+				jobs.add(new PushJob().withScriptName("script").withArgs("{\"i\":" + i + "}").withMaxRetry(0));
+			}
+			List<String> pushed = client.push(new PushRequest().withQueueName("queue").withUserId("user").withJobs(jobs))
+					.getItems().stream().map(Job::getJobId).sorted().collect(Collectors.toList());
+			List<String> read = Gs2JobQueuePaginators.describeJob(client, new DescribeJobRequest().withQueueName("queue").withLimit(4))
+					.stream().map(Job::getJobId).sorted().collect(Collectors.toList());
+			assertEquals(pushed, read);
+		}
+	}
+
+}
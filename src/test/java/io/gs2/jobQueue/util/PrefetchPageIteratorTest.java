@@ -0,0 +1,140 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link PrefetchPageIterator} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class PrefetchPageIteratorTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void returnsThePagesInOrder() {
+		List<Integer> items = numbers(100, new AtomicInteger()).withPrefetch(executor, 2).stream().collect(Collectors.toList());
+		assertEquals(100, items.size());
+		for(int i = 0; i < 100; i++) {
+			assertEquals(Integer.valueOf(i), items.get(i));
+		}
+	}
+
+	@Test
+	public void readsAtMostReadAheadPagesBeyondTheConsumer() throws Exception {
+		AtomicInteger fetches = new AtomicInteger();
+		PrefetchPageIterator<Integer> pages = new PrefetchPageIterator<>(numbers(1000, fetches).pages(), executor, 3);
+		pages.next();
+		Thread.sleep(300);
+		// 読み出した1ページ + キューの3ページ + offer で待機中の1ページ
+		assertTrue(fetches.get() <= 5);
+		pages.close();
+	}
+
+	@Test
+	public void stopsTheProducerOnClose() throws Exception {
+		AtomicInteger fetches = new AtomicInteger();
+		try(Stream<Integer> stream = numbers(1000, fetches).withPrefetch(executor, 2).stream()) {
+			assertEquals(Integer.valueOf(0), stream.iterator().next());
+		}
+		// 待機中の offer が停止を確認するまで待つ
+		Thread.sleep(300);
+		int stopped = fetches.get();
+		Thread.sleep(300);
+		assertEquals(stopped, fetches.get());
+		assertTrue(stopped < 100);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void rethrowsFailuresOnTheConsumerThread() {
+		IllegalStateException failure = new IllegalStateException("fetch failed");
+		Paginator<Integer> paginator = new Paginator<Integer>(null, pageToken -> {
+			if(pageToken != null) {
+				throw failure;
+			}
+			return new Paginator.Page<>(Collections.singletonList(0), "next");
+		}).withPrefetch(executor, 2);
+		List<Integer> read = new ArrayList<>();
+		try {
+			paginator.forEach(read::add);
+		} catch (IllegalStateException e) {
+			assertSame(failure, e);
+			assertEquals(Collections.singletonList(0), read);
+			return;
+		}
+		throw new AssertionError("expected failure");
+	}
+
+	@Test
+	public void rethrowsErrorsOnTheConsumerThread() {
+		PrefetchPageIterator<Integer> pages = new PrefetchPageIterator<>(new Paginator<Integer>(null, pageToken -> {
+			throw new AssertionError("fatal");
+		}).pages(), executor, 1);
+		try {
+			pages.hasNext();
+		} catch (AssertionError e) {
+			assertEquals("fatal", e.getMessage());
+			return;
+		}
+		throw new AssertionError("expected error");
+	}
+
+	@Test
+	public void hasNoPagesAfterClose() {
+		PrefetchPageIterator<Integer> pages = new PrefetchPageIterator<>(numbers(10, new AtomicInteger()).pages(), executor, 1);
+		pages.close();
+		assertFalse(pages.hasNext());
+	}
+
+	/**
+	 * 1ページ1件で 0 から count - 1 までを返すページネーター
+	 */
+	private static Paginator<Integer> numbers(int count, AtomicInteger fetches) {
+		return new Paginator<>("0", pageToken -> {
+			fetches.incrementAndGet();
+			int n = Integer.parseInt(pageToken);
+			return new Paginator.Page<>(Collections.singletonList(n), n + 1 < count ? String.valueOf(n + 1) : null);
+		});
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.gs2.Gs2Constant;
+
+/**
+ * {@link SignatureCache} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class SignatureCacheTest {
+
+	private static final String RESOLVED_HOST = "https://jobqueue.ap-northeast-1.gs2io.com";
+
+	private final Object credential = new Object();
+
+	private SignatureCache cache;
+
+	private AtomicInteger signed;
+
+	@Before
+	public void setUp() throws Exception {
+		cache = new SignatureCache();
+		signed = new AtomicInteger();
+		// 秒の境目をまたがないように、秒の前半から始める
+		while(System.currentTimeMillis() % 1000 > 500) {
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void reusesTheSignatureWithinTheSameSecond() throws Exception {
+		HttpPost first = sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{\"a\":1}");
+		HttpPost second = sign(credential, "ap-northeast-1", "/queue/q/job/user/b", "Push", "{\"b\":2}");
+		assertEquals(1, signed.get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(RESOLVED_HOST + "/queue/q/job/user/b", second.getURI().toString());
+		assertEquals(first.getFirstHeader("X-GS2-SIGNATURE").getValue(), second.getFirstHeader("X-GS2-SIGNATURE").getValue());
+		assertEquals(first.getFirstHeader(SignatureCache.TIMESTAMP_HEADER).getValue(), second.getFirstHeader(SignatureCache.TIMESTAMP_HEADER).getValue());
+		assertSame(first.getConfig(), second.getConfig());
+		assertEquals("{\"b\":2}", EntityUtils.toString(second.getEntity()));
+		assertEquals(ContentType.APPLICATION_JSON.getMimeType(), ContentType.get(second.getEntity()).getMimeType());
+	}
+
+	@Test
+	public void signsEachFunctionSeparately() {
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a/run", "RunByUserId", "{}");
+		assertEquals(2, signed.get());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void doesNotReuseAcrossCredentialsOrRegions() {
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		sign(new Object(), "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		sign(credential, "us-east-1", "/queue/q/job/user/a", "Push", "{}");
+		assertEquals(3, signed.get());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void signsAgainInTheNextSecond() throws Exception {
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		Thread.sleep(1000);
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		assertEquals(2, signed.get());
+	}
+
+	@Test
+	public void signsAgainAfterInvalidation() {
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		cache.invalidateAll();
+		sign(credential, "ap-northeast-1", "/queue/q/job/user/a", "Push", "{}");
+		assertEquals(2, signed.get());
+	}
+
+	@Test
+	public void doesNotRecordRequestsWithoutATimestamp() {
+		for(int i = 0; i < 2; i++) {
+			cache.sign(credential, "ap-northeast-1", Gs2Constant.ENDPOINT_HOST + "/queue/q", "queue", "DeleteQueue", null,
+					() -> {
+						signed.incrementAndGet();
+						return new HttpDelete(RESOLVED_HOST + "/queue/q");
+					}, HttpDelete::new);
+		}
+		assertEquals(2, signed.get());
+	}
+
+	@Test
+	public void reusesTheSignatureForRequestsWithoutABody() {
+		Supplier<HttpDelete> signer = () -> {
+			signed.incrementAndGet();
+			HttpDelete request = new HttpDelete(RESOLVED_HOST + "/queue/q");
+			request.setHeader(SignatureCache.TIMESTAMP_HEADER, Long.toString(System.currentTimeMillis() / 1000));
+			return request;
+		};
+		cache.sign(credential, "ap-northeast-1", Gs2Constant.ENDPOINT_HOST + "/queue/q", "queue", "DeleteQueue", null, signer, HttpDelete::new);
+		HttpDelete second = cache.sign(credential, "ap-northeast-1", Gs2Constant.ENDPOINT_HOST + "/queue/r", "queue", "DeleteQueue", null, signer, HttpDelete::new);
+		assertEquals(1, signed.get());
+		assertEquals(RESOLVED_HOST + "/queue/r", second.getURI().toString());
+		assertNull(second.getFirstHeader("Content-Length"));
+	}
+
+	private HttpPost sign(Object credential, String region, String path, String function, String body) {
+		return cache.sign(credential, region, Gs2Constant.ENDPOINT_HOST + path, "job-queue", function, body, () -> {
+			int count = signed.incrementAndGet();
+			HttpPost request = new HttpPost(RESOLVED_HOST + path);
+			request.setHeader(SignatureCache.TIMESTAMP_HEADER, Long.toString(System.currentTimeMillis() / 1000));
+			request.setHeader("X-GS2-SIGNATURE", "signature" + count);
+			request.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+			return request;
+		}, HttpPost::new);
+	}
+
+}
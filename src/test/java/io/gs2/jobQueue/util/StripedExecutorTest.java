@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * {@link StripedExecutor} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class StripedExecutorTest {
+
+	@Test
+	public void runsTasksOfTheSameKeyInOrder() throws Exception {
+		try(StripedExecutor executor = new StripedExecutor(4, 10000)) {
+			List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+			CountDownLatch done = new CountDownLatch(1000);
+			for(int i = 0; i < 1000; i++) {
+				int n = i;
+				executor.execute("user", () -> {
+					order.add(n);
+					done.countDown();
+				}, e -> done.countDown());
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			for(int i = 0; i < 1000; i++) {
+				assertEquals(Integer.valueOf(i), order.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void neverRunsTasksOfTheSameLaneConcurrently() throws Exception {
+		try(StripedExecutor executor = new StripedExecutor(2, 10000)) {
+			AtomicInteger running = new AtomicInteger();
+			AtomicInteger overlaps = new AtomicInteger();
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			for(int i = 0; i < 2000; i++) {
+				futures.add(executor.submit("user" + (i % 16), () -> {
+					if(running.incrementAndGet() > 2) {
+						overlaps.incrementAndGet();
+					}
+					Thread.yield();
+					running.decrementAndGet();
+					return null;
+				}));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+			assertEquals(0, overlaps.get());
+		}
+	}
+
+	@Test
+	public void waitsForAsyncTasksBeforeRunningTheNext() throws Exception {
+		try(StripedExecutor executor = new StripedExecutor(1, 100)) {
+			CompletableFuture<String> first = new CompletableFuture<>();
+			List<String> order = Collections.synchronizedList(new ArrayList<>());
+			CompletableFuture<String> a = executor.submitAsync("user", () -> first.thenApply(v -> {
+				order.add(v);
+				return v;
+			}));
+			CompletableFuture<String> b = executor.submit("user", () -> {
+				order.add("b");
+				return "b";
+			});
+			Thread.sleep(100);
+			assertTrue(order.isEmpty());
+			assertTrue(!b.isDone());
+			first.complete("a");
+			assertEquals("a", a.get(5, TimeUnit.SECONDS));
+			assertEquals("b", b.get(5, TimeUnit.SECONDS));
+			assertEquals(Arrays.asList("a", "b"), order);
+		}
+	}
+
+	@Test
+	public void rejectsTasksBeyondTheLaneCapacity() throws Exception {
+		try(StripedExecutor executor = new StripedExecutor(1, 1)) {
+			CompletableFuture<Void> blocker = new CompletableFuture<>();
+			executor.executeAsync("user", () -> blocker, e -> {});
+			// 1つ目のタスクがレーンを保持している間に投入する
+			Thread.sleep(50);
+			CompletableFuture<Integer> queued = executor.submit("user", () -> 1);
+			CompletableFuture<Integer> rejected = executor.submit("user", () -> 2);
+			assertRejected(rejected);
+			blocker.complete(null);
+			assertEquals(Integer.valueOf(1), queued.get(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void failsQueuedTasksWhenTheExecutorRejectsTheLane() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		pool.shutdown();
+		StripedExecutor executor = new StripedExecutor(pool, 4, 100);
+		CountDownLatch rejected = new CountDownLatch(10);
+		for(int i = 0; i < 10; i++) {
+			executor.execute("user" + i, () -> {}, e -> rejected.countDown());
+		}
+		assertTrue(rejected.await(5, TimeUnit.SECONDS));
+		assertEquals(0, executor.getQueuedTasks("user0"));
+	}
+
+	@Test
+	public void failsTasksQueuedBehindARunningLaneWhenTheExecutorShutsDown() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		StripedExecutor executor = new StripedExecutor(pool, 1, 100);
+		CompletableFuture<Void> blocker = new CompletableFuture<>();
+		executor.executeAsync("user", () -> blocker, e -> {});
+		Thread.sleep(50);
+		List<CompletableFuture<Integer>> queued = new ArrayList<>();
+		for(int i = 0; i < 5; i++) {
+			int n = i;
+			queued.add(executor.submit("user", () -> n));
+		}
+		pool.shutdown();
+		blocker.complete(null);
+		for(CompletableFuture<Integer> future : queued) {
+			assertRejected(future);
+		}
+	}
+
+	@Test
+	public void mapsKeysOntoAFixedSetOfLanes() {
+		StripedExecutor executor = new StripedExecutor(Runnable::run, 8, 1);
+		assertEquals(8, executor.getStripes());
+		for(int i = 0; i < 1000; i++) {
+			int stripe = executor.stripeOf("user" + i);
+			assertTrue(stripe >= 0 && stripe < 8);
+			assertEquals(stripe, executor.stripeOf("user" + i));
+		}
+		assertEquals(executor.stripeOf(null), executor.stripeOf(null));
+	}
+
+	private static void assertRejected(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+			return;
+		}
+		throw new AssertionError("expected RejectedExecutionException");
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016 Game Server Services, Inc. or its affiliates. All Rights
+ * Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.gs2.jobQueue.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import io.gs2.Gs2Constant;
+
+/**
+ * {@link UrlTemplate} のテスト。
+ *
+ * @author Game Server Services, Inc.
+ */
+public class UrlTemplateTest {
+
+	private static final UrlTemplate DEAD_JOB_URL = UrlTemplate.compile("/queue/{queueName}/deadJob/{jobId}/user/{userId}");
+
+	@Test
+	public void matchesTheOldConcatenationForPlainValues() {
+		String queueName = "queue-1";
+		String jobId = "job_2.~";
+		String userId = "user3";
+		String old = Gs2Constant.ENDPOINT_HOST + "/queue/" + queueName + "/deadJob/" + jobId + "/user/" + userId + "";
+		assertEquals(old, DEAD_JOB_URL.render(queueName, jobId, userId));
+	}
+
+	@Test
+	public void writesNullForNullAndEmptyValues() {
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/null/deadJob/null/user/null", DEAD_JOB_URL.render(null, "", null));
+	}
+
+	@Test
+	public void percentEncodesReservedCharacters() {
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/a%2Fb/deadJob/%3F%23%25/user/%20%2B%26%3D",
+				DEAD_JOB_URL.render("a/b", "?#%", " +&="));
+	}
+
+	@Test
+	public void percentEncodesNonAsciiAsUtf8() {
+		String value = "ユーザー😀é";
+		StringBuilder expected = new StringBuilder();
+		UrlTemplate.appendSegment(expected, value);
+		assertEquals(encode(value), expected.toString());
+		assertEquals("abc%E3%83%A6", UrlTemplate.appendSegment(new StringBuilder(), "abcユ").toString());
+	}
+
+	@Test
+	public void encodesEveryAsciiCharacterLikeUrlEncoder() {
+		for(char c = 1; c < 0x80; c++) {
+			String value = "x" + c;
+			assertEquals("char " + (int) c, encode(value), UrlTemplate.appendSegment(new StringBuilder(), value).toString());
+		}
+	}
+
+	@Test
+	public void rendersTemplatesWithoutVariables() {
+		UrlTemplate template = UrlTemplate.compile("/queue");
+		assertEquals(0, template.getVariableCount());
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue", template.render());
+	}
+
+	@Test
+	public void appendsWithoutTheHost() {
+		StringBuilder out = new StringBuilder("prefix:");
+		DEAD_JOB_URL.appendTo(out, "q", "j", "u");
+		assertEquals("prefix:/queue/q/deadJob/j/user/u", out.toString());
+	}
+
+	@Test
+	public void keepsRenderingAfterTheCachedPrefixesAreFull() {
+		UrlTemplate template = UrlTemplate.compile("/queue/{queueName}/job");
+		for(int i = 0; i < UrlTemplate.MAX_CACHED_PREFIXES * 2; i++) {
+			assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/q" + i + "/job", template.render("q" + i));
+		}
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/a%20b/job", template.render("a b"));
+	}
+
+	@Test
+	public void doesNotLeakLongValuesIntoLaterUrls() {
+		StringBuilder longValue = new StringBuilder();
+		for(int i = 0; i < UrlTemplate.MAX_REUSED_CAPACITY * 2; i++) {
+			longValue.append('x');
+		}
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/q/deadJob/" + longValue + "/user/u", DEAD_JOB_URL.render("q", longValue.toString(), "u"));
+		assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/q/deadJob/j/user/u", DEAD_JOB_URL.render("q", "j", "u"));
+	}
+
+	@Test
+	public void rendersConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for(int t = 0; t < 8; t++) {
+				final int thread = t;
+				futures.add(executor.submit((Callable<Void>) () -> {
+					for(int i = 0; i < 2000; i++) {
+						String jobId = "job" + thread + "-" + i;
+						assertEquals(Gs2Constant.ENDPOINT_HOST + "/queue/q" + (i % 7) + "/deadJob/" + jobId + "/user/u" + thread,
+								DEAD_JOB_URL.render("q" + (i % 7), jobId, "u" + thread));
+					}
+					return null;
+				}));
+			}
+			for(Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTheWrongNumberOfValues() {
+		DEAD_JOB_URL.render("q", "j");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAnUnterminatedVariable() {
+		UrlTemplate.compile("/queue/{queueName");
+	}
+
+	/**
+	 * URLEncoder の結果を RFC 3986 のパス区間向けに読み替えます。
+	 */
+	private static String encode(String value) {
+		try {
+			return URLEncoder.encode(value, "UTF-8").replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}